@@ -1,5 +1,7 @@
 package com.hkteam.ecommerce_platform.configuration;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.HashSet;
 
 import org.springframework.boot.ApplicationRunner;
@@ -17,6 +19,7 @@ import com.hkteam.ecommerce_platform.enums.OrderStatusName;
 import com.hkteam.ecommerce_platform.enums.RoleName;
 import com.hkteam.ecommerce_platform.enums.TransactionStatusName;
 import com.hkteam.ecommerce_platform.repository.*;
+import com.hkteam.ecommerce_platform.service.StatisticRollupService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -35,7 +38,10 @@ public class ApplicationInitConfig {
             RoleRepository roleRepository,
             TransactionStatusRepository transactionStatusRepository,
             OrderStatusRepository orderStatusRepository,
-            PermissionRepository permissionRepository) {
+            PermissionRepository permissionRepository,
+            OrderRepository orderRepository,
+            DailyPlatformStatsRepository dailyPlatformStatsRepository,
+            StatisticRollupService statisticRollupService) {
         return args -> {
             if (roleRepository.findByName(RoleName.USER).isEmpty()) {
                 log.info("Creating user role");
@@ -258,6 +264,25 @@ public class ApplicationInitConfig {
                     log.error("Error creating permission", e);
                 }
             }
+
+            if (orderRepository.existsByCurrentStatusIsNull()) {
+                log.info("Backfilling order current status");
+                try {
+                    int updated = orderRepository.backfillCurrentStatus();
+                    log.info("Backfilled current status for {} orders", updated);
+                } catch (Exception e) {
+                    log.error("Error backfilling order current status", e);
+                }
+            }
+
+            if (dailyPlatformStatsRepository.count() == 0) {
+                log.info("Building statistic rollups");
+                try {
+                    statisticRollupService.rebuild(LocalDate.of(2020, 1, 1), LocalDate.now(ZoneOffset.UTC));
+                } catch (Exception e) {
+                    log.error("Error building statistic rollups", e);
+                }
+            }
         };
     }
 }
@@ -0,0 +1,75 @@
+package com.hkteam.ecommerce_platform.configuration;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+// Values are written for one known root type, so no class names end up in the payload.
+@Slf4j
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+    private static final byte RAW = 0;
+    private static final byte LZ4 = 1;
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR =
+            LZ4Factory.fastestInstance().fastDecompressor();
+
+    private final ObjectMapper mapper;
+    private final JavaType type;
+    private final int compressThreshold;
+
+    public CompactRedisSerializer(ObjectMapper mapper, JavaType type, int compressThreshold) {
+        this.mapper = mapper;
+        this.type = type;
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value == null) return new byte[0];
+
+        byte[] bytes;
+        try {
+            bytes = mapper.writerFor(type).writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write cache value: " + e.getMessage(), e);
+        }
+
+        if (compressThreshold <= 0 || bytes.length < compressThreshold) {
+            return ByteBuffer.allocate(bytes.length + 1).put(RAW).put(bytes).array();
+        }
+
+        byte[] compressed = COMPRESSOR.compress(bytes);
+        return ByteBuffer.allocate(compressed.length + 5)
+                .put(LZ4)
+                .putInt(bytes.length)
+                .put(compressed)
+                .array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) return null;
+
+        try {
+            if (bytes[0] == LZ4) {
+                int length = ByteBuffer.wrap(bytes, 1, 4).getInt();
+                return mapper.readValue(DECOMPRESSOR.decompress(bytes, 5, length), type);
+            }
+            return mapper.readValue(bytes, 1, bytes.length - 1, type);
+        } catch (Exception e) {
+            // An unreadable entry is treated as a miss and gets overwritten on the next put.
+            log.error("Error when read cache value of {}: {}", type, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.hkteam.ecommerce_platform.configuration;
 
-import java.text.ParseException;
+import java.time.Duration;
 import java.util.Objects;
 import javax.crypto.spec.SecretKeySpec;
 
@@ -10,12 +10,11 @@ import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.stereotype.Component;
 
-import com.hkteam.ecommerce_platform.dto.request.IntrospectRequest;
-import com.hkteam.ecommerce_platform.service.AuthenticationService;
-import com.nimbusds.jose.JOSEException;
+import com.hkteam.ecommerce_platform.service.TokenRevocationService;
 
 @Component
 public class CustomJwtDecoder implements JwtDecoder {
@@ -23,28 +22,24 @@ public class CustomJwtDecoder implements JwtDecoder {
     private String signerKey;
 
     @Autowired
-    private AuthenticationService authenticationService;
+    private TokenRevocationService tokenRevocationService;
 
     private NimbusJwtDecoder nimbusJwtDecoder = null;
 
     @Override
     public Jwt decode(String token) throws JwtException {
-        try {
-            var response = authenticationService.introspect(
-                    IntrospectRequest.builder().token(token).build());
-
-            if (!response.getValid()) throw new JwtException("Invalid token");
-        } catch (JOSEException | ParseException e) {
-            throw new JwtException(e.getMessage());
-        }
-
         if (Objects.isNull(nimbusJwtDecoder)) {
             SecretKeySpec secretKeySpec = new SecretKeySpec(signerKey.getBytes(), "HS512");
             nimbusJwtDecoder = NimbusJwtDecoder.withSecretKey(secretKeySpec)
                     .macAlgorithm(MacAlgorithm.HS512)
                     .build();
+            // Expired tokens are rejected without clock skew, same as AuthenticationService.introspect
+            nimbusJwtDecoder.setJwtValidator(new JwtTimestampValidator(Duration.ZERO));
         }
 
-        return nimbusJwtDecoder.decode(token);
+        Jwt jwt = nimbusJwtDecoder.decode(token);
+        if (tokenRevocationService.isRevoked(jwt.getId())) throw new JwtException("Invalid token");
+
+        return jwt;
     }
 }
@@ -1,29 +1,49 @@
 package com.hkteam.ecommerce_platform.configuration;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hkteam.ecommerce_platform.dto.response.*;
+import com.hkteam.ecommerce_platform.service.ChatBroadcastService;
+import com.hkteam.ecommerce_platform.service.TokenRevocationService;
 
 @Configuration
 @EnableCaching
 public class RedisConfig {
 
+    static final List<String> CACHE_NAMES = List.of(
+            "productCache", "searchCache", "autoSuggestCache", "userCache", "categoryCache", "categoriesTreeCache");
+
     @Value("${spring.spring.redis.host:localhost}") // default localhost if env variable not set
     String host;
 
@@ -63,17 +83,107 @@ public class RedisConfig {
     }
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory, Environment environment) {
+        // Local caffeine caches in front of redis, evictions are broadcast to the other nodes
+        Map<String, TwoTierCacheManager.LocalCacheSpec> localSpecs = new HashMap<>();
+        TwoTierCacheManager.LocalCacheSpec defaultSpec = localCacheSpec(environment, "default", null);
+        CACHE_NAMES.forEach(name -> localSpecs.put(name, localCacheSpec(environment, name, defaultSpec)));
+
+        return new TwoTierCacheManager(
+                redisCacheManager(redisConnectionFactory, environment),
+                new StringRedisTemplate(redisConnectionFactory),
+                localSpecs,
+                defaultSpec);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+            RedisConnectionFactory redisConnectionFactory,
+            TwoTierCacheManager cacheManager,
+            TokenRevocationService tokenRevocationService,
+            ChatBroadcastService chatBroadcastService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        // The default executor starts a thread per message, one dispatch thread keeps the publish order so chat lines
+        // of a room reach its topic in the order they were sent
+        container.setTaskExecutor(createListenerExecutor());
+        container.setSubscriptionExecutor(new SimpleAsyncTaskExecutor("redis-subscription-"));
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+        container.addMessageListener(
+                tokenRevocationService, new ChannelTopic(TokenRevocationService.REVOCATION_CHANNEL));
+        container.addMessageListener(chatBroadcastService, new ChannelTopic(ChatBroadcastService.FANOUT_CHANNEL));
+        return container;
+    }
+
+    static ThreadPoolTaskExecutor createListenerExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("redis-listener-");
+        executor.setDaemon(true);
+        executor.initialize();
+        return executor;
+    }
+
+    private RedisCacheManager redisCacheManager(
+            RedisConnectionFactory redisConnectionFactory, Environment environment) {
+        TypeFactory types = TypeFactory.defaultInstance();
+        Map<String, JavaType> cacheTypes = Map.of(
+                "productCache", types.constructParametricType(ApiResponse.class, ProductUserViewResponse.class),
+                "searchCache",
+                        types.constructParametricType(
+                                ApiResponse.class,
+                                types.constructParametricType(PaginationResponse.class, ProductResponse.class)),
+                "autoSuggestCache",
+                        types.constructParametricType(
+                                ApiResponse.class, types.constructCollectionType(List.class, String.class)),
+                "userCache", types.constructParametricType(ApiResponse.class, UserDetailResponse.class),
+                "categoryCache", types.constructParametricType(ApiResponse.class, CategoryResponse.class),
+                "categoriesTreeCache",
+                        types.constructParametricType(
+                                ApiResponse.class,
+                                types.constructCollectionType(List.class, CategoryTreeViewResponse.class)));
+
         // Create the cache manager with default configuration
-        return RedisCacheManager.builder(redisConnectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(defaultCacheConfiguration())
-                .withCacheConfiguration("productCache", createCacheConfigWithTtl(2)) // Custom TTL for specific caches
-                .withCacheConfiguration("searchCache", createCacheConfigWithTtl(1))
-                .withCacheConfiguration("autoSuggestCache", createCacheConfigWithTtl(2))
-                .withCacheConfiguration("userCache", createCacheConfigWithTtl(30))
-                .withCacheConfiguration("categoryCache", createCacheConfigWithTtl(5))
-                .withCacheConfiguration("categoriesTreeCache", createCacheConfigWithTtl(5))
+                .enableStatistics()
+                .withCacheConfiguration("productCache", createCacheConfig(environment, "productCache", 2, cacheTypes.get("productCache"))) // Custom TTL for specific caches
+                .withCacheConfiguration("searchCache", createCacheConfig(environment, "searchCache", 1, cacheTypes.get("searchCache")))
+                .withCacheConfiguration("autoSuggestCache", createCacheConfig(environment, "autoSuggestCache", 2, cacheTypes.get("autoSuggestCache")))
+                .withCacheConfiguration("userCache", createCacheConfig(environment, "userCache", 30, cacheTypes.get("userCache")))
+                .withCacheConfiguration("categoryCache", createCacheConfig(environment, "categoryCache", 5, cacheTypes.get("categoryCache")))
+                .withCacheConfiguration("categoriesTreeCache", createCacheConfig(environment, "categoriesTreeCache", 5, cacheTypes.get("categoriesTreeCache")))
                 .build();
+        redisCacheManager.afterPropertiesSet();
+        return redisCacheManager;
+    }
+
+    private TwoTierCacheManager.LocalCacheSpec localCacheSpec(
+            Environment environment, String name, TwoTierCacheManager.LocalCacheSpec fallback) {
+        String prefix = "cache.local." + name + ".";
+        return new TwoTierCacheManager.LocalCacheSpec(
+                environment.getProperty(
+                        prefix + "max-size", Long.class, Objects.isNull(fallback) ? 1000L : fallback.maxSize()),
+                environment.getProperty(
+                        prefix + "ttl", Duration.class, Objects.isNull(fallback) ? Duration.ofSeconds(30) : fallback.ttl()));
+    }
+
+    private RedisCacheConfiguration createCacheConfig(
+            Environment environment, String name, long ttlMinutes, JavaType type) {
+        // Per cache value format: json (default typed) or smile (binary, typed by the cache, optional lz4)
+        String prefix = "cache.redis." + name + ".";
+        if (!"smile".equalsIgnoreCase(environment.getProperty(prefix + "format", "json"))) {
+            return createCacheConfigWithTtl(ttlMinutes);
+        }
+
+        int compressThreshold = environment.getProperty(prefix + "compress-threshold", Integer.class, 0);
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofMinutes(ttlMinutes))
+                .disableCachingNullValues()
+                .computePrefixWith(cacheName -> cacheName + ":smile::")
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new CompactRedisSerializer(createSmileMapper(), type, compressThreshold)));
     }
 
     private RedisCacheConfiguration createCacheConfigWithTtl(long ttlMinutes) {
@@ -95,4 +205,12 @@ public class RedisConfig {
                 mapper.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY);
         return mapper;
     }
+
+    private ObjectMapper createSmileMapper() {
+        ObjectMapper mapper = new ObjectMapper(new SmileFactory());
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.registerModule(new JavaTimeModule());
+        return mapper;
+    }
 }
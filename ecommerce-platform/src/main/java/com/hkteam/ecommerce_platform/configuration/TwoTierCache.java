@@ -0,0 +1,118 @@
+package com.hkteam.ecommerce_platform.configuration;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.util.ByteUtils;
+
+// Local entries are kept serialized with the remote value format, every read gets its own copy so a caller that
+// mutates a cached response can't change what the next caller sees
+public class TwoTierCache implements Cache {
+    private final com.github.benmanes.caffeine.cache.Cache<Object, byte[]> local;
+    private final Cache remote;
+    private final SerializationPair<Object> valuePair;
+    private final TwoTierCacheManager cacheManager;
+
+    TwoTierCache(
+            com.github.benmanes.caffeine.cache.Cache<Object, byte[]> local,
+            Cache remote,
+            SerializationPair<Object> valuePair,
+            TwoTierCacheManager cacheManager) {
+        this.local = local;
+        this.remote = remote;
+        this.valuePair = valuePair;
+        this.cacheManager = cacheManager;
+    }
+
+    com.github.benmanes.caffeine.cache.Cache<Object, byte[]> getLocal() {
+        return local;
+    }
+
+    Cache getRemote() {
+        return remote;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        byte[] value = local.getIfPresent(key);
+        if (Objects.nonNull(value)) return new SimpleValueWrapper(read(value));
+
+        ValueWrapper wrapper = remote.get(key);
+        if (Objects.nonNull(wrapper) && Objects.nonNull(wrapper.get())) {
+            local.put(key, write(wrapper.get()));
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = Objects.isNull(wrapper) ? null : wrapper.get();
+        if (Objects.nonNull(value) && Objects.nonNull(type) && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        byte[] value = local.get(key, k -> {
+            T loaded = remote.get(key, valueLoader);
+            return Objects.isNull(loaded) ? null : write(loaded);
+        });
+        return Objects.isNull(value) ? null : (T) read(value);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        // An empty redis entry says nothing about other nodes, redis may have expired or evicted a key they still
+        // hold locally, so every write is announced
+        remote.put(key, value);
+        if (Objects.nonNull(value)) local.put(key, write(value));
+        cacheManager.publishEviction(getName(), String.valueOf(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(key);
+        cacheManager.publishEviction(getName(), String.valueOf(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        cacheManager.publishEviction(getName(), null);
+    }
+
+    // Other nodes only see the string form of the key, every local key with that form goes
+    void evictLocal(String key) {
+        if (Objects.isNull(key)) local.invalidateAll();
+        else local.asMap().keySet().removeIf(localKey -> key.equals(String.valueOf(localKey)));
+    }
+
+    private byte[] write(Object value) {
+        return ByteUtils.getBytes(valuePair.write(value));
+    }
+
+    private Object read(byte[] value) {
+        return valuePair.read(ByteBuffer.wrap(value));
+    }
+}
@@ -0,0 +1,122 @@
+package com.hkteam.ecommerce_platform.configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.hkteam.ecommerce_platform.dto.response.CacheStatisticsResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+    public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+    private static final String SEPARATOR = "\n";
+
+    private final RedisCacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, LocalCacheSpec> localSpecs;
+    private final LocalCacheSpec defaultSpec;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public record LocalCacheSpec(long maxSize, Duration ttl) {}
+
+    public TwoTierCacheManager(
+            RedisCacheManager remoteCacheManager,
+            StringRedisTemplate redisTemplate,
+            Map<String, LocalCacheSpec> localSpecs,
+            LocalCacheSpec defaultSpec) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.localSpecs = localSpecs;
+        this.defaultSpec = defaultSpec;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache remote = remoteCacheManager.getCache(cacheName);
+            if (Objects.isNull(remote)) return null;
+
+            LocalCacheSpec spec = localSpecs.getOrDefault(cacheName, defaultSpec);
+            SerializationPair<Object> valuePair = remote instanceof RedisCache redisCache
+                    ? redisCache.getCacheConfiguration().getValueSerializationPair()
+                    : SerializationPair.fromSerializer(RedisSerializer.java());
+            return new TwoTierCache(
+                    Caffeine.newBuilder()
+                            .maximumSize(spec.maxSize())
+                            .expireAfterWrite(spec.ttl())
+                            .recordStats()
+                            .build(),
+                    remote,
+                    valuePair,
+                    this);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    public List<CacheStatisticsResponse> getStatistics() {
+        List<CacheStatisticsResponse> statistics = new ArrayList<>();
+        caches.forEach((name, cache) -> {
+            CacheStats local = cache.getLocal().stats();
+            long remoteHits = 0;
+            long remoteMisses = 0;
+            if (cache.getRemote() instanceof RedisCache redisCache) {
+                remoteHits = redisCache.getStatistics().getHits();
+                remoteMisses = redisCache.getStatistics().getMisses();
+            }
+            statistics.add(CacheStatisticsResponse.builder()
+                    .cacheName(name)
+                    .localHits(local.hitCount())
+                    .localMisses(local.missCount())
+                    .localHitRatio(local.hitRate())
+                    .localSize(cache.getLocal().estimatedSize())
+                    .remoteHits(remoteHits)
+                    .remoteMisses(remoteMisses)
+                    .remoteHitRatio(
+                            remoteHits + remoteMisses == 0 ? 1.0 : (double) remoteHits / (remoteHits + remoteMisses))
+                    .build());
+        });
+        statistics.sort(Comparator.comparing(CacheStatisticsResponse::getCacheName));
+        return statistics;
+    }
+
+    void publishEviction(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(
+                    INVALIDATION_CHANNEL,
+                    nodeId + SEPARATOR + cacheName + SEPARATOR + Objects.requireNonNullElse(key, ""));
+        } catch (Exception e) {
+            log.error("Error when publish cache eviction for {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) return;
+
+        TwoTierCache cache = caches.get(parts[1]);
+        if (Objects.nonNull(cache)) {
+            cache.evictLocal(parts[2].isEmpty() ? null : parts[2]);
+        }
+    }
+}
@@ -26,6 +26,8 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
+        // Subscriptions stay node local, with websocket.broker-mode redis ChatBroadcastService fans messages out to
+        // every node through redis pub/sub before they reach this broker
         registry.enableSimpleBroker("/topic"); // Client sẽ subscribe vào "/topic"
         registry.setApplicationDestinationPrefixes("/app"); // Định tuyến tin nhắn đến Controller
     }
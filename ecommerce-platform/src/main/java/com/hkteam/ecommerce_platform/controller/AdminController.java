@@ -1,13 +1,23 @@
 package com.hkteam.ecommerce_platform.controller;
 
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.hkteam.ecommerce_platform.dto.response.AdminStatisticsResponse;
 import com.hkteam.ecommerce_platform.dto.response.ApiResponse;
+import com.hkteam.ecommerce_platform.dto.response.CacheStatisticsResponse;
+import com.hkteam.ecommerce_platform.dto.response.EsOutboxStatisticsResponse;
+import com.hkteam.ecommerce_platform.dto.response.MediaUploadStatisticsResponse;
+import com.hkteam.ecommerce_platform.dto.response.QueueStatisticsResponse;
 import com.hkteam.ecommerce_platform.dto.response.RevenueOneYearResponse;
+import com.hkteam.ecommerce_platform.dto.response.WebSocketStatisticsResponse;
 import com.hkteam.ecommerce_platform.service.AdminService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -43,4 +53,74 @@ public class AdminController {
                 .result(adminService.getRevenueOneYear(year, month))
                 .build();
     }
+
+    @Operation(summary = "Get cache statistics", description = "Api get hit ratio of local and redis cache tiers")
+    @GetMapping("/cache/statistic")
+    public ApiResponse<List<CacheStatisticsResponse>> getCacheStatistics() {
+        return ApiResponse.<List<CacheStatisticsResponse>>builder()
+                .result(adminService.getCacheStatistics())
+                .build();
+    }
+
+    @Operation(
+            summary = "Get media upload statistics",
+            description = "Api get queue depth and latency of the media upload executor")
+    @GetMapping("/media-upload/statistic")
+    public ApiResponse<MediaUploadStatisticsResponse> getMediaUploadStatistics() {
+        return ApiResponse.<MediaUploadStatisticsResponse>builder()
+                .result(adminService.getMediaUploadStatistics())
+                .build();
+    }
+
+    @Operation(
+            summary = "Get queue statistics",
+            description = "Api get depth, retry, parking lot and throughput of rabbitmq listener queues")
+    @GetMapping("/rabbitmq/statistic")
+    public ApiResponse<List<QueueStatisticsResponse>> getQueueStatistics() {
+        return ApiResponse.<List<QueueStatisticsResponse>>builder()
+                .result(adminService.getQueueStatistics())
+                .build();
+    }
+
+    @Operation(
+            summary = "Get websocket statistics",
+            description = "Api get broker mode, fan out latency and websocket sessions per node")
+    @GetMapping("/websocket/statistic")
+    public ApiResponse<WebSocketStatisticsResponse> getWebSocketStatistics() {
+        return ApiResponse.<WebSocketStatisticsResponse>builder()
+                .result(adminService.getWebSocketStatistics())
+                .build();
+    }
+
+    @Operation(
+            summary = "Get es outbox statistics",
+            description = "Api get pending and parked entries and lag of the elasticsearch outbox")
+    @GetMapping("/es-outbox/statistic")
+    public ApiResponse<EsOutboxStatisticsResponse> getEsOutboxStatistics() {
+        return ApiResponse.<EsOutboxStatisticsResponse>builder()
+                .result(adminService.getEsOutboxStatistics())
+                .build();
+    }
+
+    @Operation(
+            summary = "Replay es outbox",
+            description = "Api put parked elasticsearch outbox entries back in the relay")
+    @PostMapping("/es-outbox/replay")
+    public ApiResponse<Integer> replayEsOutbox() {
+        return ApiResponse.<Integer>builder()
+                .result(adminService.replayEsOutbox())
+                .message("Replayed es outbox successfully")
+                .build();
+    }
+
+    @Operation(summary = "Rebuild statistic", description = "Api rebuild daily statistic rollups for a date range")
+    @PostMapping("/statistic/rebuild")
+    public ApiResponse<Void> rebuildStatistic(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        adminService.rebuildStatistic(from, to);
+        return ApiResponse.<Void>builder()
+                .message("Rebuilt statistic successfully")
+                .build();
+    }
 }
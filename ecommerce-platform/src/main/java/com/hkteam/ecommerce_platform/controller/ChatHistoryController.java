@@ -27,8 +27,9 @@ public class ChatHistoryController {
     public ApiResponse<PaginationResponse<ChatMessageResponse>> getChatHistory(
             @PathVariable String roomId,
             @RequestParam(value = "page", required = false, defaultValue = "1") String page,
-            @RequestParam(value = "size", required = false, defaultValue = "10") String size) {
-        var rs = messageService.getChatHistory(roomId, page, size);
+            @RequestParam(value = "size", required = false, defaultValue = "10") String size,
+            @RequestParam(value = "before", required = false) String before) {
+        var rs = messageService.getChatHistory(roomId, page, size, before);
         return ApiResponse.<PaginationResponse<ChatMessageResponse>>builder()
                 .result(rs)
                 .build();
@@ -44,8 +45,9 @@ public class ChatHistoryController {
     @GetMapping("/rooms-user")
     public ApiResponse<PaginationResponse<RoomResponse>> getRooms(
             @RequestParam(value = "page", required = false, defaultValue = "1") String page,
-            @RequestParam(value = "size", required = false, defaultValue = "10") String size) {
-        var rs = messageService.getRooms(page, size);
+            @RequestParam(value = "size", required = false, defaultValue = "10") String size,
+            @RequestParam(value = "before", required = false) String before) {
+        var rs = messageService.getRooms(page, size, before);
         return ApiResponse.<PaginationResponse<RoomResponse>>builder()
                 .result(rs)
                 .build();
@@ -54,8 +56,9 @@ public class ChatHistoryController {
     @GetMapping("/rooms-store")
     public ApiResponse<PaginationResponse<RoomResponse>> getRoomInStore(
             @RequestParam(value = "page", required = false, defaultValue = "1") String page,
-            @RequestParam(value = "size", required = false, defaultValue = "10") String size) {
-        var rs = messageService.getRoomInStore(page, size);
+            @RequestParam(value = "size", required = false, defaultValue = "10") String size,
+            @RequestParam(value = "before", required = false) String before) {
+        var rs = messageService.getRoomInStore(page, size, before);
         return ApiResponse.<PaginationResponse<RoomResponse>>builder()
                 .result(rs)
                 .build();
@@ -65,8 +68,9 @@ public class ChatHistoryController {
     public ApiResponse<PaginationResponse<ChatMessageResponse>> getChatHistoryInStore(
             @PathVariable String roomId,
             @RequestParam(value = "page", required = false, defaultValue = "1") String page,
-            @RequestParam(value = "size", required = false, defaultValue = "10") String size) {
-        var rs = messageService.getChatInStore(roomId, page, size);
+            @RequestParam(value = "size", required = false, defaultValue = "10") String size,
+            @RequestParam(value = "before", required = false) String before) {
+        var rs = messageService.getChatInStore(roomId, page, size, before);
         return ApiResponse.<PaginationResponse<ChatMessageResponse>>builder()
                 .result(rs)
                 .build();
@@ -31,24 +31,31 @@ public class ElasticSearchController {
     ElasticSearchService elasticSearchService;
     ProductService productService;
 
-    @Cacheable(value = "autoSuggestCache", key = "#text", unless = "#result == null || #result.result.isEmpty()")
+    @Cacheable(
+            value = "autoSuggestCache",
+            key = "{#text.trim().toLowerCase(), #categoryId, #storeId}",
+            unless = "#result == null || #result.result.isEmpty()")
     @GetMapping("/auto-suggest")
     public ApiResponse<List<String>> getAutoSuggestProduct(
-            @RequestParam(value = "keyword", required = false, defaultValue = "") String text) throws IOException {
+            @RequestParam(value = "keyword", required = false, defaultValue = "") String text,
+            @RequestParam(value = "category", required = false) Long categoryId,
+            @RequestParam(value = "store", required = false) String storeId)
+            throws IOException {
         if (text.length() > 1000) {
             throw new AppException(ErrorCode.SEARCH_TOO_LONG);
         }
 
         log.info("Auto suggest product with keyword: {}", text);
         return ApiResponse.<List<String>>builder()
-                .result(elasticSearchService.autoSuggestionProduct(text))
+                .result(elasticSearchService.autoSuggestionProduct(
+                        text.trim().toLowerCase(), categoryId, storeId))
                 .build();
     }
 
     @Cacheable(
             value = "searchCache",
             key =
-                    "{#categoryIds, #brandIds, #storeId, #sortBy, #order, #page, #limit, #search, #minPrice, #maxPrice, #minRate}" // Key cache
+                    "{#categoryIds, #brandIds, #storeId, #sortBy, #order, #page, #limit, #search, #minPrice, #maxPrice, #minRate, #facets, #cursor}" // Key cache
             )
     @GetMapping()
     public ApiResponse<PaginationResponse<ProductResponse>> getAutoSuggestProduct(
@@ -62,7 +69,9 @@ public class ElasticSearchController {
             @RequestParam(value = "search", required = false, defaultValue = "") String search,
             @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
             @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
-            @RequestParam(value = "rating", required = false, defaultValue = "0") int minRate) {
+            @RequestParam(value = "rating", required = false, defaultValue = "0") int minRate,
+            @RequestParam(value = "facets", required = false, defaultValue = "false") boolean facets,
+            @RequestParam(value = "cursor", required = false) String cursor) {
 
         if (search.length() > 1000) {
             throw new AppException(ErrorCode.SEARCH_TOO_LONG);
@@ -93,7 +102,9 @@ public class ElasticSearchController {
                         search,
                         minPrice,
                         maxPrice,
-                        minRate))
+                        minRate,
+                        facets,
+                        cursor))
                 .build();
     }
 
@@ -1,13 +1,19 @@
 package com.hkteam.ecommerce_platform.controller;
 
+import java.io.InputStream;
+
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.hkteam.ecommerce_platform.dto.request.ReviewVideoUploadRequest;
+import com.hkteam.ecommerce_platform.dto.request.VideoUploadInitRequest;
 import com.hkteam.ecommerce_platform.dto.response.ApiResponse;
 import com.hkteam.ecommerce_platform.dto.response.VideoResponse;
 import com.hkteam.ecommerce_platform.dto.response.VideoReviewResponse;
+import com.hkteam.ecommerce_platform.dto.response.VideoUploadResponse;
 import com.hkteam.ecommerce_platform.service.VideoService;
+import com.hkteam.ecommerce_platform.service.VideoUploadService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -24,6 +30,7 @@ import lombok.extern.slf4j.Slf4j;
 @Tag(name = "Video Controller")
 public class VideoController {
     VideoService videoService;
+    VideoUploadService videoUploadService;
 
     @Operation(summary = "Upload Product Video", description = "Api upload product video")
     @PostMapping(value = "/products/{productId}", consumes = "multipart/form-data")
@@ -34,6 +41,46 @@ public class VideoController {
                 .build();
     }
 
+    @Operation(
+            summary = "Start Product Video Upload",
+            description = "Api start a chunked product video upload, checksum is the sha-256 of the whole file")
+    @PostMapping(value = "/products/{productId}/uploads")
+    public ApiResponse<VideoUploadResponse> initProductVideoUpload(
+            @PathVariable("productId") String productId, @RequestBody VideoUploadInitRequest request) {
+        return ApiResponse.<VideoUploadResponse>builder()
+                .result(videoUploadService.initUpload(productId, request))
+                .build();
+    }
+
+    @Operation(
+            summary = "Upload Product Video Chunk",
+            description = "Api append a chunk at offset, offset must equal the bytes received so far")
+    @PutMapping(value = "/uploads/{uploadId}/chunks", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ApiResponse<VideoUploadResponse> uploadProductVideoChunk(
+            @PathVariable("uploadId") String uploadId, @RequestParam("offset") long offset, InputStream chunk) {
+        return ApiResponse.<VideoUploadResponse>builder()
+                .result(videoUploadService.appendChunk(uploadId, offset, chunk))
+                .build();
+    }
+
+    @Operation(
+            summary = "Complete Product Video Upload",
+            description = "Api verify checksum and start processing the uploaded video")
+    @PostMapping(value = "/uploads/{uploadId}/complete")
+    public ApiResponse<VideoUploadResponse> completeProductVideoUpload(@PathVariable("uploadId") String uploadId) {
+        return ApiResponse.<VideoUploadResponse>builder()
+                .result(videoUploadService.completeUpload(uploadId))
+                .build();
+    }
+
+    @Operation(summary = "Get Product Video Upload", description = "Api get status of a chunked product video upload")
+    @GetMapping(value = "/uploads/{uploadId}")
+    public ApiResponse<VideoUploadResponse> getProductVideoUpload(@PathVariable("uploadId") String uploadId) {
+        return ApiResponse.<VideoUploadResponse>builder()
+                .result(videoUploadService.getUpload(uploadId))
+                .build();
+    }
+
     @Operation(summary = "Delete Product Video", description = "Api delete product video")
     @DeleteMapping(value = "/products/{productId}")
     public ApiResponse<Void> deleteProductVideo(@PathVariable("productId") String productId) {
@@ -4,16 +4,16 @@ import org.springframework.context.event.EventListener;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.socket.messaging.SessionConnectEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 import com.hkteam.ecommerce_platform.dto.request.ChatMessageRequest;
-import com.hkteam.ecommerce_platform.dto.response.ChatMessageResponse;
 import com.hkteam.ecommerce_platform.entity.user.User;
+import com.hkteam.ecommerce_platform.service.ChatBroadcastService;
 import com.hkteam.ecommerce_platform.service.ChatService;
+import com.hkteam.ecommerce_platform.service.PresenceService;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AccessLevel;
@@ -28,20 +28,21 @@ import lombok.extern.slf4j.Slf4j;
 @Tag(name = "Component Controller")
 public class WebSocketController {
     ChatService chatService;
+    ChatBroadcastService chatBroadcastService;
+    PresenceService presenceService;
 
     @MessageMapping("/chat/{roomId}")
-    @SendTo("/topic/room/{roomId}")
-    public ChatMessageResponse sendMessage(
+    public void sendMessage(
             @DestinationVariable String roomId,
             @Payload ChatMessageRequest message,
             SimpMessageHeaderAccessor headerAccessor) {
         User user = (User) headerAccessor.getSessionAttributes().get("user");
         if (user == null) {
             log.error("User not found");
-            return null;
+            return;
         }
         var rs = chatService.saveMessage(roomId, message, user);
-        return rs;
+        chatBroadcastService.publish("/topic/room/" + roomId, rs);
     }
 
     @EventListener
@@ -49,7 +50,7 @@ public class WebSocketController {
         SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
         User user = (User) headerAccessor.getSessionAttributes().get("user");
         if (user != null) {
-            chatService.updateUserOnlineStatus(user.getId(), true);
+            presenceService.connected(headerAccessor.getSessionId(), user.getId());
             log.info("User {} connected", user.getId());
         } else {
             log.warn("No user found in session during connect");
@@ -61,7 +62,7 @@ public class WebSocketController {
         SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
         User user = (User) headerAccessor.getSessionAttributes().get("user");
         if (user != null) {
-            chatService.updateUserOnlineStatus(user.getId(), false);
+            presenceService.disconnected(event.getSessionId());
             log.info("User {} disconnected", user.getId());
         } else {
             log.warn("No user found in session during disconnect");
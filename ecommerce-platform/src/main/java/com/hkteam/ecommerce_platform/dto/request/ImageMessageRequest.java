@@ -16,7 +16,7 @@ import lombok.experimental.FieldDefaults;
 @NoArgsConstructor
 @FieldDefaults(level = lombok.AccessLevel.PRIVATE)
 public class ImageMessageRequest {
-    List<byte[]> image;
+    List<String> files;
     TypeImage type;
     String id;
 }
@@ -0,0 +1,18 @@
+package com.hkteam.ecommerce_platform.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE)
+public class VideoUploadInitRequest {
+    String fileName;
+    long totalSize;
+    String checksum; // sha-256 of the whole file, hex encoded
+}
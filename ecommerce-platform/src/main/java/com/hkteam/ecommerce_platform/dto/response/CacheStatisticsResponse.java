@@ -0,0 +1,20 @@
+package com.hkteam.ecommerce_platform.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CacheStatisticsResponse {
+    String cacheName;
+    long localHits;
+    long localMisses;
+    double localHitRatio;
+    long localSize;
+    long remoteHits;
+    long remoteMisses;
+    double remoteHitRatio;
+}
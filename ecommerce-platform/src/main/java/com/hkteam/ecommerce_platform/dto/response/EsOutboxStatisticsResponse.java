@@ -0,0 +1,15 @@
+package com.hkteam.ecommerce_platform.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EsOutboxStatisticsResponse {
+    long pendingEntries;
+    long parkedEntries;
+    long lagSeconds;
+}
@@ -0,0 +1,25 @@
+package com.hkteam.ecommerce_platform.dto.response;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FacetBucketResponse implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    String key;
+    Double from;
+    Double to;
+    long count;
+}
@@ -0,0 +1,20 @@
+package com.hkteam.ecommerce_platform.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class MediaUploadStatisticsResponse {
+    int parallelism;
+    int activeUploads;
+    int queueDepth;
+    long completedUploads;
+    long failedUploads;
+    long retriedAttempts;
+    double averageLatencyMs;
+    double maxLatencyMs;
+}
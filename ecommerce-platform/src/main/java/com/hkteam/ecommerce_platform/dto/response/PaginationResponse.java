@@ -4,6 +4,9 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import lombok.*;
 import lombok.experimental.FieldDefaults;
@@ -20,12 +23,27 @@ public class PaginationResponse<T> implements Serializable {
     @Builder.Default
     private List<T> data = Collections.emptyList();
 
-    int totalPages;
+    // Left out of cursor pages, which have no page number
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Integer totalPages;
+
     int pageSize;
     long totalElements;
-    int currentPage;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Integer currentPage;
+
     boolean hasNext;
-    boolean hasPrevious;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Boolean hasPrevious;
+
     Integer nextPage;
     Integer previousPage;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Map<String, List<FacetBucketResponse>> facets;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    String nextCursor;
 }
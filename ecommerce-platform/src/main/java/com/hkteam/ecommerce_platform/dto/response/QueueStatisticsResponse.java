@@ -0,0 +1,22 @@
+package com.hkteam.ecommerce_platform.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class QueueStatisticsResponse {
+    String queue;
+    long readyMessages;
+    long consumers;
+    long retryMessages;
+    long parkedMessages;
+    long processed;
+    long failed;
+    long retried;
+    long parked;
+    double processedPerSecond;
+}
@@ -1,5 +1,7 @@
 package com.hkteam.ecommerce_platform.dto.response;
 
+import java.time.Instant;
+
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
@@ -10,4 +12,5 @@ import lombok.experimental.FieldDefaults;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class StoreCheckOnlineStatus {
     boolean online;
+    Instant lastSeenAt;
 }
@@ -0,0 +1,23 @@
+package com.hkteam.ecommerce_platform.dto.response;
+
+import com.hkteam.ecommerce_platform.enums.VideoUploadStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE)
+public class VideoUploadResponse {
+    String uploadId;
+    String productId;
+    VideoUploadStatus status;
+    long receivedBytes;
+    long totalSize;
+    String videoUrl;
+}
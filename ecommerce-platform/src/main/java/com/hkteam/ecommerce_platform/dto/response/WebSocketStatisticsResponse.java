@@ -0,0 +1,22 @@
+package com.hkteam.ecommerce_platform.dto.response;
+
+import java.util.Map;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class WebSocketStatisticsResponse {
+    String brokerMode;
+    String nodeId;
+    int sessions;
+    long published;
+    long delivered;
+    double averageFanoutLatencyMillis;
+    long maxFanoutLatencyMillis;
+    Map<String, Integer> sessionsPerNode;
+}
@@ -3,6 +3,8 @@ package com.hkteam.ecommerce_platform.entity.chat;
 import java.time.Instant;
 
 import jakarta.persistence.*;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 import org.hibernate.annotations.*;
 
@@ -18,6 +20,7 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = {@Index(name = "idx_message_room_created_at", columnList = "room_id, created_at, id")})
 @SQLDelete(sql = "UPDATE store SET is_deleted = true WHERE id=?")
 @SQLRestriction("is_deleted=false")
 public class Message {
@@ -0,0 +1,45 @@
+package com.hkteam.ecommerce_platform.entity.chat;
+
+import java.time.Instant;
+
+import jakarta.persistence.*;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+// Write behind chat messages the database refused, kept without foreign keys so any row can land here
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "message_dead_letter")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class MessageDeadLetter {
+    @Id
+    String id;
+
+    @Column(columnDefinition = "TEXT")
+    String content;
+
+    String roomId;
+
+    String userId;
+
+    String orderId;
+
+    String productId;
+
+    // Time the sender was told the message was delivered
+    Instant sentAt;
+
+    @Column(length = 1000)
+    String error;
+
+    @CreationTimestamp(source = SourceType.DB)
+    Instant failedAt;
+}
@@ -7,6 +7,8 @@ import java.util.List;
 
 import jakarta.persistence.*;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 import org.hibernate.annotations.*;
 
@@ -22,6 +24,11 @@ import lombok.experimental.FieldDefaults;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(
+        indexes = {
+            @Index(name = "idx_room_user_last_updated_at", columnList = "user_id, last_updated_at, id"),
+            @Index(name = "idx_room_store_last_updated_at", columnList = "store_id, last_updated_at, id")
+        })
 @SQLDelete(sql = "UPDATE store SET is_deleted = true WHERE id=?")
 @SQLRestriction("is_deleted=false")
 @FieldDefaults(level = AccessLevel.PRIVATE)
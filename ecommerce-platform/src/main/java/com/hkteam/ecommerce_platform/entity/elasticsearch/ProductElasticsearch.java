@@ -6,10 +6,14 @@ import java.util.List;
 
 import jakarta.persistence.Id;
 
+import org.springframework.data.elasticsearch.annotations.CompletionContext;
+import org.springframework.data.elasticsearch.annotations.CompletionField;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import lombok.*;
@@ -85,4 +89,10 @@ public class ProductElasticsearch {
 
     @Field(type = FieldType.Nested)
     List<EsProComponentValue> productComponentValues;
+
+    @JsonIgnore
+    @CompletionField(
+            maxInputLength = 100,
+            contexts = {@CompletionContext(name = "scope", type = CompletionContext.ContextMappingType.CATEGORY)})
+    Completion suggest;
 }
@@ -0,0 +1,21 @@
+package com.hkteam.ecommerce_platform.entity.embed;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Embeddable;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Embeddable
+public class DailyStoreStatsKey {
+    String storeId;
+    LocalDate statDate;
+}
@@ -7,12 +7,14 @@ import java.util.List;
 
 import jakarta.persistence.*;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 import org.hibernate.annotations.*;
 
 import com.hkteam.ecommerce_platform.entity.chat.Message;
 import com.hkteam.ecommerce_platform.entity.payment.Transaction;
+import com.hkteam.ecommerce_platform.entity.status.OrderStatus;
 import com.hkteam.ecommerce_platform.entity.user.Store;
 import com.hkteam.ecommerce_platform.entity.user.User;
 
@@ -27,7 +29,13 @@ import lombok.experimental.FieldDefaults;
 @Entity
 @SQLDelete(sql = "UPDATE order SET is_deleted = true WHERE id=?")
 @SQLRestriction("is_deleted=false")
-@Table(name = "orders")
+@Table(
+        name = "orders",
+        indexes = {
+            @Index(name = "idx_orders_store_current_status", columnList = "store_id, current_status_name"),
+            @Index(name = "idx_orders_user_current_status", columnList = "user_id, current_status_name"),
+            @Index(name = "idx_orders_current_status_at", columnList = "current_status_name, current_status_at")
+        })
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Order {
     @Id
@@ -63,6 +71,12 @@ public class Order {
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
     List<OrderStatusHistory> orderStatusHistories;
 
+    // Latest entry of orderStatusHistories, kept in sync by OrderUtil.addOrderStatusHistory
+    @ManyToOne
+    OrderStatus currentStatus;
+
+    Instant currentStatusAt;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
     List<OrderItem> orderItems;
 
@@ -0,0 +1,44 @@
+package com.hkteam.ecommerce_platform.entity.outbox;
+
+import java.time.Instant;
+
+import jakarta.persistence.*;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "es_outbox",
+        indexes = {@Index(name = "idx_es_outbox_next_attempt", columnList = "next_attempt_at, id")})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EsOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(nullable = false)
+    String productId;
+
+    @Column(nullable = false)
+    String changedFields;
+
+    int attempts;
+
+    @Column(nullable = false)
+    Instant nextAttemptAt;
+
+    // Set once the entry runs out of attempts, parked entries are no longer claimed but still count in the lag
+    Instant parkedAt;
+
+    @CreationTimestamp(source = SourceType.DB)
+    Instant createdAt;
+}
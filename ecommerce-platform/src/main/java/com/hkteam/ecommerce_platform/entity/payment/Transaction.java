@@ -41,6 +41,9 @@ public class Transaction {
 
     BigDecimal amount;
 
+    // Set once the order confirmation email is sent
+    Instant orderEmailSentAt;
+
     @CreationTimestamp
     Instant createdAt;
 
@@ -0,0 +1,33 @@
+package com.hkteam.ecommerce_platform.entity.statistic;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "daily_platform_stats")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class DailyPlatformStats {
+    @Id
+    LocalDate statDate;
+
+    long ordersPlaced;
+    long ordersDelivered;
+    long ordersCancelled;
+
+    @Column(nullable = false)
+    BigDecimal revenue;
+
+    long itemsSold;
+    long newCustomers;
+    long newSellers;
+}
@@ -0,0 +1,34 @@
+package com.hkteam.ecommerce_platform.entity.statistic;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.*;
+
+import com.hkteam.ecommerce_platform.entity.embed.DailyStoreStatsKey;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "daily_store_stats",
+        indexes = @Index(name = "idx_daily_store_stats_store_date", columnList = "store_id, stat_date"))
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class DailyStoreStats {
+    @EmbeddedId
+    DailyStoreStatsKey id;
+
+    long ordersPlaced;
+    long ordersDelivered;
+    long ordersCancelled;
+
+    @Column(nullable = false)
+    BigDecimal revenue;
+
+    long itemsSold;
+}
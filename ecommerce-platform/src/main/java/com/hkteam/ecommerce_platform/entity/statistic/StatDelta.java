@@ -0,0 +1,41 @@
+package com.hkteam.ecommerce_platform.entity.statistic;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+// One row per recorded event, written in the business transaction and folded into the daily rollups by the flush.
+// storeId is null for the platform row.
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "stat_delta")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StatDelta {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    String storeId;
+
+    @Column(nullable = false)
+    LocalDate statDate;
+
+    long ordersPlaced;
+    long ordersDelivered;
+    long ordersCancelled;
+
+    @Column(nullable = false)
+    BigDecimal revenue;
+
+    long itemsSold;
+    long newCustomers;
+    long newSellers;
+}
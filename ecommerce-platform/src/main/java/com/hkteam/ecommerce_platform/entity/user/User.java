@@ -70,9 +70,12 @@ public class User {
     @Column(nullable = false)
     boolean isBlocked = Boolean.FALSE;
 
+    // No longer written, online status comes from PresenceService
     @Column(nullable = false)
     boolean isOnline = Boolean.FALSE;
 
+    Instant lastSeenAt;
+
     @ManyToMany
     Set<Role> roles;
 
@@ -0,0 +1,8 @@
+package com.hkteam.ecommerce_platform.enums;
+
+public enum VideoUploadStatus {
+    UPLOADING,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+}
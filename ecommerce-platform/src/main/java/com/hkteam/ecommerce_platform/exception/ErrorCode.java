@@ -115,7 +115,6 @@ public enum ErrorCode {
     ORDER_NOT_BELONG_TO_STORE(1696, "This order doesn't belong to store", HttpStatus.BAD_REQUEST),
     ORDER_CANCELLED(1697, "Order cancelled", HttpStatus.BAD_REQUEST),
     PRODUCT_PRICE_HAS_CHANGE(1698, "Product has new price, please reload", HttpStatus.BAD_REQUEST),
-    RETRY_FAILED(1699, "There are too many orders at the moment. Please try again shortly.", HttpStatus.BAD_REQUEST),
     STATUS_HISTORY_NOT_FOUND(1700, "Order history status not found", HttpStatus.NOT_FOUND),
     SELLER_PREPARING_COMPLETED_ORDER(
             1701, "Seller is preparing goods or order has been delivered successfully", HttpStatus.BAD_REQUEST),
@@ -159,7 +158,23 @@ public enum ErrorCode {
     ROOM_ALREADY_EXISTED(1736, "room already existed", HttpStatus.BAD_REQUEST),
     ROOM_NOT_FOUND(1737, "room not found", HttpStatus.NOT_FOUND),
     MESSAGE_EMPTY(1738, "mesage empty", HttpStatus.BAD_REQUEST),
-    SEARCH_TOO_LONG(1739, "Search too long, max length is 1000 characters", HttpStatus.BAD_REQUEST);
+    SEARCH_TOO_LONG(1739, "Search too long, max length is 1000 characters", HttpStatus.BAD_REQUEST),
+    INVALID_DATE_RANGE(1740, "From date must not be after to date", HttpStatus.BAD_REQUEST),
+    INVALID_SEARCH_CURSOR(1741, "Search cursor is invalid", HttpStatus.BAD_REQUEST),
+    SEARCH_PAGE_TOO_DEEP(1742, "Search page is too deep, use cursor to continue", HttpStatus.BAD_REQUEST),
+    VIDEO_UPLOAD_NOT_FOUND(1743, "Video upload not found or expired", HttpStatus.NOT_FOUND),
+    VIDEO_UPLOAD_OFFSET_MISMATCH(1744, "Chunk offset does not match the uploaded size", HttpStatus.CONFLICT),
+    VIDEO_UPLOAD_INCOMPLETE(1745, "Video upload is not complete", HttpStatus.BAD_REQUEST),
+    VIDEO_CHECKSUM_MISMATCH(1746, "Video checksum does not match", HttpStatus.BAD_REQUEST),
+    VIDEO_PROCESSING_BUSY(
+            1747, "Too many videos are processing, please try again later", HttpStatus.SERVICE_UNAVAILABLE),
+    VIDEO_UPLOAD_CLOSED(1748, "Video upload no longer accepts changes", HttpStatus.BAD_REQUEST),
+    CHAT_MESSAGE_BUSY(
+            1749,
+            "Too many chat messages are waiting to be saved, please try again later",
+            HttpStatus.SERVICE_UNAVAILABLE),
+    INVALID_PAGE_CURSOR(1750, "Page cursor is invalid", HttpStatus.BAD_REQUEST),
+    PRODUCT_REINDEX_FAILED(1751, "Product reindex failed, the current index is kept", HttpStatus.INTERNAL_SERVER_ERROR);
 
     int code;
     String message;
@@ -11,8 +11,10 @@ public interface OrderMapper {
     @Mapping(source = "user.username", target = "userAccountName")
     @Mapping(source = "user.email", target = "userEmail")
     @Mapping(source = "user.phone", target = "userPhone")
+    @Mapping(source = "currentStatus.name", target = "currentStatus")
     OrderDetailSellerResponse toOrderDetailSellerResponse(Order order);
 
+    @Mapping(source = "currentStatus.name", target = "currentStatus")
     OrderGetAllSellerResponse toOrderGetAllSellerResponse(Order order);
 
     @Mapping(source = "user.username", target = "userAccountName")
@@ -26,9 +28,11 @@ public interface OrderMapper {
     @Mapping(source = "transaction.payment.paymentMethod", target = "paymentMethod")
     @Mapping(source = "store.user.username", target = "storeAccountName")
     @Mapping(source = "store.user.phone", target = "storePhone")
+    @Mapping(source = "currentStatus.name", target = "currentStatus")
     OrderDetailAdminResponse toOrderDetailAdminResponse(Order order);
 
     @Mapping(source = "transaction.payment.paymentMethod", target = "paymentMethod")
+    @Mapping(source = "currentStatus.name", target = "currentStatus")
     OrderGetAllAdminResponse toOrderGetAllAdminResponse(Order order);
 
     @Mapping(source = "phone", target = "orderPhone")
@@ -37,6 +41,7 @@ public interface OrderMapper {
     @Mapping(source = "store.user.imageUrl", target = "avatarStore")
     @Mapping(source = "store.id", target = "storeId")
     @Mapping(source = "transaction.payment.paymentMethod", target = "paymentMethod")
+    @Mapping(source = "currentStatus.name", target = "currentStatus")
     OrderGetOneUserResponse toOrderGetOneUserResponse(Order order);
 
     @Mapping(source = "store.id", target = "storeId")
@@ -44,5 +49,6 @@ public interface OrderMapper {
     @Mapping(source = "store.name", target = "storeName")
     @Mapping(source = "store.rating", target = "ratingStore")
     @Mapping(source = "transaction.payment.paymentMethod", target = "paymentMethod")
+    @Mapping(source = "currentStatus.name", target = "currentStatus")
     OrderGetAllUserResponse toOrderGetAllUserResponse(Order order);
 }
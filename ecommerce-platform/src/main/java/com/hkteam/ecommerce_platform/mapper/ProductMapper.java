@@ -11,8 +11,11 @@ import com.hkteam.ecommerce_platform.dto.request.ProductUpdateRequest;
 import com.hkteam.ecommerce_platform.dto.response.*;
 import com.hkteam.ecommerce_platform.entity.elasticsearch.ProductElasticsearch;
 import com.hkteam.ecommerce_platform.entity.product.Product;
+import com.hkteam.ecommerce_platform.util.ESUtils;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 @Mapper(componentModel = "spring")
@@ -58,6 +61,27 @@ public interface ProductMapper {
     Set<ProductComponentValueOfProductResponse> toProductComponentValueOfProductResponseSet(Set<ProductComponentValue> productComponentValue);
 
 
+    // The search document, used when a product is created and by the reindex
+    @Mapping(source = "available", target = "isAvailable")
+    @Mapping(source = "blocked", target = "isBlocked")
+    @Mapping(source = "brand.name", target = "brandName")
+    @Mapping(source = "brand.id", target = "brandId")
+    @Mapping(source = "category.name", target = "categoryName")
+    @Mapping(source = "category.id", target = "categoryId")
+    @Mapping(source = "store.name", target = "storeName")
+    @Mapping(source = "store.id", target = "storeId")
+    @Mapping(target = "suggest", expression = "java(toSuggest(product))")
+    ProductElasticsearch toProductElasticsearch(Product product);
+
+    EsProComponentValue toEsProComponentValue(ProductComponentValue productComponentValue);
+
+    default Completion toSuggest(Product product) {
+        return ESUtils.createProductSuggest(
+                product.getName(),
+                Objects.isNull(product.getCategory()) ? null : product.getCategory().getId(),
+                product.getStore().getId());
+    }
+
     ProductBestSellingResponse toProductBestSellingResponse(Product product);
 
     ProductBestInteractionResponse toProductBestInteractionResponse(Product product);
@@ -1,21 +1,24 @@
 package com.hkteam.ecommerce_platform.rabbitmq;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
-import lombok.NoArgsConstructor;
-import lombok.experimental.NonFinal;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
@@ -26,12 +29,12 @@ import com.hkteam.ecommerce_platform.dto.response.email.OrderItemEmail;
 import com.hkteam.ecommerce_platform.entity.order.Order;
 import com.hkteam.ecommerce_platform.entity.payment.Payment;
 import com.hkteam.ecommerce_platform.entity.payment.Transaction;
-import com.hkteam.ecommerce_platform.enums.PaymentMethod;
-import com.hkteam.ecommerce_platform.repository.PaymentRepository;
+import com.hkteam.ecommerce_platform.repository.TransactionRepository;
 
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -39,10 +42,12 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class EmailSender {
+    static final ZoneId ORDER_ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
 
     JavaMailSender emailSender;
     TemplateEngine templateEngine;
-    private final PaymentRepository paymentRepository;
+    TransactionRepository transactionRepository;
+    CustomMessageConverter messageConverter;
 
     @Value("${cors.frontend-url}")
     @NonFinal
@@ -63,11 +68,8 @@ public class EmailSender {
 
         helper.setText(htmlContent, true);
 
-        try {
-            emailSender.send(message);
-        } catch (Exception e) {
-            log.error("Error sending email", e);
-        }
+        // Smtp failures are left to the listener container so the message is retried
+        emailSender.send(message);
 
         log.info("Email sent to {}", request.getTo());
     }
@@ -78,85 +80,140 @@ public class EmailSender {
         return templateEngine.process(templateName, context);
     }
 
-    @RabbitListener(queues = RabbitMQConfig.SEND_MAIL_AFTER_ORDER_QUEUE)
-    @Transactional
-    public void sendMailAfterOrder(SendMailAfterOrderRequest request) throws MessagingException {
-        var payment = paymentRepository.findById(request.getPaymentId());
-        if (!payment.isPresent()) {
-            log.error("Payment with ID {} not found", request.getPaymentId());
-            return;
+    // Batched by rabbitmq.listeners.sendMailAfterOrderQueue batch-size and batch-window: the order data of the whole
+    // batch comes from one query and its emails go out over a single smtp connection. Each transaction is marked once
+    // its email is sent, so a retried payment only sends the emails that failed.
+    @RabbitListener(queues = RabbitMQConfig.SEND_MAIL_AFTER_ORDER_QUEUE, batch = "true")
+    public void sendMailAfterOrder(List<Message> batch) {
+        Map<Integer, Throwable> failures = new HashMap<>();
+        Map<Integer, SendMailAfterOrderRequest> requests = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                requests.put(i, toSendMailAfterOrderRequest(batch.get(i)));
+            } catch (MessageConversionException e) {
+                failures.put(i, e);
+            }
         }
 
-        for (Transaction transaction : payment.get().getTransactions()) {
-            sendMailAfterOrder(
-                    request.getName(), request.getEmail(), transaction, payment.get().getPaymentMethod(), payment.get().getId());
+        Map<String, List<Transaction>> transactionsByPayment = requests.isEmpty()
+                ? Map.of()
+                : transactionRepository
+                        .findAllForOrderEmailByPaymentIdIn(requests.values().stream()
+                                .map(SendMailAfterOrderRequest::getPaymentId)
+                                .collect(Collectors.toSet()))
+                        .stream()
+                        .collect(Collectors.groupingBy(
+                                transaction -> transaction.getPayment().getId()));
+
+        List<MimeMessage> messages = new ArrayList<>();
+        Map<MimeMessage, Integer> requestIndexes = new HashMap<>();
+        Map<MimeMessage, String> transactionIds = new HashMap<>();
+        requests.forEach((index, request) -> {
+            List<Transaction> transactions = transactionsByPayment.get(request.getPaymentId());
+            if (Objects.isNull(transactions)) {
+                log.info("No unsent order email for payment {}", request.getPaymentId());
+                return;
+            }
+
+            for (Transaction transaction : transactions) {
+                try {
+                    MimeMessage message = createOrderMessage(request.getName(), request.getEmail(), transaction);
+                    messages.add(message);
+                    requestIndexes.put(message, index);
+                    transactionIds.put(message, transaction.getId());
+                } catch (MessagingException | RuntimeException e) {
+                    failures.put(index, e);
+                }
+            }
+        });
+
+        if (!messages.isEmpty()) {
+            Set<MimeMessage> failedMessages = send(messages);
+            failedMessages.forEach(failed -> failures.put(
+                    requestIndexes.get(failed),
+                    new MailSendException("Order email for transaction " + transactionIds.get(failed) + " failed")));
+            markSent(messages.stream()
+                    .filter(message -> !failedMessages.contains(message))
+                    .map(transactionIds::get)
+                    .toList());
+        }
+
+        if (!failures.isEmpty()) throw new PartialBatchFailureException(failures);
+    }
+
+    // Connection level failures carry no failed message, nothing was sent then and the whole batch is retried
+    private Set<MimeMessage> send(List<MimeMessage> messages) {
+        long startedAt = System.nanoTime();
+        try {
+            emailSender.send(messages.toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) throw e;
+
+            Set<MimeMessage> failed = new HashSet<>();
+            e.getFailedMessages().keySet().forEach(message -> failed.add((MimeMessage) message));
+            return failed;
+        }
+
+        log.info("Sent {} order emails in {} ms", messages.size(), (System.nanoTime() - startedAt) / 1_000_000);
+        return Set.of();
+    }
+
+    // A failure here is only logged: the emails are out, failing the messages would send them again
+    private void markSent(List<String> transactionIds) {
+        if (transactionIds.isEmpty()) return;
+        try {
+            transactionRepository.markOrderEmailSent(transactionIds, Instant.now());
+        } catch (DataAccessException e) {
+            log.error("Error when mark order emails of {} sent: {}", transactionIds, e.getMessage());
         }
     }
 
+    private SendMailAfterOrderRequest toSendMailAfterOrderRequest(Message message) {
+        Object request;
+        try {
+            request = messageConverter.fromMessage(message);
+        } catch (RuntimeException e) {
+            throw new MessageConversionException("Unreadable order email message", e);
+        }
+        if (request instanceof SendMailAfterOrderRequest sendMailAfterOrderRequest) return sendMailAfterOrderRequest;
+        throw new MessageConversionException("Not an order email message: " + request);
+    }
 
-    private void sendMailAfterOrder(
-            String name, String email, Transaction transaction, PaymentMethod paymentMethod, String paymentId)
+    private MimeMessage createOrderMessage(String name, String email, Transaction transaction)
             throws MessagingException {
         MimeMessage message = emailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
-        helper.setTo(email);
-        helper.setSubject("[HK-Uptech] Đơn hàng #" + transaction.getOrder().getId() + " đặt thành công");
-
         Order order = transaction.getOrder();
-        List<OrderItemEmail> itemEmails = new ArrayList<>();
-        order.getOrderItems().forEach(orderItem -> {
-            String values = "";
-            if (Objects.nonNull(orderItem.getValues())) {
-                for (String value : orderItem.getValues()) {
-                    values += value + ", ";
-                }
-            }
-            if (!values.isEmpty()) {
-                values = values.substring(0, values.length() - 2);
-            }
-
-            OrderItemEmail itemEmail = OrderItemEmail.builder()
-                    .name(orderItem.getProduct().getName())
-                    .imageUrl(orderItem.getProduct().getMainImageUrl())
-                    .values(values)
-                    .quantity(orderItem.getQuantity())
-                    .price((orderItem.getPrice().subtract(orderItem.getDiscount()))
-                            .multiply(BigDecimal.valueOf(orderItem.getQuantity())))
-                    .build();
-            itemEmails.add(itemEmail);
-        });
-        LocalDateTime localDateTimeSpecificZone =
-                LocalDateTime.ofInstant(order.getCreatedAt(), ZoneId.of("Asia/Ho_Chi_Minh"));
-
+        helper.setTo(email);
+        helper.setSubject("[HK-Uptech] Đơn hàng #" + order.getId() + " đặt thành công");
+
+        List<OrderItemEmail> itemEmails = order.getOrderItems().stream()
+                .map(orderItem -> OrderItemEmail.builder()
+                        .name(orderItem.getProduct().getName())
+                        .imageUrl(orderItem.getProduct().getMainImageUrl())
+                        .values(Objects.isNull(orderItem.getValues()) ? "" : String.join(", ", orderItem.getValues()))
+                        .quantity(orderItem.getQuantity())
+                        .price((orderItem.getPrice().subtract(orderItem.getDiscount()))
+                                .multiply(BigDecimal.valueOf(orderItem.getQuantity())))
+                        .build())
+                .toList();
+
+        Payment payment = transaction.getPayment();
         OrderEmail orderResponse = OrderEmail.builder()
                 .id(order.getId())
-                .orderDate(localDateTimeSpecificZone)
+                .orderDate(LocalDateTime.ofInstant(order.getCreatedAt(), ORDER_ZONE))
                 .seller(order.getStore().getName())
                 .items(itemEmails)
                 .subtotal(order.getTotal())
                 .shopDiscount(order.getDiscount())
                 .shippingFee(order.getShippingFee())
                 .total(order.getGrandTotal())
-                .paymentMethod(paymentMethod.name())
-                .paymentStatusUrl(frontendUrl + "/status/" + paymentId)
+                .paymentMethod(payment.getPaymentMethod().name())
+                .paymentStatusUrl(frontendUrl + "/status/" + payment.getId())
                 .build();
 
-        Map<String, Object> variables = new HashMap<>();
-        variables.putAll(Map.of(
-                "name", name,
-                "order", orderResponse));
-
-        String htmlContent = renderTemplate("order-confirmation", variables);
-
-        helper.setText(htmlContent, true);
-
-        try {
-            emailSender.send(message);
-        } catch (Exception e) {
-            log.error("Error sending email", e);
-        }
-
-        log.info("Email sent to {}", email);
+        helper.setText(renderTemplate("order-confirmation", Map.of("name", name, "order", orderResponse)), true);
+        return message;
     }
 }
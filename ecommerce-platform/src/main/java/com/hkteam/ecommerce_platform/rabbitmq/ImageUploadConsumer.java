@@ -1,6 +1,8 @@
 package com.hkteam.ecommerce_platform.rabbitmq;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -18,6 +20,8 @@ import com.hkteam.ecommerce_platform.repository.ProductElasticsearchRepository;
 import com.hkteam.ecommerce_platform.repository.ProductImageRepository;
 import com.hkteam.ecommerce_platform.repository.ProductRepository;
 import com.hkteam.ecommerce_platform.service.CloudinaryService;
+import com.hkteam.ecommerce_platform.service.MediaSpoolService;
+import com.hkteam.ecommerce_platform.service.MediaUploadExecutor;
 
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -33,14 +37,13 @@ public class ImageUploadConsumer {
     ProductRepository productRepository;
     ProductImageRepository productImageRepository;
     ProductElasticsearchRepository productElasticsearchRepository;
+    MediaSpoolService mediaSpoolService;
+    MediaUploadExecutor mediaUploadExecutor;
 
+    // Failures propagate to the listener container, which sends the message to the retry queue
     @RabbitListener(queues = RabbitMQConfig.IMAGE_QUEUE)
-    public void receiveFileUploadMessage(ImageMessageRequest message) {
-        try {
-            uploadImageToCloudinary(message);
-        } catch (Exception e) {
-            log.error("Error uploading image {}", e.getMessage());
-        }
+    public void receiveFileUploadMessage(ImageMessageRequest message) throws IOException {
+        uploadImageToCloudinary(message);
     }
 
     private void uploadImageToCloudinary(ImageMessageRequest request) throws IOException {
@@ -49,8 +52,9 @@ public class ImageUploadConsumer {
                 .orElseThrow(() -> new AppException(ErrorCode.PRODUCT_NOT_FOUND));
 
         if (request.getType().equals(TypeImage.MAIN_IMAGE_OF_PRODUCT)) {
+            String file = request.getFiles().get(0);
             Map<String, Object> img = cloudinaryService.uploadImage(
-                    request.getImage().get(0),
+                    mediaSpoolService.resolve(file),
                     TypeImage.MAIN_IMAGE_OF_PRODUCT.toString().toLowerCase());
 
             if (!Objects.isNull(product.getMainImageUrl())) {
@@ -64,28 +68,44 @@ public class ImageUploadConsumer {
 
             try {
                 productRepository.updateMainImageUrlById(getUrl(img), product.getId());
-                productElasticsearchRepository.save(esPro);
+                if (esPro != null) productElasticsearchRepository.save(esPro);
             } catch (DataIntegrityViolationException exception) {
                 log.error("Error when up load main image for product " + product.getId());
                 throw new AppException(ErrorCode.UNKNOWN_ERROR);
             }
+            mediaSpoolService.delete(file);
             log.info("Complate upload image for product: " + product.getId());
 
         } else if (request.getType().equals(TypeImage.LIST_IMAGE_PRODUCT)) {
-            for (byte[] image : request.getImage()) {
-                try {
-                    Map<String, Object> img = cloudinaryService.uploadImage(
-                            image, TypeImage.LIST_IMAGE_PRODUCT.name().toLowerCase());
-                    ProductImage productImage = ProductImage.builder()
-                            .product(product)
-                            .url(getUrl(img))
-                            .build();
-                    productImageRepository.save(productImage);
-
-                } catch (Exception e) {
-                    log.info("Error while uploading image for product ID {}: {}", request.getId(), e.getMessage());
-                    throw new AppException(ErrorCode.UPLOAD_FILE_FAILED);
-                }
+            // On a retry, files saved by an earlier attempt are already gone from the spool
+            List<String> files = request.getFiles().stream()
+                    .filter(mediaSpoolService::exists)
+                    .toList();
+            List<Map<String, Object>> results = mediaUploadExecutor.uploadAll(
+                    files,
+                    file -> cloudinaryService.uploadImage(
+                            mediaSpoolService.resolve(file),
+                            TypeImage.LIST_IMAGE_PRODUCT.name().toLowerCase()));
+
+            List<ProductImage> productImages = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                Map<String, Object> img = results.get(i);
+                if (Objects.isNull(img) || Objects.isNull(img.get("url"))) continue;
+
+                productImages.add(ProductImage.builder()
+                        .product(product)
+                        .url(img.get("url").toString())
+                        .build());
+                mediaSpoolService.delete(files.get(i));
+            }
+            productImageRepository.saveAll(productImages);
+
+            if (productImages.size() < files.size()) {
+                log.error(
+                        "Error while uploading {} images for product ID {}",
+                        files.size() - productImages.size(),
+                        request.getId());
+                throw new AppException(ErrorCode.UPLOAD_FILE_FAILED);
             }
         }
     }
@@ -99,12 +119,7 @@ public class ImageUploadConsumer {
 
     @RabbitListener(queues = RabbitMQConfig.DELETE_IMAGE_QUEUE)
     public void receiveDeleteImageMessage(DeleteImageRequest message) {
-        try {
-            deleteImage(message);
-        } catch (Exception e) {
-            log.error("Error deleting image: of " + message.getTypeImage() + " with id " + message.getId() + ":"
-                    + e.getMessage());
-        }
+        deleteImage(message);
     }
 
     private void deleteImage(DeleteImageRequest request) {
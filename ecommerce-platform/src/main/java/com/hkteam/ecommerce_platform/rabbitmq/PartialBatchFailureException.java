@@ -0,0 +1,19 @@
+package com.hkteam.ecommerce_platform.rabbitmq;
+
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+// Thrown by batch listeners so that only the failed messages of a batch are retried, each with its own cause
+@Getter
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class PartialBatchFailureException extends RuntimeException {
+    // index of the message in the batch -> cause
+    Map<Integer, Throwable> failures;
+
+    public PartialBatchFailureException(Map<Integer, Throwable> failures) {
+        super(failures.size() + " messages of the batch failed");
+        this.failures = failures;
+    }
+}
@@ -0,0 +1,178 @@
+package com.hkteam.ecommerce_platform.rabbitmq;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.hkteam.ecommerce_platform.dto.response.QueueStatisticsResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Sits in the listener advice chain: counts deliveries and moves failed ones to the retry or parking lot queue
+@Slf4j
+public class RabbitListenerMonitor implements MethodInterceptor {
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+    public static final String EXCEPTION_HEADER = "x-exception-message";
+    static final long RATE_WINDOW_MILLIS = 60_000;
+    static final int MAX_EXCEPTION_LENGTH = 500;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final AmqpAdmin amqpAdmin;
+    private final Environment environment;
+    private final Map<String, QueueCounters> counters = new ConcurrentHashMap<>();
+
+    public RabbitListenerMonitor(RabbitTemplate rabbitTemplate, AmqpAdmin amqpAdmin, Environment environment) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.amqpAdmin = amqpAdmin;
+        this.environment = environment;
+        RabbitMQConfig.QUEUES.forEach(queue -> counters.put(queue, new QueueCounters()));
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object data = invocation.getArguments()[1];
+        if (data instanceof List<?> batch) return invokeBatch(invocation, batch);
+        if (!(data instanceof Message message)) return invocation.proceed();
+
+        String queue = message.getMessageProperties().getConsumerQueue();
+        QueueCounters queueCounters = counters.computeIfAbsent(queue, key -> new QueueCounters());
+        try {
+            Object result = invocation.proceed();
+            queueCounters.processed.increment();
+            return result;
+        } catch (Throwable e) {
+            queueCounters.failed.increment();
+            recover(queue, queueCounters, message, e);
+            return null;
+        }
+    }
+
+    private Object invokeBatch(MethodInvocation invocation, List<?> batch) throws Throwable {
+        List<Message> messages = batch.stream()
+                .filter(Message.class::isInstance)
+                .map(Message.class::cast)
+                .toList();
+        if (messages.isEmpty()) return invocation.proceed();
+
+        String queue = messages.getFirst().getMessageProperties().getConsumerQueue();
+        QueueCounters queueCounters = counters.computeIfAbsent(queue, key -> new QueueCounters());
+        try {
+            Object result = invocation.proceed();
+            queueCounters.processed.add(messages.size());
+            return result;
+        } catch (Throwable e) {
+            Map<Integer, Throwable> failures = failures(e);
+            for (int i = 0; i < messages.size(); i++) {
+                if (Objects.isNull(failures) || failures.containsKey(i)) {
+                    queueCounters.failed.increment();
+                    recover(queue, queueCounters, messages.get(i), Objects.isNull(failures) ? e : failures.get(i));
+                } else {
+                    queueCounters.processed.increment();
+                }
+            }
+            return null;
+        }
+    }
+
+    public List<QueueStatisticsResponse> getStatistics() {
+        List<QueueStatisticsResponse> statistics = new ArrayList<>();
+        RabbitMQConfig.QUEUES.forEach(queue -> {
+            QueueCounters queueCounters = counters.get(queue);
+            QueueInformation main = amqpAdmin.getQueueInfo(queue);
+            QueueInformation retry = amqpAdmin.getQueueInfo(queue + RabbitMQConfig.RETRY_SUFFIX);
+            QueueInformation parkingLot = amqpAdmin.getQueueInfo(queue + RabbitMQConfig.PARKING_LOT_SUFFIX);
+
+            statistics.add(QueueStatisticsResponse.builder()
+                    .queue(queue)
+                    .readyMessages(Objects.isNull(main) ? 0 : main.getMessageCount())
+                    .consumers(Objects.isNull(main) ? 0 : main.getConsumerCount())
+                    .retryMessages(Objects.isNull(retry) ? 0 : retry.getMessageCount())
+                    .parkedMessages(Objects.isNull(parkingLot) ? 0 : parkingLot.getMessageCount())
+                    .processed(queueCounters.processed.sum())
+                    .failed(queueCounters.failed.sum())
+                    .retried(queueCounters.retried.sum())
+                    .parked(queueCounters.parked.sum())
+                    .processedPerSecond(queueCounters.processedPerSecond)
+                    .build());
+        });
+        return statistics;
+    }
+
+    @Scheduled(fixedRate = RATE_WINDOW_MILLIS)
+    public void updateRates() {
+        counters.values().forEach(queueCounters -> {
+            long processed = queueCounters.processed.sum();
+            queueCounters.processedPerSecond = (processed - queueCounters.processedAtWindowStart.getAndSet(processed))
+                    * 1000.0
+                    / RATE_WINDOW_MILLIS;
+        });
+    }
+
+    private void recover(String queue, QueueCounters queueCounters, Message message, Throwable cause) {
+        MessageProperties properties = message.getMessageProperties();
+        Integer header = properties.getHeader(RETRY_COUNT_HEADER);
+        int retries = Objects.isNull(header) ? 0 : header;
+        int maxRetries = RabbitMQConfig.listenerSpec(environment, queue).maxRetries();
+
+        properties.setHeader(EXCEPTION_HEADER, describe(cause));
+        if (!isFatal(cause) && retries < maxRetries) {
+            properties.setHeader(RETRY_COUNT_HEADER, retries + 1);
+            // Published to the default exchange, the retry queue dead letters back to the main queue after its ttl
+            rabbitTemplate.send("", queue + RabbitMQConfig.RETRY_SUFFIX, message);
+            queueCounters.retried.increment();
+            log.warn("Message on {} failed, retry {} of {}: {}", queue, retries + 1, maxRetries, describe(cause));
+        } else {
+            rabbitTemplate.send("", queue + RabbitMQConfig.PARKING_LOT_SUFFIX, message);
+            queueCounters.parked.increment();
+            log.error("Message on {} moved to parking lot after {} retries: {}", queue, retries, describe(cause));
+        }
+    }
+
+    // Null when the whole batch failed
+    private Map<Integer, Throwable> failures(Throwable cause) {
+        for (Throwable current = cause; Objects.nonNull(current); current = current.getCause()) {
+            if (current instanceof PartialBatchFailureException partial) return partial.getFailures();
+        }
+        return null;
+    }
+
+    private boolean isFatal(Throwable cause) {
+        for (Throwable current = cause; Objects.nonNull(current); current = current.getCause()) {
+            if (current instanceof MessageConversionException) return true;
+        }
+        return false;
+    }
+
+    private String describe(Throwable cause) {
+        Throwable root = cause;
+        while (Objects.nonNull(root.getCause()) && root.getCause() != root) root = root.getCause();
+        String description = root.getClass().getSimpleName() + ": " + root.getMessage();
+        return description.length() > MAX_EXCEPTION_LENGTH
+                ? description.substring(0, MAX_EXCEPTION_LENGTH)
+                : description;
+    }
+
+    private static final class QueueCounters {
+        final LongAdder processed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder retried = new LongAdder();
+        final LongAdder parked = new LongAdder();
+        final AtomicLong processedAtWindowStart = new AtomicLong();
+        volatile double processedPerSecond;
+    }
+}
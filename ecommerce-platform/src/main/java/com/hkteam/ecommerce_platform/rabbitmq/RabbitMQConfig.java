@@ -1,10 +1,23 @@
 package com.hkteam.ecommerce_platform.rabbitmq;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 @Configuration
 public class RabbitMQConfig {
@@ -16,6 +29,28 @@ public class RabbitMQConfig {
     public static final String BRAND_ES_PRODUCT_QUEUE = "updateBrandEsProductQueue";
     public static final String SEND_MAIL_AFTER_ORDER_QUEUE = "sendMailAfterOrderQueue";
 
+    public static final String RETRY_SUFFIX = ".retry";
+    public static final String PARKING_LOT_SUFFIX = ".parking-lot";
+
+    static final List<String> QUEUES = List.of(
+            EMAIL_QUEUE,
+            IMAGE_QUEUE,
+            DELETE_IMAGE_QUEUE,
+            CATE_ES_PRODUCT_QUEUE,
+            BRAND_ES_PRODUCT_QUEUE,
+            SEND_MAIL_AFTER_ORDER_QUEUE);
+
+    // parkingLotTtl is null when parked messages are kept until replayed
+    public record ListenerSpec(
+            int concurrency,
+            int maxConcurrency,
+            int prefetch,
+            int batchSize,
+            Duration batchWindow,
+            int maxRetries,
+            Duration retryDelay,
+            Duration parkingLotTtl) {}
+
     @Bean
     public Queue sendMailAfterOrderQueue() {
         return new Queue(SEND_MAIL_AFTER_ORDER_QUEUE, true);
@@ -46,6 +81,78 @@ public class RabbitMQConfig {
         return new Queue(BRAND_ES_PRODUCT_QUEUE, true);
     }
 
+    // Main queues keep their original arguments, failed messages go through separate retry and parking lot queues
+    @Bean
+    public Declarables retryQueues(Environment environment) {
+        List<Declarable> queues = new ArrayList<>();
+        QUEUES.forEach(queue -> {
+            ListenerSpec spec = listenerSpec(environment, queue);
+            queues.add(QueueBuilder.durable(queue + RETRY_SUFFIX)
+                    .ttl((int) spec.retryDelay().toMillis())
+                    .deadLetterExchange("")
+                    .deadLetterRoutingKey(queue)
+                    .build());
+            QueueBuilder parkingLot = QueueBuilder.durable(queue + PARKING_LOT_SUFFIX);
+            if (Objects.nonNull(spec.parkingLotTtl())) {
+                parkingLot.ttl((int) spec.parkingLotTtl().toMillis());
+            }
+            queues.add(parkingLot.build());
+        });
+        return new Declarables(queues);
+    }
+
+    @Bean
+    public RabbitListenerMonitor rabbitListenerMonitor(
+            RabbitTemplate rabbitTemplate, AmqpAdmin amqpAdmin, Environment environment) {
+        return new RabbitListenerMonitor(rabbitTemplate, amqpAdmin, environment);
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            RabbitListenerMonitor rabbitListenerMonitor,
+            Environment environment) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setAdviceChain(rabbitListenerMonitor);
+        factory.setContainerCustomizer(container -> {
+            ListenerSpec spec = listenerSpec(environment, container.getQueueNames()[0]);
+            container.setConcurrentConsumers(spec.concurrency());
+            container.setMaxConcurrentConsumers(Math.max(spec.concurrency(), spec.maxConcurrency()));
+            container.setPrefetchCount(spec.prefetch());
+            container.setBatchSize(spec.batchSize());
+            // Listeners declared with batch = "true" get up to batch-size messages or whatever arrived within
+            // batch-window
+            if (container.getMessageListener() instanceof BatchMessageListener) {
+                container.setConsumerBatchEnabled(true);
+                container.setDeBatchingEnabled(true);
+                container.setBatchReceiveTimeout(spec.batchWindow().toMillis());
+                container.setPrefetchCount(Math.max(spec.prefetch(), spec.batchSize()));
+            }
+        });
+        return factory;
+    }
+
+    public static ListenerSpec listenerSpec(Environment environment, String queue) {
+        String defaults = "rabbitmq.listeners.default.";
+        String prefix = "rabbitmq.listeners." + queue + ".";
+        return new ListenerSpec(
+                listenerProperty(environment, prefix, defaults, "concurrency", Integer.class, 1),
+                listenerProperty(environment, prefix, defaults, "max-concurrency", Integer.class, 1),
+                listenerProperty(environment, prefix, defaults, "prefetch", Integer.class, 10),
+                listenerProperty(environment, prefix, defaults, "batch-size", Integer.class, 1),
+                listenerProperty(environment, prefix, defaults, "batch-window", Duration.class, Duration.ofSeconds(1)),
+                listenerProperty(environment, prefix, defaults, "max-retries", Integer.class, 3),
+                listenerProperty(environment, prefix, defaults, "retry-delay", Duration.class, Duration.ofSeconds(30)),
+                listenerProperty(environment, prefix, defaults, "parking-lot-ttl", Duration.class, null));
+    }
+
+    private static <T> T listenerProperty(
+            Environment environment, String prefix, String defaults, String key, Class<T> type, T fallback) {
+        return environment.getProperty(prefix + key, type, environment.getProperty(defaults + key, type, fallback));
+    }
+
     @Bean
     public RabbitTemplate rabbitTemplate(
             ConnectionFactory connectionFactory, CustomMessageConverter customMessageConverter) {
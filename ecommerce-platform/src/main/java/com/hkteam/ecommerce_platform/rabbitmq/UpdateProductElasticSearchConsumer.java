@@ -1,79 +1,123 @@
 package com.hkteam.ecommerce_platform.rabbitmq;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Service;
 
 import com.hkteam.ecommerce_platform.dto.request.UpdateBrandEsProductRequest;
 import com.hkteam.ecommerce_platform.dto.request.UpdateCategoryEsProductRequest;
-import com.hkteam.ecommerce_platform.repository.ProductElasticsearchRepository;
+import com.hkteam.ecommerce_platform.entity.category.Category;
+import com.hkteam.ecommerce_platform.entity.product.Brand;
+import com.hkteam.ecommerce_platform.repository.BrandRepository;
+import com.hkteam.ecommerce_platform.repository.CategoryRepository;
 
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Conflicts;
+import co.elastic.clients.elasticsearch._types.SlicesCalculation;
+import co.elastic.clients.elasticsearch.core.UpdateByQueryRequest;
+import co.elastic.clients.elasticsearch.core.UpdateByQueryResponse;
+import co.elastic.clients.elasticsearch.tasks.GetTasksRequest;
+import co.elastic.clients.elasticsearch.tasks.GetTasksResponse;
+import co.elastic.clients.json.JsonData;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 
+// The message only names the brand or category, the name written is read from postgres on every delivery. An
+// incomplete run fails the delivery, so the retry queue redelivers it later and a re-run can never write a name that
+// a newer rename has replaced.
 @Service
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @Slf4j
 public class UpdateProductElasticSearchConsumer {
-    ProductElasticsearchRepository productElasticsearchRepository;
+    static final String PRODUCT_INDEX = "products";
+    static final Duration TASK_POLL_INTERVAL = Duration.ofSeconds(2);
+    static final int MAX_POLL_ERRORS = 10;
+
+    ElasticsearchClient elasticsearchClient;
+    CategoryRepository categoryRepository;
+    BrandRepository brandRepository;
 
     @RabbitListener(queues = RabbitMQConfig.CATE_ES_PRODUCT_QUEUE)
-    public void receiveCategoryUpdateRequest(UpdateCategoryEsProductRequest message) {
+    public void receiveCategoryUpdateRequest(UpdateCategoryEsProductRequest message)
+            throws IOException, InterruptedException {
         log.info("Receive message update category for product: {}", message.getId());
-        try {
-            var products = productElasticsearchRepository.findByCategoryId(message.getId());
-            if (products.isEmpty()) {
-                log.info("No product need update: {}", message.getId());
-                return;
-            }
+        Optional<String> name = categoryRepository.findById(message.getId()).map(Category::getName);
+        updateByQuery("categoryId", "categoryName", message.getId(), name);
+    }
 
-            if (message.getIsDeleted()) {
-                products.forEach(product -> {
-                    product.setCategoryId(null);
-                    product.setCategoryName(null);
-                });
-            } else {
-                products.forEach(product -> {
-                    product.setCategoryId(message.getId());
-                    product.setCategoryName(message.getName());
-                });
-            }
+    @RabbitListener(queues = RabbitMQConfig.BRAND_ES_PRODUCT_QUEUE)
+    public void receiveBrandUpdateRequest(UpdateBrandEsProductRequest message)
+            throws IOException, InterruptedException {
+        log.info("Receive message update brand for product: {}", message.getId());
+        Optional<String> name = brandRepository.findById(message.getId()).map(Brand::getName);
+        updateByQuery("brandId", "brandName", message.getId(), name);
+    }
 
-            productElasticsearchRepository.saveAll(products);
+    // An empty name means the brand or category is deleted
+    private void updateByQuery(String idField, String nameField, Long id, Optional<String> name)
+            throws IOException, InterruptedException {
+        // Documents already carrying the current name are skipped, so a redelivery only rewrites what was missed
+        String source = name.isEmpty()
+                ? "ctx._source." + idField + " = null; ctx._source." + nameField + " = null;"
+                : "if (ctx._source." + nameField + " == params.name) { ctx.op = 'noop' } else { ctx._source."
+                        + nameField + " = params.name }";
 
-        } catch (Exception e) {
-            log.error("Error when update category for product in es: {}", e.getMessage());
+        UpdateByQueryRequest request = UpdateByQueryRequest.of(u -> u.index(PRODUCT_INDEX)
+                .query(q -> q.term(t -> t.field(idField).value(id)))
+                .script(s -> s.inline(i -> i.lang("painless")
+                        .source(source)
+                        .params(name.map(value -> Map.of("name", JsonData.of(value)))
+                                .orElse(Map.of()))))
+                .conflicts(Conflicts.Proceed)
+                .slices(sl -> sl.computed(SlicesCalculation.Auto))
+                .waitForCompletion(false));
+
+        String taskId = elasticsearchClient.updateByQuery(request).task();
+        log.info("Started es update by query {} for {} {}", taskId, idField, id);
+
+        GetTasksResponse task = awaitTask(taskId);
+        String problem = problemOf(task);
+        if (Objects.nonNull(problem)) {
+            throw new IllegalStateException(
+                    "Es update by query for " + idField + " " + id + " is incomplete: " + problem);
         }
+        log.info("Es update by query for {} {} completed: {}", idField, id, task.response());
     }
 
-    @RabbitListener(queues = RabbitMQConfig.BRAND_ES_PRODUCT_QUEUE)
-    public void receiveBrandUpdateRequest(UpdateBrandEsProductRequest message) {
-        log.info("Receive message update brand for product: {}", message.getId());
-        try {
-            var products = productElasticsearchRepository.findByBrandId(message.getId());
-            if (products.isEmpty()) {
-                log.info("No product need update: {}", message.getId());
-                return;
+    // The task keeps running in es when a poll fails, only give up on it after repeated poll failures
+    private GetTasksResponse awaitTask(String taskId) throws InterruptedException {
+        int pollErrors = 0;
+        while (true) {
+            Thread.sleep(TASK_POLL_INTERVAL.toMillis());
+            try {
+                GetTasksResponse task = elasticsearchClient.tasks().get(GetTasksRequest.of(g -> g.taskId(taskId)));
+                if (task.completed()) return task;
+                pollErrors = 0;
+            } catch (IOException | RuntimeException e) {
+                if (++pollErrors >= MAX_POLL_ERRORS) {
+                    throw new IllegalStateException("Es task " + taskId + " could not be polled", e);
+                }
+                log.warn("Error when poll es task {}: {}", taskId, e.getMessage());
             }
+        }
+    }
 
-            if (message.getIsDeleted()) {
-                products.forEach(product -> {
-                    product.setBrandId(null);
-                    product.setBrandName(null);
-                });
-            } else {
-                products.forEach(product -> {
-                    product.setBrandId(message.getId());
-                    product.setBrandName(message.getName());
-                });
-            }
+    private String problemOf(GetTasksResponse task) {
+        if (Objects.nonNull(task.error())) return task.error().reason();
 
-            productElasticsearchRepository.saveAll(products);
+        UpdateByQueryResponse response =
+                task.response().to(UpdateByQueryResponse.class, elasticsearchClient._jsonpMapper());
+        long conflicts = Objects.requireNonNullElse(response.versionConflicts(), 0L);
+        if (conflicts == 0 && response.failures().isEmpty()) return null;
 
-        } catch (Exception e) {
-            log.error("Error when update brand for product in es: {}", e.getMessage());
-        }
+        return conflicts + " version conflicts, " + response.failures().size() + " failures";
     }
 }
@@ -0,0 +1,96 @@
+package com.hkteam.ecommerce_platform.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hkteam.ecommerce_platform.entity.statistic.DailyPlatformStats;
+
+@Repository
+public interface DailyPlatformStatsRepository extends JpaRepository<DailyPlatformStats, LocalDate> {
+    List<DailyPlatformStats> findByStatDateBetweenOrderByStatDate(LocalDate from, LocalDate to);
+
+    @Transactional
+    @Modifying
+    @Query("delete from DailyPlatformStats d where d.statDate between :from and :to")
+    int deleteByStatDateRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Transactional
+    @Modifying
+    @Query(
+            value =
+                    """
+		WITH consumed AS (
+			DELETE FROM stat_delta
+			WHERE store_id IS NULL
+			AND stat_date BETWEEN CAST(:from AT TIME ZONE 'UTC' AS date) AND CAST(:to AT TIME ZONE 'UTC' AS date) - 1
+		)
+		INSERT INTO daily_platform_stats
+			(stat_date, orders_placed, orders_delivered, orders_cancelled, revenue, items_sold, new_customers, new_sellers)
+		SELECT
+			e.stat_date,
+			SUM(e.orders_placed),
+			SUM(e.orders_delivered),
+			SUM(e.orders_cancelled),
+			SUM(e.revenue),
+			SUM(e.items_sold),
+			SUM(e.new_customers),
+			SUM(e.new_sellers)
+		FROM (
+			SELECT CAST(o.created_at AT TIME ZONE 'UTC' AS date) AS stat_date,
+				1 AS orders_placed, 0 AS orders_delivered, 0 AS orders_cancelled, 0 AS revenue, 0 AS items_sold,
+				0 AS new_customers, 0 AS new_sellers
+			FROM orders o
+			WHERE o.is_deleted = false
+			AND o.created_at >= :from AND o.created_at < :to
+			UNION ALL
+			SELECT CAST(o.current_status_at AT TIME ZONE 'UTC' AS date),
+				0, 1, 0, o.grand_total,
+				(SELECT COALESCE(SUM(oi.quantity), 0) FROM order_item oi WHERE oi.order_id = o.id AND oi.is_deleted = false),
+				0, 0
+			FROM orders o
+			WHERE o.is_deleted = false
+			AND o.current_status_name = 'DELIVERED'
+			AND o.current_status_at >= :from AND o.current_status_at < :to
+			UNION ALL
+			SELECT CAST(o.current_status_at AT TIME ZONE 'UTC' AS date),
+				0, 0, 1, 0, 0, 0, 0
+			FROM orders o
+			WHERE o.is_deleted = false
+			AND o.current_status_name = 'CANCELLED'
+			AND o.current_status_at >= :from AND o.current_status_at < :to
+			UNION ALL
+			SELECT CAST(u.created_at AT TIME ZONE 'UTC' AS date),
+				0, 0, 0, 0, 0, 1, 0
+			FROM users u
+			WHERE u.is_deleted = false
+			AND u.created_at >= :from AND u.created_at < :to
+			AND EXISTS (SELECT 1 FROM users_roles ur WHERE ur.user_id = u.id AND ur.roles_name = 'USER')
+			UNION ALL
+			SELECT CAST(s.created_at AT TIME ZONE 'UTC' AS date),
+				0, 0, 0, 0, 0, 0, 1
+			FROM store s
+			WHERE s.is_deleted = false
+			AND s.created_at >= :from AND s.created_at < :to
+			AND EXISTS (SELECT 1 FROM users_roles ur WHERE ur.user_id = s.user_id AND ur.roles_name = 'SELLER')
+		) e
+		GROUP BY e.stat_date
+		ON CONFLICT (stat_date) DO UPDATE SET
+			orders_placed = EXCLUDED.orders_placed,
+			orders_delivered = EXCLUDED.orders_delivered,
+			orders_cancelled = EXCLUDED.orders_cancelled,
+			revenue = EXCLUDED.revenue,
+			items_sold = EXCLUDED.items_sold,
+			new_customers = EXCLUDED.new_customers,
+			new_sellers = EXCLUDED.new_sellers
+	""",
+            nativeQuery = true)
+    int rebuild(@Param("from") Instant from, @Param("to") Instant to);
+}
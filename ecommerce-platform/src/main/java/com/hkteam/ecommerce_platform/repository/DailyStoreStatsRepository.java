@@ -0,0 +1,79 @@
+package com.hkteam.ecommerce_platform.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hkteam.ecommerce_platform.entity.embed.DailyStoreStatsKey;
+import com.hkteam.ecommerce_platform.entity.statistic.DailyStoreStats;
+
+@Repository
+public interface DailyStoreStatsRepository extends JpaRepository<DailyStoreStats, DailyStoreStatsKey> {
+    List<DailyStoreStats> findByIdStoreIdAndIdStatDateBetweenOrderByIdStatDate(
+            String storeId, LocalDate from, LocalDate to);
+
+    @Transactional
+    @Modifying
+    @Query("delete from DailyStoreStats d where d.id.statDate between :from and :to")
+    int deleteByStatDateRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Transactional
+    @Modifying
+    @Query(
+            value =
+                    """
+		WITH consumed AS (
+			DELETE FROM stat_delta
+			WHERE store_id IS NOT NULL
+			AND stat_date BETWEEN CAST(:from AT TIME ZONE 'UTC' AS date) AND CAST(:to AT TIME ZONE 'UTC' AS date) - 1
+		)
+		INSERT INTO daily_store_stats
+			(store_id, stat_date, orders_placed, orders_delivered, orders_cancelled, revenue, items_sold)
+		SELECT
+			e.store_id,
+			e.stat_date,
+			SUM(e.orders_placed),
+			SUM(e.orders_delivered),
+			SUM(e.orders_cancelled),
+			SUM(e.revenue),
+			SUM(e.items_sold)
+		FROM (
+			SELECT o.store_id, CAST(o.created_at AT TIME ZONE 'UTC' AS date) AS stat_date,
+				1 AS orders_placed, 0 AS orders_delivered, 0 AS orders_cancelled, 0 AS revenue, 0 AS items_sold
+			FROM orders o
+			WHERE o.is_deleted = false
+			AND o.created_at >= :from AND o.created_at < :to
+			UNION ALL
+			SELECT o.store_id, CAST(o.current_status_at AT TIME ZONE 'UTC' AS date),
+				0, 1, 0, o.grand_total,
+				(SELECT COALESCE(SUM(oi.quantity), 0) FROM order_item oi WHERE oi.order_id = o.id AND oi.is_deleted = false)
+			FROM orders o
+			WHERE o.is_deleted = false
+			AND o.current_status_name = 'DELIVERED'
+			AND o.current_status_at >= :from AND o.current_status_at < :to
+			UNION ALL
+			SELECT o.store_id, CAST(o.current_status_at AT TIME ZONE 'UTC' AS date),
+				0, 0, 1, 0, 0
+			FROM orders o
+			WHERE o.is_deleted = false
+			AND o.current_status_name = 'CANCELLED'
+			AND o.current_status_at >= :from AND o.current_status_at < :to
+		) e
+		GROUP BY e.store_id, e.stat_date
+		ON CONFLICT (stat_date, store_id) DO UPDATE SET
+			orders_placed = EXCLUDED.orders_placed,
+			orders_delivered = EXCLUDED.orders_delivered,
+			orders_cancelled = EXCLUDED.orders_cancelled,
+			revenue = EXCLUDED.revenue,
+			items_sold = EXCLUDED.items_sold
+	""",
+            nativeQuery = true)
+    int rebuild(@Param("from") Instant from, @Param("to") Instant to);
+}
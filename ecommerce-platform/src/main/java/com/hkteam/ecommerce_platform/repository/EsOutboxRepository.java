@@ -0,0 +1,48 @@
+package com.hkteam.ecommerce_platform.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hkteam.ecommerce_platform.entity.outbox.EsOutbox;
+
+@Repository
+public interface EsOutboxRepository extends JpaRepository<EsOutbox, Long> {
+    // Commits on return: the claimed rows stay hidden from other relays until the lease in next_attempt_at runs out
+    @Transactional
+    @Query(
+            value =
+                    """
+		UPDATE es_outbox SET next_attempt_at = :leasedUntil
+		WHERE id IN (
+			SELECT id FROM es_outbox
+			WHERE next_attempt_at <= :now
+			AND parked_at IS NULL
+			ORDER BY id
+			LIMIT :limit
+			FOR UPDATE SKIP LOCKED)
+		RETURNING *
+	""",
+            nativeQuery = true)
+    List<EsOutbox> claimNextBatch(
+            @Param("now") Instant now, @Param("leasedUntil") Instant leasedUntil, @Param("limit") int limit);
+
+    @Query("SELECT MIN(e.createdAt) FROM EsOutbox e")
+    Instant findOldestCreatedAt();
+
+    long countByParkedAtIsNull();
+
+    long countByParkedAtIsNotNull();
+
+    @Transactional
+    @Modifying
+    @Query(
+            "UPDATE EsOutbox e SET e.parkedAt = null, e.attempts = 0, e.nextAttemptAt = :now WHERE e.parkedAt IS NOT NULL")
+    int unparkAll(@Param("now") Instant now);
+}
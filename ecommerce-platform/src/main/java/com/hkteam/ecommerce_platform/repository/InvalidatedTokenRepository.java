@@ -1,7 +1,31 @@
 package com.hkteam.ecommerce_platform.repository;
 
+import java.util.Date;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hkteam.ecommerce_platform.entity.authorization.InvalidatedToken;
 
-public interface InvalidatedTokenRepository extends JpaRepository<InvalidatedToken, String> {}
+public interface InvalidatedTokenRepository extends JpaRepository<InvalidatedToken, String> {
+    List<InvalidatedToken> findAllByExpiryTimeAfter(Date time);
+
+    @Transactional
+    @Modifying
+    @Query(
+            value =
+                    """
+		DELETE FROM invalidated_token
+		WHERE id IN (
+			SELECT id FROM invalidated_token
+			WHERE expiry_time < :before
+			LIMIT :limit
+		)
+	""",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("before") Date before, @Param("limit") int limit);
+}
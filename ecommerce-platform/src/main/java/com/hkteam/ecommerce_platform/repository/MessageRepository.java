@@ -1,5 +1,6 @@
 package com.hkteam.ecommerce_platform.repository;
 
+import java.time.Instant;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
@@ -14,6 +15,14 @@ public interface MessageRepository extends JpaRepository<Message, String> {
 
     Page<Message> findByRoomId(String id, Pageable pageable);
 
+    @Query(
+            """
+			select m from Message m
+			where m.room.id = :roomId and (m.createdAt, m.id) < (:createdAt, :id)
+			order by m.createdAt desc, m.id desc
+			""")
+    List<Message> findByRoomIdBefore(String roomId, Instant createdAt, String id, Pageable pageable);
+
     @Query(
             "SELECT m FROM Message m WHERE m.room.id = :id AND (m.product IS NOT NULL OR m.order IS NOT NULL) ORDER BY m.createdAt DESC")
     List<Message> findTopByRoomIdWithValidProductOrOrder(@Param("id") String id, Pageable pageable);
@@ -12,10 +12,12 @@ import org.jetbrains.annotations.NotNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hkteam.ecommerce_platform.entity.order.Order;
 
@@ -28,17 +30,9 @@ public interface OrderRepository extends JpaRepository<Order, String> {
             value =
                     """
 					select o from Order o
-					join o.orderStatusHistories osh
 					where o.store.id = :storeId
 					and (:orderId = '' or lower(o.id) like lower(concat('%', :orderId, '%')))
-					and osh in (
-							select osh1 from OrderStatusHistory osh1
-							where osh1.order = o
-							and (:statusName = '' or osh1.orderStatus.name = :statusName)
-							and osh1.createdAt = (
-								select max(osh2.createdAt) from OrderStatusHistory osh2 where osh2.order = osh1.order
-							)
-						)
+					and (:statusName = '' or o.currentStatus.name = :statusName)
 			""")
     Page<Order> findAllOrderBySeller(
             @Nullable String storeId, @Nullable String orderId, @Nullable String statusName, Pageable pageable);
@@ -47,7 +41,6 @@ public interface OrderRepository extends JpaRepository<Order, String> {
             value =
                     """
 					select o from Order o
-					join o.orderStatusHistories osh
 					where
 					(
 						(:orderId = '' or lower(o.id) like lower(concat('%', :orderId, '%')))
@@ -55,14 +48,7 @@ public interface OrderRepository extends JpaRepository<Order, String> {
 						or (:province = '' or lower(o.province) like lower(concat('%', :province, '%')))
 						or (:grandTotal = '' or cast(o.grandTotal as string) like lower(concat('%', :grandTotal, '%')))
 					)
-					and osh = (
-						select osh1 from OrderStatusHistory osh1
-						where osh1.order = o
-						and (:statusName = '' or osh1.orderStatus.name = :statusName)
-						and osh1.createdAt = (
-							select max(osh2.createdAt) from OrderStatusHistory osh2 where osh2.order = osh1.order
-						)
-					)
+					and (:statusName = '' or o.currentStatus.name = :statusName)
 			""")
     Page<Order> findAllOrderByAdmin(
             @Nullable String orderId,
@@ -76,7 +62,6 @@ public interface OrderRepository extends JpaRepository<Order, String> {
             value =
                     """
 					select distinct o from Order o
-					join o.orderStatusHistories osh
 					join o.orderItems oi
 					join oi.product p
 					where o.user.id = :userId
@@ -85,17 +70,10 @@ public interface OrderRepository extends JpaRepository<Order, String> {
 						or (:storeName = '' or lower(o.store.name) like lower(concat('%', :storeName, '%')))
 						or (:productName = '' or lower(p.name) like lower(concat('%', :productName, '%')))
 					)
-					and osh in (
-						select osh1 from OrderStatusHistory osh1
-						where osh1.order = o
-						and (
-								(:statusName = '' or osh1.orderStatus.name = :statusName)
-								or (:statusName = 'WAITING_DELIVERY' and osh1.orderStatus.name in ('PICKED_UP', 'OUT_FOR_DELIVERY'))
-								or (:statusName = 'IN_TRANSIT' and osh1.orderStatus.name in ('PENDING', 'CONFIRMED', 'PREPARING', 'WAITING_FOR_SHIPPING'))
-						)
-						and osh1.createdAt = (
-							select max(osh2.createdAt) from OrderStatusHistory osh2 where osh2.order = osh1.order
-						)
+					and (
+						(:statusName = '' or o.currentStatus.name = :statusName)
+						or (:statusName = 'WAITING_DELIVERY' and o.currentStatus.name in ('PICKED_UP', 'OUT_FOR_DELIVERY'))
+						or (:statusName = 'IN_TRANSIT' and o.currentStatus.name in ('PENDING', 'CONFIRMED', 'PREPARING', 'WAITING_FOR_SHIPPING'))
 					)
 			""")
     Page<Order> findAllOrderByUser(
@@ -108,36 +86,57 @@ public interface OrderRepository extends JpaRepository<Order, String> {
 
     @Query(
             """
-		select distinct o from Order o
-		join o.orderStatusHistories osh
-		join osh.orderStatus os
+		select o from Order o
 		where o.id = :orderId
-		and os.name in :listStatus
-		and osh.createdAt = (
-					select max (osh2.createdAt)
-					from OrderStatusHistory osh2
-					where osh2.order = o
-				)
+		and o.currentStatus.name in :listStatus
 	""")
     Optional<Order> findOneOrderUpdateOrCancel(
             @Param("orderId") String orderId, @Param("listStatus") List<String> listStatus);
 
     @Query(
             """
-		select distinct o from Order o
-		join o.orderStatusHistories osh
-		join osh.orderStatus os
+		select o from Order o
 		where o.id IN :listOrderId
-		and os.name IN :listStatus
-		and osh.createdAt = (
-					select max (osh2.createdAt)
-					from OrderStatusHistory osh2
-					where osh2.order = o
-				)
+		and o.currentStatus.name IN :listStatus
 	""")
     List<Order> findListOrderUpdateOrCancel(
             @Param("listOrderId") List<String> listOrderId, @Param("listStatus") List<String> listStatus);
 
+    @Query("select o.currentStatus.name, count(o) from Order o group by o.currentStatus.name")
+    List<Object[]> countGroupByCurrentStatus();
+
+    @Query(
+            """
+		select o.store.id, o.store.name, coalesce(cast(sum(o.total - o.discount) as BigDecimal), 0)
+		from Order o
+		where o.currentStatus.name = 'DELIVERED'
+		group by o.store.id, o.store.name
+		order by coalesce(sum(o.total - o.discount), 0) desc
+		limit 5
+	""")
+    List<Object[]> findTop5StoresByRevenueRaw();
+
+    boolean existsByCurrentStatusIsNull();
+
+    @Transactional
+    @Modifying
+    @Query(
+            value =
+                    """
+		UPDATE orders o
+		SET current_status_name = latest.order_status_name,
+			current_status_at = latest.created_at
+		FROM (
+			SELECT DISTINCT ON (osh.order_id) osh.order_id, osh.order_status_name, osh.created_at
+			FROM order_status_history osh
+			WHERE osh.is_deleted = false
+			ORDER BY osh.order_id, osh.created_at DESC
+		) latest
+		WHERE latest.order_id = o.id
+		AND o.current_status_name IS NULL
+	""",
+            nativeQuery = true)
+    int backfillCurrentStatus();
 
 	@Query(value = """
     SELECT
@@ -182,37 +181,22 @@ public interface OrderRepository extends JpaRepository<Order, String> {
 	);
 
 	@Query(value = """
-    SELECT
-        grouped.group_key,
-        '' AS entity_id,
-        'revenue' AS entity_name,
-        '' AS slug,
-        '' AS image_url,
-        0 AS quantity,
-        SUM(grouped.grand_total) AS amount
-    FROM (
-        SELECT
-            osh.created_at,
-            to_char(osh.created_at, :groupFormat) AS group_key,
-            o.grand_total
-        FROM orders o
-        JOIN order_status_history osh ON osh.order_id = o.id
-        WHERE o.is_deleted = false
-          AND osh.order_status_name = 'DELIVERED'
-			            AND osh.created_at = (
-			                SELECT MAX(osh2.created_at)
-			                FROM order_status_history osh2
-			                WHERE osh2.order_id = osh.order_id
-			            )
-			            AND osh.created_at BETWEEN :from AND :to
-			            AND (:storeId IS NULL OR o.store_id = :storeId)
-    ) grouped
-    GROUP BY grouped.group_key
-    ORDER BY grouped.group_key
+    SELECT COUNT(DISTINCT to_char(osh.created_at, :groupFormat))
+    FROM orders o
+    JOIN order_status_history osh ON osh.order_id = o.id
+    WHERE o.is_deleted = false
+      AND osh.order_status_name = 'DELIVERED'
+      AND osh.created_at = (
+          SELECT MAX(osh2.created_at)
+          FROM order_status_history osh2
+          WHERE osh2.order_id = osh.order_id
+      )
+      AND osh.created_at BETWEEN :from AND :to
+      AND (:storeId IS NULL OR o.store_id = :storeId)
     """,
 			nativeQuery = true
 	)
-	List<Object[]> getRevenueStatisticsNativeNoPage(
+	long countRevenueStatisticsGroups(
 			@Param("from") Instant from,
 			@Param("to") Instant to,
 			@Param("groupFormat") String groupFormat,
@@ -264,24 +248,11 @@ public interface OrderRepository extends JpaRepository<Order, String> {
 	);
 
 	@Query(value = """
-    SELECT
-        grouped.group_key,
-        grouped.product_id AS entity_id,
-        'product sold' AS entity_name,
-        grouped.product_slug AS slug,
-        '' AS image_url,
-        SUM(grouped.quantity) AS quantity,
-        0 AS amount
+    SELECT COUNT(*)
     FROM (
-        SELECT
-            o.created_at,
-            to_char(o.created_at, :groupFormat) AS group_key,
-            p.id AS product_id,
-            p.slug AS product_slug,
-            oi.quantity
+        SELECT DISTINCT to_char(o.created_at, :groupFormat), oi.product_id
         FROM orders o
         JOIN order_item oi ON o.id = oi.order_id AND oi.is_deleted = false
-        JOIN product p ON oi.product_id = p.id
         WHERE o.is_deleted = false
           AND o.created_at BETWEEN :from AND :to
           AND (:storeId IS NULL OR o.store_id = :storeId)
@@ -292,12 +263,10 @@ public interface OrderRepository extends JpaRepository<Order, String> {
                   AND osh.order_status_name = 'DELIVERED'
           )
     ) grouped
-    GROUP BY grouped.group_key, grouped.product_id, grouped.product_slug
-    ORDER BY grouped.group_key, grouped.product_id
     """, nativeQuery = true)
-	List<Object[]> getProductSoldStatisticsNativeNoPage(@Param("from") Instant from,
-														@Param("to") Instant to,
-														@Param("groupFormat") String groupFormat,
-														@Param("storeId") String storeId,
-														@Param("productId") String productId);
+	long countProductSoldStatisticsGroups(@Param("from") Instant from,
+										  @Param("to") Instant to,
+										  @Param("groupFormat") String groupFormat,
+										  @Param("storeId") String storeId,
+										  @Param("productId") String productId);
 }
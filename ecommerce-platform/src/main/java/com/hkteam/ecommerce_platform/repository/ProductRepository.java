@@ -1,5 +1,7 @@
 package com.hkteam.ecommerce_platform.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -78,4 +80,34 @@ public interface ProductRepository extends JpaRepository<Product, String> {
 				LIMIT :productLimit
 			""")
     List<Product> findProductBestInteraction(@Param("productLimit") int productLimit);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id > :lastId ORDER BY p.id")
+    List<String> findIdsAfter(@Param("lastId") String lastId, Pageable pageable);
+
+    @Query("SELECT p.id, p.version FROM Product p WHERE p.id > :lastId ORDER BY p.id")
+    List<Object[]> findIdVersionsAfter(@Param("lastId") String lastId, Pageable pageable);
+
+    @Query(
+            value =
+                    """
+				SELECT p.id FROM product p
+				LEFT JOIN category c ON c.id = p.category_id
+				LEFT JOIN brand b ON b.id = p.brand_id
+				WHERE p.is_deleted = false
+				AND (c.last_updated_at >= :since OR b.last_updated_at >= :since)
+			""",
+            nativeQuery = true)
+    List<String> findIdsWithCategoryOrBrandUpdatedSince(@Param("since") Instant since);
+
+    @Query(
+            """
+				SELECT DISTINCT p FROM Product p
+				LEFT JOIN FETCH p.brand
+				LEFT JOIN FETCH p.category
+				LEFT JOIN FETCH p.store
+				LEFT JOIN FETCH p.productComponentValues
+				WHERE p.id IN :ids
+				ORDER BY p.id
+			""")
+    List<Product> findAllForIndexByIdIn(@Param("ids") Collection<String> ids);
 }
@@ -1,10 +1,13 @@
 package com.hkteam.ecommerce_platform.repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.hkteam.ecommerce_platform.entity.chat.Room;
@@ -18,4 +21,20 @@ public interface RoomRepository extends JpaRepository<Room, String> {
     Page<Room> findByUser(User user, Pageable pageable);
 
     Page<Room> findByStore(Store store, Pageable pageable);
+
+    @Query(
+            """
+			select r from Room r
+			where r.user = :user and (r.lastUpdatedAt, r.id) < (:lastUpdatedAt, :id)
+			order by r.lastUpdatedAt desc, r.id desc
+			""")
+    List<Room> findByUserBefore(User user, Instant lastUpdatedAt, String id, Pageable pageable);
+
+    @Query(
+            """
+			select r from Room r
+			where r.store = :store and (r.lastUpdatedAt, r.id) < (:lastUpdatedAt, :id)
+			order by r.lastUpdatedAt desc, r.id desc
+			""")
+    List<Room> findByStoreBefore(Store store, Instant lastUpdatedAt, String id, Pageable pageable);
 }
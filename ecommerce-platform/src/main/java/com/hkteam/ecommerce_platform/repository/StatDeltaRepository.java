@@ -0,0 +1,54 @@
+package com.hkteam.ecommerce_platform.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hkteam.ecommerce_platform.entity.statistic.StatDelta;
+
+@Repository
+public interface StatDeltaRepository extends JpaRepository<StatDelta, Long> {
+    // One statement, so the deleted deltas and the sums added to the rollups come from the same snapshot
+    @Transactional
+    @Modifying
+    @Query(
+            value =
+                    """
+		WITH folded AS (
+			DELETE FROM stat_delta RETURNING *
+		), store_rows AS (
+			INSERT INTO daily_store_stats
+				(store_id, stat_date, orders_placed, orders_delivered, orders_cancelled, revenue, items_sold)
+			SELECT store_id, stat_date, SUM(orders_placed), SUM(orders_delivered), SUM(orders_cancelled),
+				SUM(revenue), SUM(items_sold)
+			FROM folded
+			WHERE store_id IS NOT NULL
+			GROUP BY store_id, stat_date
+			ON CONFLICT (stat_date, store_id) DO UPDATE SET
+				orders_placed = daily_store_stats.orders_placed + EXCLUDED.orders_placed,
+				orders_delivered = daily_store_stats.orders_delivered + EXCLUDED.orders_delivered,
+				orders_cancelled = daily_store_stats.orders_cancelled + EXCLUDED.orders_cancelled,
+				revenue = daily_store_stats.revenue + EXCLUDED.revenue,
+				items_sold = daily_store_stats.items_sold + EXCLUDED.items_sold
+		)
+		INSERT INTO daily_platform_stats
+			(stat_date, orders_placed, orders_delivered, orders_cancelled, revenue, items_sold, new_customers, new_sellers)
+		SELECT stat_date, SUM(orders_placed), SUM(orders_delivered), SUM(orders_cancelled), SUM(revenue),
+			SUM(items_sold), SUM(new_customers), SUM(new_sellers)
+		FROM folded
+		WHERE store_id IS NULL
+		GROUP BY stat_date
+		ON CONFLICT (stat_date) DO UPDATE SET
+			orders_placed = daily_platform_stats.orders_placed + EXCLUDED.orders_placed,
+			orders_delivered = daily_platform_stats.orders_delivered + EXCLUDED.orders_delivered,
+			orders_cancelled = daily_platform_stats.orders_cancelled + EXCLUDED.orders_cancelled,
+			revenue = daily_platform_stats.revenue + EXCLUDED.revenue,
+			items_sold = daily_platform_stats.items_sold + EXCLUDED.items_sold,
+			new_customers = daily_platform_stats.new_customers + EXCLUDED.new_customers,
+			new_sellers = daily_platform_stats.new_sellers + EXCLUDED.new_sellers
+	""",
+            nativeQuery = true)
+    int foldIntoRollups();
+}
@@ -0,0 +1,81 @@
+package com.hkteam.ecommerce_platform.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.hkteam.ecommerce_platform.entity.user.Store;
+
+@Repository
+public interface StoreStatisticsRepository extends org.springframework.data.repository.Repository<Store, String> {
+    interface OrderStatusCount {
+        String getStatus();
+
+        long getTotal();
+    }
+
+    interface ProductStockCount {
+        long getBlocked();
+
+        long getOutOfStock();
+    }
+
+    interface DailySales {
+        String getDate();
+
+        BigDecimal getRevenue();
+    }
+
+    @Query(
+            value =
+                    """
+		SELECT o.current_status_name AS status, COUNT(*) AS total
+		FROM orders o
+		WHERE o.store_id = :storeId
+		AND o.is_deleted = false
+		AND o.current_status_name IS NOT NULL
+		GROUP BY o.current_status_name
+	""",
+            nativeQuery = true)
+    List<OrderStatusCount> countOrdersByCurrentStatus(@Param("storeId") String storeId);
+
+    @Query(
+            value =
+                    """
+		SELECT
+			COUNT(*) FILTER (WHERE p.is_blocked) AS blocked,
+			COUNT(*) FILTER (WHERE p.quantity = 0 AND NOT p.is_blocked) AS "outOfStock"
+		FROM product p
+		WHERE p.store_id = :storeId
+		AND p.is_deleted = false
+	""",
+            nativeQuery = true)
+    ProductStockCount countProductStock(@Param("storeId") String storeId);
+
+    @Query(
+            value =
+                    """
+		SELECT delivered.date, SUM(delivered.revenue) AS revenue
+		FROM (
+			SELECT
+				to_char(o.current_status_at AT TIME ZONE :zone, 'YYYY-MM-DD') AS date,
+				o.total - o.discount AS revenue
+			FROM orders o
+			WHERE o.store_id = :storeId
+			AND o.is_deleted = false
+			AND o.current_status_name = 'DELIVERED'
+			AND o.current_status_at >= :from AND o.current_status_at < :to
+		) delivered
+		GROUP BY delivered.date
+	""",
+            nativeQuery = true)
+    List<DailySales> sumDeliveredSalesByDay(
+            @Param("storeId") String storeId,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            @Param("zone") String zone);
+}
@@ -1,7 +1,33 @@
 package com.hkteam.ecommerce_platform.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hkteam.ecommerce_platform.entity.payment.Transaction;
 
-public interface TransactionRepository extends JpaRepository<Transaction, String> {}
+public interface TransactionRepository extends JpaRepository<Transaction, String> {
+    @Query(
+            """
+			select distinct t from Transaction t
+			join fetch t.payment p
+			join fetch t.order o
+			join fetch o.store
+			join fetch o.orderItems oi
+			join fetch oi.product
+			where p.id in :paymentIds
+			and t.orderEmailSentAt is null
+			""")
+    List<Transaction> findAllForOrderEmailByPaymentIdIn(Collection<String> paymentIds);
+
+    @Transactional
+    @Modifying
+    @Query("update Transaction t set t.orderEmailSentAt = :sentAt where t.id in :ids")
+    int markOrderEmailSent(@Param("ids") Collection<String> ids, @Param("sentAt") Instant sentAt);
+}
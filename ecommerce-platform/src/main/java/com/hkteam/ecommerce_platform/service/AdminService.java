@@ -2,26 +2,33 @@ package com.hkteam.ecommerce_platform.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.Instant;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.stream.Stream;
 
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
+import com.hkteam.ecommerce_platform.configuration.TwoTierCacheManager;
 import com.hkteam.ecommerce_platform.dto.response.AdminStatisticsResponse;
+import com.hkteam.ecommerce_platform.dto.response.CacheStatisticsResponse;
+import com.hkteam.ecommerce_platform.dto.response.EsOutboxStatisticsResponse;
+import com.hkteam.ecommerce_platform.dto.response.MediaUploadStatisticsResponse;
+import com.hkteam.ecommerce_platform.dto.response.QueueStatisticsResponse;
 import com.hkteam.ecommerce_platform.dto.response.RevenueOneDayResponse;
 import com.hkteam.ecommerce_platform.dto.response.RevenueOneYearResponse;
 import com.hkteam.ecommerce_platform.dto.response.StoreRevenueResponse;
+import com.hkteam.ecommerce_platform.dto.response.WebSocketStatisticsResponse;
+import com.hkteam.ecommerce_platform.entity.statistic.DailyPlatformStats;
 import com.hkteam.ecommerce_platform.enums.RoleName;
 import com.hkteam.ecommerce_platform.exception.AppException;
 import com.hkteam.ecommerce_platform.exception.ErrorCode;
-import com.hkteam.ecommerce_platform.repository.OrderStatusHistoryRepository;
-import com.hkteam.ecommerce_platform.repository.StoreRepository;
+import com.hkteam.ecommerce_platform.rabbitmq.RabbitListenerMonitor;
+import com.hkteam.ecommerce_platform.repository.OrderRepository;
 import com.hkteam.ecommerce_platform.repository.UserRepository;
 
 import lombok.AccessLevel;
@@ -34,9 +41,14 @@ import lombok.extern.slf4j.Slf4j;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @Slf4j
 public class AdminService {
-    OrderStatusHistoryRepository oshRepository;
+    OrderRepository orderRepository;
     UserRepository userRepository;
-    StoreRepository storeRepository;
+    StatisticRollupService statisticRollupService;
+    TwoTierCacheManager cacheManager;
+    MediaUploadExecutor mediaUploadExecutor;
+    RabbitListenerMonitor rabbitListenerMonitor;
+    ChatBroadcastService chatBroadcastService;
+    EsOutboxService esOutboxService;
 
     static final String IS_DAY = "isDay";
     static final String IS_WEEK = "isWeek";
@@ -45,24 +57,33 @@ public class AdminService {
 
     @PreAuthorize("hasRole('ADMIN')")
     public AdminStatisticsResponse getAdminStatistic() {
-        long numberOfOrdersWaitingForShipping = getNumberOfOrdersByStatus("WAITING_FOR_SHIPPING");
-        long numberOfOrdersPickedUp = getNumberOfOrdersByStatus("PICKED_UP");
-        long numberOfOrdersOutForDelivery = getNumberOfOrdersByStatus("OUT_FOR_DELIVERY");
-        long numberOfOrdersCancelled = getNumberOfOrdersByStatus("CANCELLED");
-        long numberOfOrdersDelivered = getNumberOfOrdersByStatus("DELIVERED");
-        long numberOfOrdersPending = getNumberOfOrdersByStatus("PENDING");
-
-        Instant today = Instant.now();
-
-        BigDecimal dailyRevenue = calculateRevenue(IS_DAY, today);
-        BigDecimal weeklyRevenue = calculateRevenue(IS_WEEK, today);
-        BigDecimal monthlyRevenue = calculateRevenue(IS_MONTH, today);
-        BigDecimal yearlyRevenue = calculateRevenue(IS_YEAR, today);
-
-        BigDecimal yesterdayRevenue = calculateRevenue(IS_DAY, today.minusSeconds(86400));
-        BigDecimal lastWeekRevenue = calculateRevenue(IS_WEEK, today.minusSeconds(7L * 86400));
-        BigDecimal lastMonthRevenue = calculateRevenue(IS_MONTH, today.minusSeconds(30L * 86400));
-        BigDecimal lastYearRevenue = calculateRevenue(IS_YEAR, today.minusSeconds(365L * 86400));
+        Map<String, Long> numberOfOrdersByStatus = getNumberOfOrdersByStatus();
+        long numberOfOrdersWaitingForShipping = numberOfOrdersByStatus.getOrDefault("WAITING_FOR_SHIPPING", 0L);
+        long numberOfOrdersPickedUp = numberOfOrdersByStatus.getOrDefault("PICKED_UP", 0L);
+        long numberOfOrdersOutForDelivery = numberOfOrdersByStatus.getOrDefault("OUT_FOR_DELIVERY", 0L);
+        long numberOfOrdersCancelled = numberOfOrdersByStatus.getOrDefault("CANCELLED", 0L);
+        long numberOfOrdersDelivered = numberOfOrdersByStatus.getOrDefault("DELIVERED", 0L);
+        long numberOfOrdersPending = numberOfOrdersByStatus.getOrDefault("PENDING", 0L);
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate yesterday = today.minusDays(1);
+        LocalDate lastWeek = today.minusDays(7);
+        LocalDate lastMonth = today.minusDays(30);
+        LocalDate lastYear = today.minusDays(365);
+
+        // Every period below falls inside [start of last year, today], at most 731 rollup rows
+        List<DailyPlatformStats> dailyStats =
+                statisticRollupService.getPlatformStats(resolvePeriod(IS_YEAR, lastYear)[0], today);
+
+        BigDecimal dailyRevenue = calculateRevenue(dailyStats, IS_DAY, today);
+        BigDecimal weeklyRevenue = calculateRevenue(dailyStats, IS_WEEK, today);
+        BigDecimal monthlyRevenue = calculateRevenue(dailyStats, IS_MONTH, today);
+        BigDecimal yearlyRevenue = calculateRevenue(dailyStats, IS_YEAR, today);
+
+        BigDecimal yesterdayRevenue = calculateRevenue(dailyStats, IS_DAY, yesterday);
+        BigDecimal lastWeekRevenue = calculateRevenue(dailyStats, IS_WEEK, lastWeek);
+        BigDecimal lastMonthRevenue = calculateRevenue(dailyStats, IS_MONTH, lastMonth);
+        BigDecimal lastYearRevenue = calculateRevenue(dailyStats, IS_YEAR, lastYear);
 
         BigDecimal revenueIncreaseCompareYesterday = calculateRevenueIncrease(dailyRevenue, yesterdayRevenue);
         BigDecimal revenueIncreaseCompareLastWeek = calculateRevenueIncrease(weeklyRevenue, lastWeekRevenue);
@@ -78,19 +99,15 @@ public class AdminService {
         long totalNumberOfSellers = userRepository.countByRolesName(RoleName.SELLER);
         long totalNumberOfAdmins = userRepository.countByRolesName(RoleName.ADMIN);
 
-        long dailyNumberOfCustomer = countUserByIntervalAndTime(List.of(RoleName.USER), IS_DAY, today);
-        long weeklyNumberOfCustomer = countUserByIntervalAndTime(List.of(RoleName.USER), IS_WEEK, today);
-        long monthlyNumberOfCustomer = countUserByIntervalAndTime(List.of(RoleName.USER), IS_MONTH, today);
-        long yearlyNumberOfCustomer = countUserByIntervalAndTime(List.of(RoleName.USER), IS_YEAR, today);
+        long dailyNumberOfCustomer = countNewCustomers(dailyStats, IS_DAY, today);
+        long weeklyNumberOfCustomer = countNewCustomers(dailyStats, IS_WEEK, today);
+        long monthlyNumberOfCustomer = countNewCustomers(dailyStats, IS_MONTH, today);
+        long yearlyNumberOfCustomer = countNewCustomers(dailyStats, IS_YEAR, today);
 
-        long yesterdayNumberOfCustomer =
-                countUserByIntervalAndTime(List.of(RoleName.USER), IS_DAY, today.minusSeconds(86400));
-        long lastWeekNumberOfCustomer =
-                countUserByIntervalAndTime(List.of(RoleName.USER), IS_WEEK, today.minusSeconds(7L * 86400));
-        long lastMonthNumberOfCustomer =
-                countUserByIntervalAndTime(List.of(RoleName.USER), IS_MONTH, today.minusSeconds(30L * 86400));
-        long lastYearNumberOfCustomer =
-                countUserByIntervalAndTime(List.of(RoleName.USER), IS_YEAR, today.minusSeconds(365L * 86400));
+        long yesterdayNumberOfCustomer = countNewCustomers(dailyStats, IS_DAY, yesterday);
+        long lastWeekNumberOfCustomer = countNewCustomers(dailyStats, IS_WEEK, lastWeek);
+        long lastMonthNumberOfCustomer = countNewCustomers(dailyStats, IS_MONTH, lastMonth);
+        long lastYearNumberOfCustomer = countNewCustomers(dailyStats, IS_YEAR, lastYear);
 
         long numberOfCICYesterday = calculateCustomerIncrease(dailyNumberOfCustomer, yesterdayNumberOfCustomer);
         long numberOfCICLastWeek = calculateCustomerIncrease(weeklyNumberOfCustomer, lastWeekNumberOfCustomer);
@@ -103,19 +120,15 @@ public class AdminService {
                 calculateGrowthRateByRoleName(monthlyNumberOfCustomer, lastMonthNumberOfCustomer);
         int yearlyCustomerGrowthRate = calculateGrowthRateByRoleName(yearlyNumberOfCustomer, lastYearNumberOfCustomer);
 
-        long dailyNumberOfSeller = countStoreByIntervalAndTime(List.of(RoleName.SELLER), IS_DAY, today);
-        long weeklyNumberOfSeller = countStoreByIntervalAndTime(List.of(RoleName.SELLER), IS_WEEK, today);
-        long monthlyNumberOfSeller = countStoreByIntervalAndTime(List.of(RoleName.SELLER), IS_MONTH, today);
-        long yearlyNumberOfSeller = countStoreByIntervalAndTime(List.of(RoleName.SELLER), IS_YEAR, today);
+        long dailyNumberOfSeller = countNewSellers(dailyStats, IS_DAY, today);
+        long weeklyNumberOfSeller = countNewSellers(dailyStats, IS_WEEK, today);
+        long monthlyNumberOfSeller = countNewSellers(dailyStats, IS_MONTH, today);
+        long yearlyNumberOfSeller = countNewSellers(dailyStats, IS_YEAR, today);
 
-        long yesterdayNumberOfSeller =
-                countStoreByIntervalAndTime(List.of(RoleName.SELLER), IS_DAY, today.minusSeconds(86400));
-        long lastWeekNumberOfSeller =
-                countStoreByIntervalAndTime(List.of(RoleName.SELLER), IS_WEEK, today.minusSeconds(7L * 86400));
-        long lastMonthNumberOfSeller =
-                countStoreByIntervalAndTime(List.of(RoleName.SELLER), IS_MONTH, today.minusSeconds(30L * 86400));
-        long lastYearNumberOfSeller =
-                countStoreByIntervalAndTime(List.of(RoleName.SELLER), IS_YEAR, today.minusSeconds(365L * 86400));
+        long yesterdayNumberOfSeller = countNewSellers(dailyStats, IS_DAY, yesterday);
+        long lastWeekNumberOfSeller = countNewSellers(dailyStats, IS_WEEK, lastWeek);
+        long lastMonthNumberOfSeller = countNewSellers(dailyStats, IS_MONTH, lastMonth);
+        long lastYearNumberOfSeller = countNewSellers(dailyStats, IS_YEAR, lastYear);
 
         long numberOfSICYesterday = calculateSellerIncrease(dailyNumberOfSeller, yesterdayNumberOfSeller);
         long numberOfSICLastWeek = calculateSellerIncrease(weeklyNumberOfSeller, lastWeekNumberOfSeller);
@@ -127,7 +140,7 @@ public class AdminService {
         int monthlySellerGrowthRate = calculateGrowthRateByRoleName(monthlyNumberOfSeller, lastMonthNumberOfSeller);
         int yearlySellerGrowthRate = calculateGrowthRateByRoleName(yearlyNumberOfSeller, lastYearNumberOfSeller);
 
-        List<Object[]> rawTop5Stores = oshRepository.findTop5StoresByRevenueRaw();
+        List<Object[]> rawTop5Stores = orderRepository.findTop5StoresByRevenueRaw();
         List<StoreRevenueResponse> top5StoresByRevenue = rawTop5Stores.stream()
                 .map(row -> new StoreRevenueResponse((String) row[0], (String) row[1], (BigDecimal) row[2]))
                 .toList();
@@ -182,12 +195,49 @@ public class AdminService {
                 .build();
     }
 
-    long getNumberOfOrdersByStatus(String status) {
-        return oshRepository.countByLatestStatus(status);
+    Map<String, Long> getNumberOfOrdersByStatus() {
+        Map<String, Long> numberOfOrdersByStatus = new HashMap<>();
+        orderRepository
+                .countGroupByCurrentStatus()
+                .forEach(row -> numberOfOrdersByStatus.put((String) row[0], (Long) row[1]));
+        return numberOfOrdersByStatus;
+    }
+
+    LocalDate[] resolvePeriod(String interval, LocalDate date) {
+        return switch (interval) {
+            case IS_WEEK -> {
+                LocalDate monday = date.with(DayOfWeek.MONDAY);
+                yield new LocalDate[] {monday, monday.plusDays(6)};
+            }
+            case IS_MONTH -> new LocalDate[] {date.withDayOfMonth(1), date.with(TemporalAdjusters.lastDayOfMonth())};
+            case IS_YEAR -> new LocalDate[] {date.withDayOfYear(1), date.with(TemporalAdjusters.lastDayOfYear())};
+            default -> new LocalDate[] {date, date};
+        };
     }
 
-    BigDecimal calculateRevenue(String interval, Instant time) {
-        return oshRepository.calculateRevenueByIntervalAndTime(interval, time);
+    Stream<DailyPlatformStats> filterPeriod(List<DailyPlatformStats> dailyStats, String interval, LocalDate date) {
+        LocalDate[] period = resolvePeriod(interval, date);
+        return dailyStats.stream()
+                .filter(stats -> !stats.getStatDate().isBefore(period[0])
+                        && !stats.getStatDate().isAfter(period[1]));
+    }
+
+    BigDecimal calculateRevenue(List<DailyPlatformStats> dailyStats, String interval, LocalDate date) {
+        return filterPeriod(dailyStats, interval, date)
+                .map(DailyPlatformStats::getRevenue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    long countNewCustomers(List<DailyPlatformStats> dailyStats, String interval, LocalDate date) {
+        return filterPeriod(dailyStats, interval, date)
+                .mapToLong(DailyPlatformStats::getNewCustomers)
+                .sum();
+    }
+
+    long countNewSellers(List<DailyPlatformStats> dailyStats, String interval, LocalDate date) {
+        return filterPeriod(dailyStats, interval, date)
+                .mapToLong(DailyPlatformStats::getNewSellers)
+                .sum();
     }
 
     BigDecimal calculateRevenueIncrease(BigDecimal currentRevenue, BigDecimal previousRevenue) {
@@ -202,14 +252,6 @@ public class AdminService {
         return current - previous;
     }
 
-    long countUserByIntervalAndTime(List<RoleName> roles, String interval, Instant time) {
-        return userRepository.countUserByIntervalAndTime(roles, interval, time);
-    }
-
-    long countStoreByIntervalAndTime(List<RoleName> roles, String interval, Instant time) {
-        return storeRepository.countStoreByIntervalAndTime(roles, interval, time);
-    }
-
     int calculateRevenueGrowthRate(BigDecimal currentRevenue, BigDecimal previousRevenue) {
         if (Objects.nonNull(previousRevenue) && previousRevenue.compareTo(BigDecimal.ZERO) > 0) {
             return currentRevenue
@@ -228,6 +270,41 @@ public class AdminService {
         return 0;
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<CacheStatisticsResponse> getCacheStatistics() {
+        return cacheManager.getStatistics();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public MediaUploadStatisticsResponse getMediaUploadStatistics() {
+        return mediaUploadExecutor.getStatistics();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<QueueStatisticsResponse> getQueueStatistics() {
+        return rabbitListenerMonitor.getStatistics();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public WebSocketStatisticsResponse getWebSocketStatistics() {
+        return chatBroadcastService.getStatistics();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public EsOutboxStatisticsResponse getEsOutboxStatistics() {
+        return esOutboxService.getStatistics();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public int replayEsOutbox() {
+        return esOutboxService.replayParked();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public void rebuildStatistic(LocalDate from, LocalDate to) {
+        statisticRollupService.rebuild(from, to);
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     public RevenueOneYearResponse getRevenueOneYear(String year, String month) {
         int yearInt;
@@ -254,29 +331,25 @@ public class AdminService {
         LocalDate firstDayOfMonth = LocalDate.of(yearInt, monthInt, 1);
         LocalDate lastDayOfMonth = firstDayOfMonth.withDayOfMonth(firstDayOfMonth.lengthOfMonth());
 
-        Instant startDate = firstDayOfMonth.atStartOfDay().toInstant(ZoneOffset.UTC);
-        Instant endDate = lastDayOfMonth.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        Map<LocalDate, BigDecimal> revenueByDate = new HashMap<>();
+        statisticRollupService
+                .getPlatformStats(firstDayOfMonth, lastDayOfMonth)
+                .forEach(stats -> revenueByDate.put(stats.getStatDate(), stats.getRevenue()));
 
         List<RevenueOneDayResponse> revenueOneDayResponses = new ArrayList<>();
-        Instant currentDate = startDate;
-
-        while (currentDate.isBefore(endDate)) {
-            Instant nextDate = currentDate.plusSeconds(86400);
-
-            BigDecimal dailyRevenue = oshRepository.calculateDailyRevenue("DELIVERED", currentDate, nextDate);
-
-            String formattedDate =
-                    LocalDate.ofInstant(currentDate, ZoneOffset.UTC).format(DateTimeFormatter.ISO_DATE);
-
+        for (LocalDate date = firstDayOfMonth; !date.isAfter(lastDayOfMonth); date = date.plusDays(1)) {
             revenueOneDayResponses.add(RevenueOneDayResponse.builder()
-                    .revenue(dailyRevenue != null ? dailyRevenue : BigDecimal.ZERO)
-                    .date(formattedDate)
+                    .revenue(revenueByDate.getOrDefault(date, BigDecimal.ZERO))
+                    .date(date.format(DateTimeFormatter.ISO_DATE))
                     .build());
-
-            currentDate = nextDate;
         }
 
-        BigDecimal totalRevenueOneYear = oshRepository.calculateTotalRevenueOneYear(yearInt);
+        LocalDate firstDayOfYear = LocalDate.of(yearInt, 1, 1);
+        BigDecimal totalRevenueOneYear = calculateRevenue(
+                statisticRollupService.getPlatformStats(
+                        firstDayOfYear, firstDayOfYear.with(TemporalAdjusters.lastDayOfYear())),
+                IS_YEAR,
+                firstDayOfYear);
 
         return RevenueOneYearResponse.builder()
                 .revenueOneDayResponses(revenueOneDayResponses)
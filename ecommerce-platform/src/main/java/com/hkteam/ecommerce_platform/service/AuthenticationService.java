@@ -21,11 +21,9 @@ import com.hkteam.ecommerce_platform.dto.request.*;
 import com.hkteam.ecommerce_platform.dto.response.ApiResponse;
 import com.hkteam.ecommerce_platform.dto.response.AuthenticationResponse;
 import com.hkteam.ecommerce_platform.dto.response.IntrospectResponse;
-import com.hkteam.ecommerce_platform.entity.authorization.InvalidatedToken;
 import com.hkteam.ecommerce_platform.entity.user.User;
 import com.hkteam.ecommerce_platform.exception.AppException;
 import com.hkteam.ecommerce_platform.exception.ErrorCode;
-import com.hkteam.ecommerce_platform.repository.InvalidatedTokenRepository;
 import com.hkteam.ecommerce_platform.repository.UserRepository;
 import com.nimbusds.jose.*;
 import com.nimbusds.jose.crypto.MACSigner;
@@ -44,7 +42,7 @@ import lombok.extern.slf4j.Slf4j;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class AuthenticationService {
 
-    InvalidatedTokenRepository invalidatedTokenRepository;
+    TokenRevocationService tokenRevocationService;
     UserRepository userRepository;
 
     @NonFinal
@@ -128,34 +126,34 @@ public class AuthenticationService {
         JWSVerifier verifier = new MACVerifier(SECRET_KEY.getBytes());
         SignedJWT singedJWT = SignedJWT.parse(token);
         Date expiryTime = (isRefresh)
-                ? new Date(singedJWT
-                        .getJWTClaimsSet()
-                        .getIssueTime()
-                        .toInstant()
-                        .plus(REFRESHABLE_DURATION, ChronoUnit.SECONDS)
-                        .toEpochMilli())
+                ? refreshableUntil(singedJWT)
                 : singedJWT.getJWTClaimsSet().getExpirationTime();
         var verified = singedJWT.verify(verifier);
 
         if (!verified || expiryTime.before(new Date())) throw new AppException(ErrorCode.UNAUTHENTICATED);
 
-        if (invalidatedTokenRepository.existsById(singedJWT.getJWTClaimsSet().getJWTID()))
+        if (tokenRevocationService.isRevoked(singedJWT.getJWTClaimsSet().getJWTID()))
             throw new AppException(ErrorCode.UNAUTHENTICATED);
 
         return singedJWT;
     }
 
+    // A token can still be exchanged on /auth/refresh until this time, so its revocation has to be kept as long
+    private Date refreshableUntil(SignedJWT signedJWT) throws ParseException {
+        return new Date(signedJWT
+                .getJWTClaimsSet()
+                .getIssueTime()
+                .toInstant()
+                .plus(REFRESHABLE_DURATION, ChronoUnit.SECONDS)
+                .toEpochMilli());
+    }
+
     public void logout(LogoutRequest request) throws ParseException, JOSEException {
         try {
             var signToken = verifyToken(request.getToken(), true);
             String jit = signToken.getJWTClaimsSet().getJWTID();
 
-            Date expiryTime = signToken.getJWTClaimsSet().getExpirationTime();
-
-            InvalidatedToken invalidatedToken =
-                    InvalidatedToken.builder().id(jit).expiryTime(expiryTime).build();
-
-            invalidatedTokenRepository.save(invalidatedToken);
+            tokenRevocationService.revoke(jit, refreshableUntil(signToken));
         } catch (AppException e) {
             log.info("Token already expired or invalid");
         }
@@ -165,10 +163,7 @@ public class AuthenticationService {
         var signedJWT = verifyToken(request.getToken(), true);
 
         var jit = signedJWT.getJWTClaimsSet().getJWTID();
-        var expiryTime = signedJWT.getJWTClaimsSet().getExpirationTime();
-        InvalidatedToken invalidatedToken =
-                InvalidatedToken.builder().id(jit).expiryTime(expiryTime).build();
-        invalidatedTokenRepository.save(invalidatedToken);
+        tokenRevocationService.revoke(jit, refreshableUntil(signedJWT));
 
         var username = signedJWT.getJWTClaimsSet().getSubject();
         var user =
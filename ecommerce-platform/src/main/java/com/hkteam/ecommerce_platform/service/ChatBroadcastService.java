@@ -0,0 +1,163 @@
+package com.hkteam.ecommerce_platform.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hkteam.ecommerce_platform.dto.response.WebSocketStatisticsResponse;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+// Delivers messages to the node local simple broker, in redis mode every node gets them through redis pub/sub first
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ChatBroadcastService implements MessageListener {
+    public static final String FANOUT_CHANNEL = "websocket:fanout";
+    public static final String MODE_REDIS = "redis";
+    static final String NODES_KEY = "websocket:nodes";
+    static final String SEPARATOR = "\n";
+
+    SimpMessagingTemplate messagingTemplate;
+    StringRedisTemplate redisTemplate;
+    ObjectMapper objectMapper;
+
+    String nodeId = UUID.randomUUID().toString();
+    Set<String> sessions = ConcurrentHashMap.newKeySet();
+    LongAdder published = new LongAdder();
+    LongAdder delivered = new LongAdder();
+    LongAdder totalLatencyMillis = new LongAdder();
+    AtomicLong maxLatencyMillis = new AtomicLong();
+
+    @NonFinal
+    @Value("${websocket.broker-mode:simple}")
+    String brokerMode;
+
+    @NonFinal
+    @Value("${websocket.node-report-delay:30000}")
+    long nodeReportDelay;
+
+    record Envelope(String destination, JsonNode payload, long publishedAt) {}
+
+    public void publish(String destination, Object payload) {
+        published.increment();
+        if (!MODE_REDIS.equals(brokerMode)) {
+            deliver(destination, payload, System.currentTimeMillis());
+            return;
+        }
+
+        long publishedAt = System.currentTimeMillis();
+        try {
+            Envelope envelope = new Envelope(destination, objectMapper.valueToTree(payload), publishedAt);
+            redisTemplate.convertAndSend(FANOUT_CHANNEL, objectMapper.writeValueAsString(envelope));
+        } catch (Exception e) {
+            // Local subscribers still get the message when redis is down
+            log.error("Error when fan out message to {}: {}", destination, e.getMessage());
+            deliver(destination, payload, publishedAt);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Envelope envelope =
+                    objectMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8), Envelope.class);
+            deliver(envelope.destination(), envelope.payload(), envelope.publishedAt());
+        } catch (Exception e) {
+            log.error("Error when deliver fan out message: {}", e.getMessage());
+        }
+    }
+
+    private void deliver(String destination, Object payload, long publishedAt) {
+        messagingTemplate.convertAndSend(destination, payload);
+
+        // Across nodes this includes clock skew between them
+        long latency = Math.max(System.currentTimeMillis() - publishedAt, 0);
+        delivered.increment();
+        totalLatencyMillis.add(latency);
+        maxLatencyMillis.accumulateAndGet(latency, Math::max);
+    }
+
+    @EventListener
+    public void handleSessionConnected(SessionConnectedEvent event) {
+        String sessionId = (String) event.getMessage().getHeaders().get("simpSessionId");
+        if (Objects.nonNull(sessionId)) sessions.add(sessionId);
+    }
+
+    @EventListener
+    public void handleSessionDisconnect(SessionDisconnectEvent event) {
+        sessions.remove(event.getSessionId());
+    }
+
+    @Scheduled(fixedDelayString = "${websocket.node-report-delay:30000}")
+    public void reportSessions() {
+        if (!MODE_REDIS.equals(brokerMode)) return;
+
+        try {
+            redisTemplate.opsForHash().put(NODES_KEY, nodeId, sessions.size() + SEPARATOR + System.currentTimeMillis());
+        } catch (Exception e) {
+            log.error("Error when report websocket sessions of node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    public WebSocketStatisticsResponse getStatistics() {
+        long deliveredCount = delivered.sum();
+        return WebSocketStatisticsResponse.builder()
+                .brokerMode(brokerMode)
+                .nodeId(nodeId)
+                .sessions(sessions.size())
+                .published(published.sum())
+                .delivered(deliveredCount)
+                .averageFanoutLatencyMillis(
+                        deliveredCount == 0 ? 0 : (double) totalLatencyMillis.sum() / deliveredCount)
+                .maxFanoutLatencyMillis(maxLatencyMillis.get())
+                .sessionsPerNode(sessionsPerNode())
+                .build();
+    }
+
+    private Map<String, Integer> sessionsPerNode() {
+        Map<String, Integer> nodes = new TreeMap<>();
+        nodes.put(nodeId, sessions.size());
+        if (!MODE_REDIS.equals(brokerMode)) return nodes;
+
+        // Nodes that stopped reporting are dropped after three missed reports
+        long staleBefore = System.currentTimeMillis() - 3 * nodeReportDelay;
+        try {
+            redisTemplate.<String, String>opsForHash().entries(NODES_KEY).forEach((node, value) -> {
+                String[] parts = value.split(SEPARATOR);
+                if (Long.parseLong(parts[1]) < staleBefore) {
+                    redisTemplate.opsForHash().delete(NODES_KEY, node);
+                } else if (!nodeId.equals(node)) {
+                    nodes.put(node, Integer.parseInt(parts[0]));
+                }
+            });
+        } catch (Exception e) {
+            log.error("Error when read websocket sessions per node: {}", e.getMessage());
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,299 @@
+package com.hkteam.ecommerce_platform.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.hkteam.ecommerce_platform.dto.response.ChatMessageResponse;
+import com.hkteam.ecommerce_platform.exception.AppException;
+import com.hkteam.ecommerce_platform.exception.ErrorCode;
+import com.hkteam.ecommerce_platform.repository.MessageRepository;
+import com.hkteam.ecommerce_platform.repository.OrderRepository;
+import com.hkteam.ecommerce_platform.repository.ProductRepository;
+import com.hkteam.ecommerce_platform.repository.RoomRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Write behind persistence for chat messages: ids are assigned up front so the message can be broadcast right away,
+// rows are inserted in batches by the scheduled flush and rows the database refuses go to message_dead_letter
+@Service
+@Slf4j
+public class ChatMessageWriter {
+    // Timestamps come from the database clock like in sync mode, clock_timestamp() keeps them increasing within a
+    // batch so (created_at, id) follows the send order
+    static final String INSERT_MESSAGE =
+            "INSERT INTO message (id, content, room_id, user_id, order_id, product_id, created_at, last_updated_at,"
+                    + " is_deleted) VALUES (?, ?, ?, ?, ?, ?, clock_timestamp(), clock_timestamp(), false)";
+    static final String UPDATE_ROOM = "UPDATE room SET last_message = ?, last_time_message = clock_timestamp(),"
+            + " last_updated_at = clock_timestamp() WHERE id = ?";
+    static final String INSERT_DEAD_LETTER =
+            "INSERT INTO message_dead_letter (id, content, room_id, user_id, order_id, product_id, sent_at, error,"
+                    + " failed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, now())";
+    static final String ROOM_STATE_KEY_PREFIX = "chat:room-state:";
+    static final String SEPARATOR = "\n";
+
+    record PendingMessage(
+            String id,
+            String roomId,
+            String senderId,
+            String content,
+            String orderId,
+            String productId,
+            Instant sentAt) {}
+
+    // Order and product last attached to a room, used to avoid repeating the same card in a row
+    record RoomState(String orderId, String productId) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final RoomRepository roomRepository;
+    private final MessageRepository messageRepository;
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final BlockingQueue<PendingMessage> queue;
+    // Rows neither inserted nor dead lettered while the database was unavailable, written before the queue
+    private final List<PendingMessage> unwritten = new ArrayList<>();
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final Duration roomStateTtl;
+
+    public ChatMessageWriter(
+            JdbcTemplate jdbcTemplate,
+            StringRedisTemplate redisTemplate,
+            RoomRepository roomRepository,
+            MessageRepository messageRepository,
+            OrderRepository orderRepository,
+            ProductRepository productRepository,
+            @Value("${chat.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${chat.write-behind.batch-size:500}") int batchSize,
+            @Value("${chat.write-behind.offer-timeout:100ms}") Duration offerTimeout,
+            @Value("${chat.write-behind.room-state-ttl:30m}") Duration roomStateTtl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisTemplate = redisTemplate;
+        this.roomRepository = roomRepository;
+        this.messageRepository = messageRepository;
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutMillis = offerTimeout.toMillis();
+        this.roomStateTtl = roomStateTtl;
+    }
+
+    public ChatMessageResponse enqueue(
+            String roomId, String content, String orderId, String productId, String senderId) {
+        RoomState state = roomState(roomId);
+
+        if (Objects.nonNull(orderId)) {
+            if (!orderRepository.existsById(orderId)) throw new AppException(ErrorCode.ORDER_NOT_FOUND);
+            if (orderId.equals(state.orderId())) orderId = null;
+        }
+        if (Objects.nonNull(productId)) {
+            if (!productRepository.existsById(productId)) throw new AppException(ErrorCode.PRODUCT_NOT_FOUND);
+            if (productId.equals(state.productId())) productId = null;
+        }
+
+        PendingMessage pending = new PendingMessage(
+                UUID.randomUUID().toString(), roomId, senderId, content, orderId, productId, Instant.now());
+        try {
+            // Blocks the inbound thread for a moment when the flush falls behind, then rejects the message
+            if (!queue.offer(pending, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("Chat write behind queue is full, rejected message for room {}", roomId);
+                throw new AppException(ErrorCode.CHAT_MESSAGE_BUSY);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException(ErrorCode.CHAT_MESSAGE_BUSY);
+        }
+
+        if (Objects.nonNull(pending.orderId()) || Objects.nonNull(pending.productId())) {
+            saveRoomState(roomId, new RoomState(pending.orderId(), pending.productId()));
+        }
+
+        // The stored created_at is taken by the database when the row is flushed, a few milliseconds later
+        return ChatMessageResponse.builder()
+                .id(pending.id())
+                .content(pending.content())
+                .createdAt(pending.sentAt().toString())
+                .senderId(senderId)
+                .orderId(pending.orderId())
+                .productId(pending.productId())
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${chat.write-behind.flush-delay:200}")
+    public synchronized void flush() {
+        while (!unwritten.isEmpty() || queue.drainTo(unwritten, batchSize) > 0) {
+            List<PendingMessage> batch = new ArrayList<>(unwritten);
+            unwritten.clear();
+            unwritten.addAll(write(batch));
+
+            // Keep the rows and stop here, the full queue pushes back on senders until the database is back
+            if (!unwritten.isEmpty()) return;
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing {} pending chat messages before shutdown", queue.size() + unwritten.size());
+        flush();
+        if (!unwritten.isEmpty()) log.error("Lost {} chat messages on shutdown", unwritten.size() + queue.size());
+    }
+
+    // Last order and product per room are shared by all nodes, a node that only read its own sends would repeat
+    // or hide cards after another node wrote to the room
+    private RoomState roomState(String roomId) {
+        try {
+            String value = redisTemplate.opsForValue().get(ROOM_STATE_KEY_PREFIX + roomId);
+            if (Objects.nonNull(value)) {
+                String[] ids = value.split(SEPARATOR, -1);
+                return new RoomState(ids[0].isEmpty() ? null : ids[0], ids[1].isEmpty() ? null : ids[1]);
+            }
+        } catch (Exception e) {
+            log.error("Error when read chat state of room {}: {}", roomId, e.getMessage());
+            return loadRoomState(roomId);
+        }
+
+        RoomState state = loadRoomState(roomId);
+        saveRoomState(roomId, state);
+        return state;
+    }
+
+    private void saveRoomState(String roomId, RoomState state) {
+        String value = Objects.requireNonNullElse(state.orderId(), "")
+                + SEPARATOR
+                + Objects.requireNonNullElse(state.productId(), "");
+        try {
+            redisTemplate.opsForValue().set(ROOM_STATE_KEY_PREFIX + roomId, value, roomStateTtl);
+        } catch (Exception e) {
+            log.error("Error when save chat state of room {}: {}", roomId, e.getMessage());
+        }
+    }
+
+    private RoomState loadRoomState(String roomId) {
+        if (!roomRepository.existsById(roomId)) throw new AppException(ErrorCode.ROOM_NOT_FOUND);
+
+        return messageRepository.findTopByRoomIdWithValidProductOrOrder(roomId, PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .map(last -> new RoomState(
+                        Objects.isNull(last.getOrder()) ? null : last.getOrder().getId(),
+                        Objects.isNull(last.getProduct())
+                                ? null
+                                : last.getProduct().getId()))
+                .orElse(new RoomState(null, null));
+    }
+
+    // Returns the rows that could not be handled at all because the database is unavailable
+    private List<PendingMessage> write(List<PendingMessage> batch) {
+        long startedAt = System.nanoTime();
+        List<PendingMessage> written = batch;
+        try {
+            jdbcTemplate.batchUpdate(
+                    INSERT_MESSAGE, batch.stream().map(this::insertArgs).toList());
+        } catch (DataAccessException e) {
+            if (isUnavailable(e)) {
+                log.error("Error when insert {} chat messages, keeping them: {}", batch.size(), e.getMessage());
+                return batch;
+            }
+
+            // One bad row fails the whole batch, fall back to single inserts and dead letter the rows that fail
+            log.error("Error when insert {} chat messages, retrying one by one: {}", batch.size(), e.getMessage());
+            written = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                PendingMessage pending = batch.get(i);
+                try {
+                    jdbcTemplate.update(INSERT_MESSAGE, insertArgs(pending));
+                    written.add(pending);
+                } catch (DataAccessException single) {
+                    if (isUnavailable(single) || !deadLetter(pending, single)) {
+                        updateRooms(written);
+                        return new ArrayList<>(batch.subList(i, batch.size()));
+                    }
+                }
+            }
+        }
+
+        updateRooms(written);
+        log.debug(
+                "Flushed {} chat messages in {} ms, {} pending",
+                written.size(),
+                (System.nanoTime() - startedAt) / 1_000_000,
+                queue.size());
+        return List.of();
+    }
+
+    private boolean deadLetter(PendingMessage pending, DataAccessException cause) {
+        String error =
+                Objects.requireNonNullElse(cause.getMessage(), cause.getClass().getName());
+        try {
+            jdbcTemplate.update(
+                    INSERT_DEAD_LETTER,
+                    pending.id(),
+                    pending.content(),
+                    pending.roomId(),
+                    pending.senderId(),
+                    pending.orderId(),
+                    pending.productId(),
+                    Timestamp.from(pending.sentAt()),
+                    error.substring(0, Math.min(error.length(), 1000)));
+            log.error("Dead lettered chat message {} of room {}: {}", pending.id(), pending.roomId(), error);
+            return true;
+        } catch (DataAccessException e) {
+            log.error("Error when dead letter chat message {}: {}", pending.id(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void updateRooms(List<PendingMessage> written) {
+        if (written.isEmpty()) return;
+
+        // Last message of each room wins, one update per room for the whole batch
+        Map<String, PendingMessage> lastByRoom = new LinkedHashMap<>();
+        written.forEach(pending -> lastByRoom.put(pending.roomId(), pending));
+        try {
+            jdbcTemplate.batchUpdate(
+                    UPDATE_ROOM,
+                    lastByRoom.values().stream()
+                            .map(pending -> new Object[] {pending.content(), pending.roomId()})
+                            .toList());
+        } catch (DataAccessException e) {
+            log.error("Error when update last message of {} rooms: {}", lastByRoom.size(), e.getMessage());
+        }
+    }
+
+    private boolean isUnavailable(DataAccessException e) {
+        return e instanceof TransientDataAccessException || e instanceof DataAccessResourceFailureException;
+    }
+
+    private Object[] insertArgs(PendingMessage pending) {
+        return new Object[] {
+            pending.id(),
+            pending.content(),
+            pending.roomId(),
+            pending.senderId(),
+            pending.orderId(),
+            pending.productId()
+        };
+    }
+}
@@ -5,10 +5,10 @@ import java.time.Instant;
 import java.util.Objects;
 import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.hkteam.ecommerce_platform.dto.request.ChatMessageRequest;
 import com.hkteam.ecommerce_platform.dto.request.CreateRoomRequest;
@@ -31,6 +31,7 @@ import com.hkteam.ecommerce_platform.util.PageUtils;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -38,6 +39,8 @@ import lombok.extern.slf4j.Slf4j;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @Slf4j
 public class ChatService {
+    static final String WRITE_BEHIND = "write-behind";
+
     MessageRepository messageRepository;
     RoomRepository roomRepository;
     AuthenticatedUserUtil authenticatedUserUtil;
@@ -45,21 +48,51 @@ public class ChatService {
     StoreRepository storeRepository;
     OrderRepository orderRepository;
     ProductRepository productRepository;
+    ChatMessageWriter chatMessageWriter;
 
-    public PaginationResponse<RoomResponse> getRoomsCommon(String page, String size, boolean isStore) {
-        Sort sort = Sort.by(Sort.Order.desc("lastUpdatedAt"));
-        var pagination = PageUtils.createPageable(page, size, sort);
+    @NonFinal
+    @Value("${chat.persistence-mode:sync}")
+    String persistenceMode;
 
+    public PaginationResponse<RoomResponse> getRoomsCommon(String page, String size, String before, boolean isStore) {
         var user = authenticatedUserUtil.getAuthenticatedUser();
+        Store store = isStore
+                ? Optional.ofNullable(user.getStore()).orElseThrow(() -> new AppException(ErrorCode.STORE_NOT_FOUND))
+                : null;
+
+        if (Objects.nonNull(before) && !before.isEmpty()) {
+            var cursor = PageUtils.decodeCursor(before);
+            int sizeInt = PageUtils.validateAndConvertPageAndSize("1", size)[1];
+            // One extra row tells whether there is a next page without counting
+            var limit = PageRequest.of(0, sizeInt + 1);
+            var rooms = isStore
+                    ? roomRepository.findByStoreBefore(store, cursor.at(), cursor.id(), limit)
+                    : roomRepository.findByUserBefore(user, cursor.at(), cursor.id(), limit);
+
+            boolean hasNext = rooms.size() > sizeInt;
+            var content = hasNext ? rooms.subList(0, sizeInt) : rooms;
+            return PaginationResponse.<RoomResponse>builder()
+                    .pageSize(sizeInt)
+                    .hasNext(hasNext)
+                    .hasPrevious(true)
+                    .nextCursor(
+                            hasNext
+                                    ? PageUtils.encodeCursor(
+                                            content.getLast().getLastUpdatedAt(),
+                                            content.getLast().getId())
+                                    : null)
+                    .data(content.stream().map(this::toRoomResponse).toList())
+                    .build();
+        }
+
+        Sort sort = Sort.by(Sort.Order.desc("lastUpdatedAt"), Sort.Order.desc("id"));
+        var pagination = PageUtils.createPageable(page, size, sort);
 
-        var pageData = isStore
-                ? roomRepository.findByStore(
-                        Optional.ofNullable(user.getStore())
-                                .orElseThrow(() -> new AppException(ErrorCode.STORE_NOT_FOUND)),
-                        pagination)
-                : roomRepository.findByUser(user, pagination);
+        var pageData =
+                isStore ? roomRepository.findByStore(store, pagination) : roomRepository.findByUser(user, pagination);
 
         int pageInt = Integer.parseInt(page);
+        var content = pageData.getContent();
 
         return PaginationResponse.<RoomResponse>builder()
                 .currentPage(pageInt)
@@ -70,33 +103,41 @@ public class ChatService {
                 .hasPrevious(pageData.hasPrevious())
                 .nextPage(pageData.hasNext() ? pageInt + 1 : null)
                 .previousPage(pageData.hasPrevious() ? pageInt - 1 : null)
-                .data(pageData.getContent().stream()
-                        .map(room -> RoomResponse.builder()
-                                .id(room.getId())
-                                .storeId(room.getStore().getId())
-                                .storeName(room.getStore().getName())
-                                .storeImageUrl(room.getStore().getUser().getImageUrl())
-                                .userId(room.getUser().getId())
-                                .userName(room.getUser().getName())
-                                .userImageUrl(room.getUser().getImageUrl())
-                                .createdAt(Timestamp.from(room.getCreatedAt()))
-                                .updatedAt(Timestamp.from(room.getLastUpdatedAt()))
-                                .lastMessage(room.getLastMessage())
-                                .lastTimeMessage(
-                                        room.getLastTimeMessage() != null
-                                                ? room.getLastTimeMessage().toString()
-                                                : null)
-                                .build())
-                        .toList())
+                .nextCursor(
+                        pageData.hasNext()
+                                ? PageUtils.encodeCursor(
+                                        content.getLast().getLastUpdatedAt(),
+                                        content.getLast().getId())
+                                : null)
+                .data(content.stream().map(this::toRoomResponse).toList())
                 .build();
     }
 
-    public PaginationResponse<RoomResponse> getRooms(String page, String size) {
-        return getRoomsCommon(page, size, false);
+    private RoomResponse toRoomResponse(Room room) {
+        return RoomResponse.builder()
+                .id(room.getId())
+                .storeId(room.getStore().getId())
+                .storeName(room.getStore().getName())
+                .storeImageUrl(room.getStore().getUser().getImageUrl())
+                .userId(room.getUser().getId())
+                .userName(room.getUser().getName())
+                .userImageUrl(room.getUser().getImageUrl())
+                .createdAt(Timestamp.from(room.getCreatedAt()))
+                .updatedAt(Timestamp.from(room.getLastUpdatedAt()))
+                .lastMessage(room.getLastMessage())
+                .lastTimeMessage(
+                        room.getLastTimeMessage() != null
+                                ? room.getLastTimeMessage().toString()
+                                : null)
+                .build();
+    }
+
+    public PaginationResponse<RoomResponse> getRooms(String page, String size, String before) {
+        return getRoomsCommon(page, size, before, false);
     }
 
-    public PaginationResponse<RoomResponse> getRoomInStore(String page, String size) {
-        return getRoomsCommon(page, size, true);
+    public PaginationResponse<RoomResponse> getRoomInStore(String page, String size, String before) {
+        return getRoomsCommon(page, size, before, true);
     }
 
     public CreateRoomResponse createRoom(CreateRoomRequest request) {
@@ -135,7 +176,7 @@ public class ChatService {
     }
 
     public PaginationResponse<ChatMessageResponse> getChatMessages(
-            String roomId, String page, String size, boolean isStore) {
+            String roomId, String page, String size, String before, boolean isStore) {
         var room = roomRepository.findById(roomId).orElseThrow(() -> new AppException(ErrorCode.ROOM_NOT_FOUND));
 
         if (isStore) {
@@ -149,14 +190,38 @@ public class ChatService {
         } else {
             if (!room.getUser()
                     .getId()
-                    .equals(authenticatedUserUtil.getAuthenticatedUser().getId())) {
+                    .equals(authenticatedUserUtil.getAuthenticatedUserSummary().id())) {
                 throw new AppException(ErrorCode.UNAUTHORIZED);
             }
         }
 
-        Sort sort = Sort.by(Sort.Order.desc("lastUpdatedAt"));
+        if (Objects.nonNull(before) && !before.isEmpty()) {
+            var cursor = PageUtils.decodeCursor(before);
+            int sizeInt = PageUtils.validateAndConvertPageAndSize("1", size)[1];
+            // One extra row tells whether there is a next page without counting
+            var messages = messageRepository.findByRoomIdBefore(
+                    room.getId(), cursor.at(), cursor.id(), PageRequest.of(0, sizeInt + 1));
+
+            boolean hasNext = messages.size() > sizeInt;
+            var content = hasNext ? messages.subList(0, sizeInt) : messages;
+            return PaginationResponse.<ChatMessageResponse>builder()
+                    .pageSize(sizeInt)
+                    .hasNext(hasNext)
+                    .hasPrevious(true)
+                    .nextCursor(
+                            hasNext
+                                    ? PageUtils.encodeCursor(
+                                            content.getLast().getCreatedAt(),
+                                            content.getLast().getId())
+                                    : null)
+                    .data(content.stream().map(this::toChatMessageResponse).toList())
+                    .build();
+        }
+
+        Sort sort = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
         var pagination = PageUtils.createPageable(page, size, sort);
         var pageData = messageRepository.findByRoomId(room.getId(), pagination);
+        var content = pageData.getContent();
 
         return PaginationResponse.<ChatMessageResponse>builder()
                 .currentPage(Integer.parseInt(page))
@@ -167,32 +232,35 @@ public class ChatService {
                 .hasPrevious(pageData.hasPrevious())
                 .nextPage(pageData.hasNext() ? Integer.parseInt(page) + 1 : null)
                 .previousPage(pageData.hasPrevious() ? Integer.parseInt(page) - 1 : null)
-                .data(pageData.getContent().stream()
-                        .map(message -> ChatMessageResponse.builder()
-                                .id(message.getId())
-                                .content(message.getContent())
-                                .orderId(
-                                        message.getOrder() != null
-                                                ? message.getOrder().getId()
-                                                : null)
-                                .productId(
-                                        message.getProduct() != null
-                                                ? message.getProduct().getId()
-                                                : null)
-                                .senderId(message.getSender().getId())
-                                .createdAt(
-                                        Timestamp.from(message.getCreatedAt()).toString())
-                                .build())
-                        .toList())
+                .nextCursor(
+                        pageData.hasNext()
+                                ? PageUtils.encodeCursor(
+                                        content.getLast().getCreatedAt(),
+                                        content.getLast().getId())
+                                : null)
+                .data(content.stream().map(this::toChatMessageResponse).toList())
                 .build();
     }
 
-    public PaginationResponse<ChatMessageResponse> getChatHistory(String roomId, String page, String size) {
-        return getChatMessages(roomId, page, size, false);
+    private ChatMessageResponse toChatMessageResponse(Message message) {
+        return ChatMessageResponse.builder()
+                .id(message.getId())
+                .content(message.getContent())
+                .orderId(message.getOrder() != null ? message.getOrder().getId() : null)
+                .productId(message.getProduct() != null ? message.getProduct().getId() : null)
+                .senderId(message.getSender().getId())
+                .createdAt(Timestamp.from(message.getCreatedAt()).toString())
+                .build();
+    }
+
+    public PaginationResponse<ChatMessageResponse> getChatHistory(
+            String roomId, String page, String size, String before) {
+        return getChatMessages(roomId, page, size, before, false);
     }
 
-    public PaginationResponse<ChatMessageResponse> getChatInStore(String roomId, String page, String size) {
-        return getChatMessages(roomId, page, size, true);
+    public PaginationResponse<ChatMessageResponse> getChatInStore(
+            String roomId, String page, String size, String before) {
+        return getChatMessages(roomId, page, size, before, true);
     }
 
     public ChatMessageResponse saveMessage(String roomId, ChatMessageRequest message, User user) {
@@ -201,6 +269,19 @@ public class ChatService {
             throw new AppException(ErrorCode.MESSAGE_EMPTY);
         }
 
+        if (WRITE_BEHIND.equals(persistenceMode)) {
+            return chatMessageWriter.enqueue(
+                    roomId,
+                    message.getContent(),
+                    Optional.ofNullable(message.getOrderId())
+                            .filter(id -> !id.isEmpty())
+                            .orElse(null),
+                    Optional.ofNullable(message.getProductId())
+                            .filter(id -> !id.isEmpty())
+                            .orElse(null),
+                    user.getId());
+        }
+
         Order order = null;
         Product product = null;
 
@@ -236,7 +317,7 @@ public class ChatService {
             }
         }
 
-        var msg = messageRepository.save(Message.builder()
+        var rs = messageRepository.save(Message.builder()
                 .room(room)
                 .content(message.getContent())
                 .sender(user)
@@ -244,7 +325,6 @@ public class ChatService {
                 .product(product)
                 .build());
 
-        var rs = messageRepository.save(msg);
         room.setLastMessage(message.getContent());
         room.setLastTimeMessage(Timestamp.from(Instant.now()));
         roomRepository.save(room);
@@ -258,12 +338,4 @@ public class ChatService {
                 .productId(rs.getProduct() != null ? rs.getProduct().getId() : null)
                 .build();
     }
-
-    @Transactional
-    public void updateUserOnlineStatus(String userId, boolean isOnline) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
-        user.setOnline(isOnline);
-        userRepository.save(user);
-        log.info("Updated user {} online status to {}", userId, isOnline);
-    }
 }
@@ -1,8 +1,10 @@
 package com.hkteam.ecommerce_platform.service;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -13,6 +15,7 @@ import com.hkteam.ecommerce_platform.exception.ErrorCode;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -23,10 +26,19 @@ public class CloudinaryService {
     Cloudinary cloudinary;
 
     private static final String FOLDER = "folder";
+    private static final String TIMEOUT = "timeout";
+
+    @NonFinal
+    @Value("${media-upload.timeout:60000}")
+    int uploadTimeout;
+
+    @NonFinal
+    @Value("${video-upload.cloudinary-chunk-size:20971520}")
+    int videoChunkSize;
 
     public Map<String, Object> uploadImage(MultipartFile file, String folder) {
         try {
-            Map<String, Object> options = Map.of(FOLDER, folder);
+            Map<String, Object> options = Map.of(FOLDER, folder, TIMEOUT, uploadTimeout);
 
             @SuppressWarnings("unchecked")
             Map<String, Object> upload = cloudinary.uploader().upload(file.getBytes(), options);
@@ -38,7 +50,7 @@ public class CloudinaryService {
 
     public Map<String, Object> uploadImage(byte[] file, String folder) {
         try {
-            Map<String, Object> options = Map.of(FOLDER, folder);
+            Map<String, Object> options = Map.of(FOLDER, folder, TIMEOUT, uploadTimeout);
 
             @SuppressWarnings("unchecked")
             Map<String, Object> upload = cloudinary.uploader().upload(file, options);
@@ -48,9 +60,9 @@ public class CloudinaryService {
         }
     }
 
-    public Map<String, Object> uploadVideo(byte[] file, String folder) {
+    public Map<String, Object> uploadImage(File file, String folder) {
         try {
-            Map<String, Object> options = Map.of("resource_type", "video", FOLDER, folder);
+            Map<String, Object> options = Map.of(FOLDER, folder, TIMEOUT, uploadTimeout);
 
             @SuppressWarnings("unchecked")
             Map<String, Object> upload = cloudinary.uploader().upload(file, options);
@@ -60,6 +72,19 @@ public class CloudinaryService {
         }
     }
 
+    public Map<String, Object> uploadLargeVideo(File file, String folder) {
+        try {
+            Map<String, Object> options = Map.of("resource_type", "video", FOLDER, folder, TIMEOUT, uploadTimeout);
+
+            // Sent to cloudinary in parts read from disk, the whole video is never held in memory
+            @SuppressWarnings("unchecked")
+            Map<String, Object> upload = cloudinary.uploader().uploadLarge(file, options, videoChunkSize);
+            return upload;
+        } catch (IOException io) {
+            throw new AppException(ErrorCode.UPLOAD_FILE_FAILED);
+        }
+    }
+
     public void deleteImage(String imageUrl) throws IOException {
         log.info("Attempting to delete image with URL: {}", imageUrl);
         String publicId = extractPublicId(imageUrl);
@@ -3,28 +3,38 @@ package com.hkteam.ecommerce_platform.service;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
+import com.hkteam.ecommerce_platform.dto.response.FacetBucketResponse;
 import com.hkteam.ecommerce_platform.dto.response.PaginationResponse;
 import com.hkteam.ecommerce_platform.dto.response.ProductResponse;
 import com.hkteam.ecommerce_platform.entity.elasticsearch.ProductElasticsearch;
+import com.hkteam.ecommerce_platform.exception.AppException;
+import com.hkteam.ecommerce_platform.exception.ErrorCode;
 import com.hkteam.ecommerce_platform.mapper.ProductMapper;
 import com.hkteam.ecommerce_platform.util.ESUtils;
 import com.hkteam.ecommerce_platform.util.PageUtils;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.FieldSort;
+import co.elastic.clients.elasticsearch._types.FieldValue;
 import co.elastic.clients.elasticsearch._types.SortOptions;
 import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.CompletionContext;
+import co.elastic.clients.elasticsearch.core.search.CompletionSuggestOption;
 import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.Suggestion;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -38,6 +48,8 @@ public class ElasticSearchService {
     private final ProductMapper productMapper;
     static final Set<String> ALLOWED_SORT_FIELDS = Set.of("salePrice", "originalPrice", "rating", "createdAt");
     static final Set<String> ALLOWED_SORT_ORDERS = Set.of("asc", "desc");
+    static final int MAX_RESULT_WINDOW = 10000;
+    static final String PRODUCT_SUGGESTER = "product-suggest";
     ElasticsearchClient elasticsearchClient;
 
     public PaginationResponse<ProductResponse> getAllProducts(
@@ -51,7 +63,9 @@ public class ElasticSearchService {
             String search,
             BigDecimal minPrice,
             BigDecimal maxPrice,
-            int minRate) {
+            int minRate,
+            boolean facets,
+            String cursor) {
 
         int[] pageAndSize = PageUtils.validateAndConvertPageAndSize(page, limit);
         int pageInt = pageAndSize[0];
@@ -72,15 +86,41 @@ public class ElasticSearchService {
             sortOptions.add(SortOptions.of(s -> s.field(fieldSort)));
         }
 
+        String sortKey = sortOptions.isEmpty() ? "_score" : sortBy + ":" + order.toLowerCase();
+        if (sortOptions.isEmpty()) {
+            sortOptions.add(SortOptions.of(s -> s.score(sc -> sc.order(SortOrder.Desc))));
+        }
+        // The id tiebreaker gives every hit a unique sort position for search_after.
+        sortOptions.add(SortOptions.of(s -> s.field(f -> f.field("id").order(SortOrder.Asc))));
+
         Supplier<Query> supplier = ESUtils.createSupplierSearchProducts(
                 categoryIds, brandIds, storeId, search, minPrice, maxPrice, minRate);
+        String cursorScope = ESUtils.createCursorScope(supplier.get());
+
+        List<FieldValue> searchAfter =
+                Objects.isNull(cursor) ? null : ESUtils.decodeCursor(cursor, sortKey, cursorScope);
+        if (Objects.isNull(searchAfter) && fromInt + sizeInt > MAX_RESULT_WINDOW) {
+            throw new AppException(ErrorCode.SEARCH_PAGE_TOO_DEEP);
+        }
+
+        Map<String, Query> facetFilters =
+                ESUtils.createFacetFilters(categoryIds, brandIds, minPrice, maxPrice, minRate);
         try {
             SearchResponse<ProductElasticsearch> searchResponse = elasticsearchClient.search(
-                    s -> s.index("products")
-                            .query(supplier.get())
-                            .from(fromInt)
-                            .size(sizeInt)
-                            .sort(sortOptions),
+                    s -> {
+                        s.index("products").size(sizeInt).sort(sortOptions);
+                        if (Objects.isNull(searchAfter)) s.from(fromInt);
+                        else s.searchAfter(searchAfter);
+                        if (!facets) return s.query(supplier.get());
+
+                        // Facet selections move to post_filter so the aggregations see the unfiltered hits.
+                        s.query(q -> q.bool(ESUtils.createBaseSearchProducts(storeId, search)))
+                                .aggregations(ESUtils.createFacetAggregations(facetFilters));
+                        if (!facetFilters.isEmpty()) {
+                            s.postFilter(q -> q.bool(b -> b.filter(new ArrayList<>(facetFilters.values()))));
+                        }
+                        return s;
+                    },
                     ProductElasticsearch.class);
 
             log.info("es search query {}", supplier.get().toString());
@@ -95,10 +135,27 @@ public class ElasticSearchService {
             List<ProductResponse> productResponses =
                     productList.stream().map(productMapper::toProductResponse).collect(Collectors.toList());
 
-            // Tính toán các thông tin phân trang
             long totalElements = searchResponse.hits().total().value(); // Tổng số bản ghi
+            String nextCursor = hitList.size() == sizeInt
+                    ? ESUtils.encodeCursor(
+                            sortKey, cursorScope, hitList.getLast().sort())
+                    : null;
+
+            // A cursor page has no page number, only the position after the last hit
+            if (Objects.nonNull(searchAfter)) {
+                return PaginationResponse.<ProductResponse>builder()
+                        .pageSize(sizeInt)
+                        .totalElements(totalElements)
+                        .hasNext(Objects.nonNull(nextCursor))
+                        .data(productResponses)
+                        .facets(facets ? toFacetResponses(searchResponse.aggregations()) : null)
+                        .nextCursor(nextCursor)
+                        .build();
+            }
+
+            // Tính toán các thông tin phân trang
             int totalPages = (int) Math.ceil((double) totalElements / sizeInt); // Tổng số trang
-            boolean hasNext = pageInt < totalPages; // Có trang tiếp theo không
+            boolean hasNext = pageInt < totalPages;
             boolean hasPrevious = pageInt > 1;
 
             return PaginationResponse.<ProductResponse>builder()
@@ -111,6 +168,8 @@ public class ElasticSearchService {
                     .nextPage(hasNext ? pageInt + 1 : null)
                     .previousPage(hasPrevious ? pageInt - 1 : null)
                     .data(productResponses)
+                    .facets(facets ? toFacetResponses(searchResponse.aggregations()) : null)
+                    .nextCursor(nextCursor)
                     .build();
         } catch (Exception e) {
             log.error("Failed to parse Elasticsearch response: ", e);
@@ -119,31 +178,88 @@ public class ElasticSearchService {
         return null;
     }
 
-    public List<String> autoSuggestionProduct(String search) throws IOException {
-        Supplier<Query> supplier = ESUtils.createSupplierAutoSuggest(search);
-        Set<String> uniqueProductNames = new HashSet<>(); // Sử dụng Set để loại bỏ trùng lặp
+    public List<String> autoSuggestionProduct(String search, Long categoryId, String storeId) throws IOException {
+        List<String> suggestions = new ArrayList<>();
+        if (search.isBlank()) return suggestions;
+
+        String scope = ESUtils.createSuggestScope(categoryId, storeId);
         try {
             SearchResponse<ProductElasticsearch> searchResponse = elasticsearchClient.search(
-                    s -> s.index("products").query(supplier.get()).from(0).size(10), ProductElasticsearch.class);
-
-            log.info("es auto suggest query {}", supplier.get().toString());
-
-            List<Hit<ProductElasticsearch>> hitList = searchResponse.hits().hits();
-            List<ProductElasticsearch> productList = new ArrayList<>();
-
-            for (Hit<ProductElasticsearch> hit : hitList) {
-                productList.add(hit.source());
-            }
+                    s -> s.index("products")
+                            .source(src -> src.fetch(false))
+                            .suggest(sg -> sg.suggesters(PRODUCT_SUGGESTER, fs -> fs.prefix(search)
+                                    .completion(c -> c.field(ESUtils.SUGGEST_FIELD)
+                                            .size(10)
+                                            .skipDuplicates(true)
+                                            .fuzzy(f -> f.fuzziness("AUTO"))
+                                            .contexts(
+                                                    ESUtils.SUGGEST_CONTEXT,
+                                                    List.of(CompletionContext.of(
+                                                            cc -> cc.context(ctx -> ctx.category(scope)))))))),
+                    ProductElasticsearch.class);
 
-            for (ProductElasticsearch product : productList) {
-                uniqueProductNames.add(product.getName()); // Thêm vào Set để loại bỏ trùng lặp
-            }
+            searchResponse.suggest().getOrDefault(PRODUCT_SUGGESTER, List.of()).stream()
+                    .filter(Suggestion::isCompletion)
+                    .flatMap(suggestion -> suggestion.completion().options().stream())
+                    .map(CompletionSuggestOption::text)
+                    .forEach(suggestions::add);
 
         } catch (Exception e) {
             log.error("Failed to parse Elasticsearch response: ", e);
             log.error("Response content: {}", e.getMessage());
         }
 
-        return new ArrayList<>(uniqueProductNames); // Chuyển đổi Set trở lại List
+        return suggestions;
+    }
+
+    private Map<String, List<FacetBucketResponse>> toFacetResponses(Map<String, Aggregate> aggregations) {
+        Map<String, List<FacetBucketResponse>> facets = new LinkedHashMap<>();
+
+        aggregations.forEach((facet, aggregate) -> {
+            Aggregate buckets = aggregate.filter().aggregations().get(ESUtils.FACET_BUCKETS);
+            List<FacetBucketResponse> responses = new ArrayList<>();
+
+            if (buckets.isSterms()) {
+                buckets.sterms()
+                        .buckets()
+                        .array()
+                        .forEach(bucket -> responses.add(FacetBucketResponse.builder()
+                                .key(bucket.key().stringValue())
+                                .count(bucket.docCount())
+                                .build()));
+            } else if (buckets.isLterms()) {
+                buckets.lterms()
+                        .buckets()
+                        .array()
+                        .forEach(bucket -> responses.add(FacetBucketResponse.builder()
+                                .key(String.valueOf(bucket.key()))
+                                .count(bucket.docCount())
+                                .build()));
+            } else if (buckets.isRange()) {
+                buckets.range()
+                        .buckets()
+                        .array()
+                        .forEach(bucket -> responses.add(FacetBucketResponse.builder()
+                                .key(bucket.key())
+                                .from(bucket.from())
+                                .to(bucket.to())
+                                .count(bucket.docCount())
+                                .build()));
+            } else if (buckets.isHistogram()) {
+                buckets.histogram()
+                        .buckets()
+                        .array()
+                        .forEach(bucket -> responses.add(FacetBucketResponse.builder()
+                                .key(String.valueOf((int) bucket.key()))
+                                .from(bucket.key())
+                                .to(bucket.key() + 1)
+                                .count(bucket.docCount())
+                                .build()));
+            }
+
+            facets.put(facet, responses);
+        });
+
+        return facets;
     }
 }
@@ -0,0 +1,176 @@
+package com.hkteam.ecommerce_platform.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.hkteam.ecommerce_platform.dto.response.EsOutboxStatisticsResponse;
+import com.hkteam.ecommerce_platform.entity.outbox.EsOutbox;
+import com.hkteam.ecommerce_platform.entity.product.Product;
+import com.hkteam.ecommerce_platform.repository.EsOutboxRepository;
+import com.hkteam.ecommerce_platform.repository.ProductRepository;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class EsOutboxService {
+    public static final String FIELD_QUANTITY = "quantity";
+    public static final String FIELD_SOLD = "sold";
+
+    static final String PRODUCT_INDEX = "products";
+    static final int MAX_ATTEMPTS = 10;
+    static final long MAX_BACKOFF_SECONDS = 300;
+
+    EsOutboxRepository esOutboxRepository;
+    ProductRepository productRepository;
+    ElasticsearchClient elasticsearchClient;
+
+    @NonFinal
+    @Value("${es-outbox.batch-size:200}")
+    int batchSize;
+
+    @NonFinal
+    @Value("${es-outbox.lease:60s}")
+    Duration lease;
+
+    @NonFinal
+    @Value("${es-outbox.lag-warning-seconds:60}")
+    long lagWarningSeconds;
+
+    public void enqueue(String productId, String... fields) {
+        esOutboxRepository.save(EsOutbox.builder()
+                .productId(productId)
+                .changedFields(String.join(",", fields))
+                .nextAttemptAt(Instant.now())
+                .build());
+    }
+
+    // Parked entries are included: the products they name are still stale in es
+    public Duration getLag() {
+        Instant oldest = esOutboxRepository.findOldestCreatedAt();
+        return Objects.isNull(oldest) ? Duration.ZERO : Duration.between(oldest, Instant.now());
+    }
+
+    public EsOutboxStatisticsResponse getStatistics() {
+        return EsOutboxStatisticsResponse.builder()
+                .pendingEntries(esOutboxRepository.countByParkedAtIsNull())
+                .parkedEntries(esOutboxRepository.countByParkedAtIsNotNull())
+                .lagSeconds(getLag().getSeconds())
+                .build();
+    }
+
+    public int replayParked() {
+        int replayed = esOutboxRepository.unparkAll(Instant.now());
+        log.info("Replayed {} parked es outbox entries", replayed);
+        return replayed;
+    }
+
+    // Runs outside a transaction so no row lock or connection is held during the es call, a relay that dies after
+    // the claim leaves its entries to be picked up again once the lease is over
+    @Scheduled(fixedDelayString = "${es-outbox.relay-delay:1000}")
+    public void relay() {
+        Instant now = Instant.now();
+        List<EsOutbox> batch = esOutboxRepository.claimNextBatch(now, now.plus(lease), batchSize);
+        if (batch.isEmpty()) return;
+
+        Map<String, Set<String>> changedFields = new LinkedHashMap<>();
+        batch.forEach(entry -> changedFields
+                .computeIfAbsent(entry.getProductId(), id -> new LinkedHashSet<>())
+                .addAll(Arrays.asList(entry.getChangedFields().split(","))));
+
+        Map<String, Product> products = productRepository.findAllById(changedFields.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        Set<String> failedProductIds = new HashSet<>();
+        BulkRequest.Builder bulk = new BulkRequest.Builder();
+        boolean hasOperations = false;
+
+        for (Map.Entry<String, Set<String>> change : changedFields.entrySet()) {
+            Product product = products.get(change.getKey());
+            if (Objects.isNull(product)) continue;
+
+            Map<String, Object> doc = new HashMap<>();
+            change.getValue().forEach(field -> {
+                if (FIELD_QUANTITY.equals(field)) doc.put(FIELD_QUANTITY, product.getQuantity());
+                if (FIELD_SOLD.equals(field)) doc.put(FIELD_SOLD, product.getSold());
+            });
+
+            bulk.operations(op -> op.<Object, Map<String, Object>>update(
+                    u -> u.index(PRODUCT_INDEX).id(product.getId()).action(a -> a.doc(doc))));
+            hasOperations = true;
+        }
+
+        if (hasOperations) {
+            try {
+                BulkResponse response = elasticsearchClient.bulk(bulk.build());
+                for (BulkResponseItem item : response.items()) {
+                    if (Objects.nonNull(item.error())) {
+                        if (item.status() == 404) {
+                            log.error("Product not found in elasticsearch: {}", item.id());
+                        } else {
+                            log.error(
+                                    "Error when relay product {} to es: {}",
+                                    item.id(),
+                                    item.error().reason());
+                            failedProductIds.add(item.id());
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("Error when relay es outbox: {}", e.getMessage());
+                failedProductIds.addAll(changedFields.keySet());
+            }
+        }
+
+        List<EsOutbox> done = new ArrayList<>();
+        List<EsOutbox> retry = new ArrayList<>();
+        for (EsOutbox entry : batch) {
+            if (!failedProductIds.contains(entry.getProductId())) {
+                done.add(entry);
+            } else if (entry.getAttempts() + 1 >= MAX_ATTEMPTS) {
+                log.error(
+                        "Park es outbox entry {} for product {} after {} attempts",
+                        entry.getId(),
+                        entry.getProductId(),
+                        MAX_ATTEMPTS);
+                entry.setAttempts(entry.getAttempts() + 1);
+                entry.setParkedAt(Instant.now());
+                retry.add(entry);
+            } else {
+                entry.setAttempts(entry.getAttempts() + 1);
+                entry.setNextAttemptAt(Instant.now().plusSeconds(backoffSeconds(entry.getAttempts())));
+                retry.add(entry);
+            }
+        }
+
+        esOutboxRepository.deleteAllInBatch(done);
+        esOutboxRepository.saveAll(retry);
+
+        Duration lag = getLag();
+        if (lag.getSeconds() > lagWarningSeconds) {
+            log.warn("Es outbox lag is {}s", lag.getSeconds());
+        }
+    }
+
+    private long backoffSeconds(int attempts) {
+        return Math.min(1L << attempts, MAX_BACKOFF_SECONDS);
+    }
+}
@@ -45,6 +45,7 @@ public class ExternalAuthService {
     ExternalAuthRepository externalAuthRepository;
     RoleRepository roleRepository;
     AuthenticationService authenticationService;
+    StatisticRollupService statisticRollupService;
 
     @NonFinal
     @Value("${outbound.google.client-id}")
@@ -130,6 +131,7 @@ public class ExternalAuthService {
                 log.info("Error: {}", e.getMessage());
                 throw new AppException(ErrorCode.UNKNOWN_ERROR);
             }
+            statisticRollupService.recordNewCustomer();
         }
 
         var user = userRepository
@@ -195,6 +197,7 @@ public class ExternalAuthService {
                     log.info("Error: {}", e.getMessage());
                     throw new AppException(ErrorCode.UNKNOWN_ERROR);
                 }
+                statisticRollupService.recordNewCustomer();
             }
 
             var user = userRepository
@@ -1,6 +1,5 @@
 package com.hkteam.ecommerce_platform.service;
 
-import java.io.IOException;
 import java.util.*;
 
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -47,6 +46,8 @@ public class ImageService {
     ProductImageRepository productImageRepository;
     ReviewRepository reviewRepository;
     ReviewImageRepository reviewImageRepository;
+    MediaSpoolService mediaSpoolService;
+    MediaUploadExecutor mediaUploadExecutor;
 
     RabbitTemplate rabbitTemplate;
 
@@ -300,7 +301,7 @@ public class ImageService {
             throw new AppException(ErrorCode.UNAUTHORIZED);
         }
         try {
-            addImageToQueue(productId, TypeImage.MAIN_IMAGE_OF_PRODUCT, convertImageToByteArray(image));
+            addImageToQueue(productId, TypeImage.MAIN_IMAGE_OF_PRODUCT, List.of(mediaSpoolService.spool(image)));
         } catch (Exception e) {
             log.error("Error when upload image: {}", e.getMessage());
             throw new AppException(ErrorCode.UNKNOWN_ERROR);
@@ -353,7 +354,7 @@ public class ImageService {
             throw new AppException(ErrorCode.UNAUTHORIZED);
 
         try {
-            addImageToQueue(productId, TypeImage.LIST_IMAGE_PRODUCT, convertImagesToByteArray(request.getImages()));
+            addImageToQueue(productId, TypeImage.LIST_IMAGE_PRODUCT, mediaSpoolService.spool(request.getImages()));
         } catch (Exception e) {
             log.error("Error when upload list image: {}", e.getMessage());
             throw new AppException(ErrorCode.UNKNOWN_ERROR);
@@ -418,37 +419,17 @@ public class ImageService {
         }
     }
 
-    private void addImageToQueue(String id, TypeImage type, byte[] image) {
-        rabbitTemplate.convertAndSend(
-                RabbitMQConfig.IMAGE_QUEUE,
-                ImageMessageRequest.builder()
-                        .id(id)
-                        .type(type)
-                        .image(List.of(image))
-                        .build());
-
-        log.error("Image sent to the queue for processing: {}", id);
-    }
-
-    private void addImageToQueue(String id, TypeImage type, List<byte[]> images) {
-        rabbitTemplate.convertAndSend(
-                RabbitMQConfig.IMAGE_QUEUE,
-                ImageMessageRequest.builder().id(id).type(type).image(images).build());
-
-        log.error("List image sent to the queue for processing: {}", id);
-    }
-
-    private byte[] convertImageToByteArray(MultipartFile file) throws IOException {
-        return file.getBytes();
-    }
-
-    private List<byte[]> convertImagesToByteArray(List<MultipartFile> files) throws IOException {
-        List<byte[]> byteArrayList = new ArrayList<>();
-        for (MultipartFile file : files) {
-            byte[] bytes = file.getBytes();
-            byteArrayList.add(bytes);
+    private void addImageToQueue(String id, TypeImage type, List<String> files) {
+        try {
+            rabbitTemplate.convertAndSend(
+                    RabbitMQConfig.IMAGE_QUEUE,
+                    ImageMessageRequest.builder().id(id).type(type).files(files).build());
+        } catch (RuntimeException e) {
+            files.forEach(mediaSpoolService::delete);
+            throw e;
         }
-        return byteArrayList;
+
+        log.info("Image sent to the queue for processing: {}", id);
     }
 
     @PreAuthorize("hasRole('USER')")
@@ -460,36 +441,44 @@ public class ImageService {
         var review =
                 reviewRepository.findById(longReviewId).orElseThrow(() -> new AppException(ErrorCode.REVIEW_NOT_FOUND));
 
-        List<ImageResponse> listImageResponse = request.getImages().stream()
-                .map(image -> {
-                    try {
-                        Map<String, Object> uploadResult = cloudinaryService.uploadImage(
-                                image, TypeImage.LIST_IMAGE_REVIEW.name().toLowerCase());
-
-                        if (uploadResult.get("url") == null) {
-                            throw new AppException(ErrorCode.UPLOAD_FILE_FAILED);
-                        }
-
-                        ReviewImage reviewImage = ReviewImage.builder()
-                                .url(uploadResult.get("url").toString())
-                                .review(review)
-                                .build();
-                        reviewImageRepository.save(reviewImage);
-
-                        return ImageResponse.builder()
-                                .format((String) uploadResult.get("format"))
-                                .secureUrl((String) uploadResult.get("secure_url"))
-                                .createdAt((String) uploadResult.get("created_at"))
-                                .url((String) uploadResult.get("url"))
-                                .bytes((Integer) uploadResult.get("bytes"))
-                                .width((Integer) uploadResult.get("width"))
-                                .height((Integer) uploadResult.get("height"))
-                                .build();
-                    } catch (Exception e) {
-                        log.error("Error while uploading review image: {}", e.getMessage());
-                        throw new AppException(ErrorCode.UPLOAD_FILE_FAILED);
-                    }
-                })
+        List<Map<String, Object>> uploadResults = mediaUploadExecutor.uploadAll(
+                request.getImages(),
+                image -> cloudinaryService.uploadImage(
+                        image, TypeImage.LIST_IMAGE_REVIEW.name().toLowerCase()));
+
+        List<String> uploadedUrls = uploadResults.stream()
+                .filter(uploadResult -> Objects.nonNull(uploadResult) && Objects.nonNull(uploadResult.get("url")))
+                .map(uploadResult -> uploadResult.get("url").toString())
+                .toList();
+
+        if (uploadedUrls.size() < uploadResults.size()) {
+            log.error("Error while uploading review images for review {}", reviewId);
+            if (!uploadedUrls.isEmpty()) {
+                rabbitTemplate.convertAndSend(
+                        RabbitMQConfig.DELETE_IMAGE_QUEUE,
+                        DeleteImageRequest.builder()
+                                .id(reviewId)
+                                .typeImage(TypeImage.LIST_IMAGE_REVIEW)
+                                .url(uploadedUrls)
+                                .build());
+            }
+            throw new AppException(ErrorCode.UPLOAD_FILE_FAILED);
+        }
+
+        reviewImageRepository.saveAll(uploadedUrls.stream()
+                .map(url -> ReviewImage.builder().url(url).review(review).build())
+                .toList());
+
+        List<ImageResponse> listImageResponse = uploadResults.stream()
+                .map(uploadResult -> ImageResponse.builder()
+                        .format((String) uploadResult.get("format"))
+                        .secureUrl((String) uploadResult.get("secure_url"))
+                        .createdAt((String) uploadResult.get("created_at"))
+                        .url((String) uploadResult.get("url"))
+                        .bytes((Integer) uploadResult.get("bytes"))
+                        .width((Integer) uploadResult.get("width"))
+                        .height((Integer) uploadResult.get("height"))
+                        .build())
                 .toList();
 
         return ReviewListImageUploadResponse.builder().images(listImageResponse).build();
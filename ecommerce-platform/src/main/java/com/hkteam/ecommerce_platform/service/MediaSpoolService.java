@@ -0,0 +1,170 @@
+package com.hkteam.ecommerce_platform.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.hkteam.ecommerce_platform.exception.AppException;
+import com.hkteam.ecommerce_platform.exception.ErrorCode;
+import com.hkteam.ecommerce_platform.rabbitmq.RabbitMQConfig;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class MediaSpoolService {
+    static final String SPOOL_SUFFIX = ".spool";
+
+    Environment environment;
+
+    @NonFinal
+    @Value("${media-spool.directory:}")
+    String directory;
+
+    @NonFinal
+    @Value("${media-spool.single-node:false}")
+    boolean singleNode;
+
+    @NonFinal
+    @Value("${media-spool.max-age:4d}")
+    Duration maxAge;
+
+    @NonFinal
+    Path root;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = resolveRoot().toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        validateMaxAge();
+    }
+
+    // Image consumers on any node read the files this node spools, a node local default would make them fail
+    private Path resolveRoot() {
+        if (StringUtils.hasText(directory)) return Path.of(directory);
+        if (!singleNode) {
+            throw new IllegalStateException("media-spool.directory must point at storage shared by every node running"
+                    + " image consumers, or set media-spool.single-node=true");
+        }
+        return Path.of(System.getProperty("java.io.tmpdir"), "ecommerce-media-spool");
+    }
+
+    // A file must outlive every delivery of its message: the retries and the stay in the parking lot
+    private void validateMaxAge() {
+        RabbitMQConfig.ListenerSpec spec = RabbitMQConfig.listenerSpec(environment, RabbitMQConfig.IMAGE_QUEUE);
+        if (Objects.isNull(spec.parkingLotTtl())) {
+            throw new IllegalStateException("rabbitmq.listeners." + RabbitMQConfig.IMAGE_QUEUE
+                    + ".parking-lot-ttl must be set, parked image messages would outlive their spool files");
+        }
+
+        Duration retention = spec.retryDelay().multipliedBy(spec.maxRetries()).plus(spec.parkingLotTtl());
+        if (maxAge.compareTo(retention) <= 0) {
+            throw new IllegalStateException("media-spool.max-age " + maxAge + " must be longer than the "
+                    + RabbitMQConfig.IMAGE_QUEUE + " retries and parking lot retention " + retention);
+        }
+    }
+
+    public String spool(MultipartFile file) {
+        String reference = UUID.randomUUID() + SPOOL_SUFFIX;
+        try {
+            // Disk backed multipart parts are moved, small in-memory parts are streamed out
+            file.transferTo(root.resolve(reference));
+            return reference;
+        } catch (IOException e) {
+            log.error("Error when spool file {}: {}", file.getOriginalFilename(), e.getMessage());
+            throw new AppException(ErrorCode.UPLOAD_FILE_FAILED);
+        }
+    }
+
+    public String create() {
+        String reference = UUID.randomUUID() + SPOOL_SUFFIX;
+        try {
+            Files.createFile(root.resolve(reference));
+            return reference;
+        } catch (IOException e) {
+            log.error("Error when create spool file: {}", e.getMessage());
+            throw new AppException(ErrorCode.UPLOAD_FILE_FAILED);
+        }
+    }
+
+    public List<String> spool(List<MultipartFile> files) {
+        List<String> references = new ArrayList<>(files.size());
+        try {
+            for (MultipartFile file : files) {
+                references.add(spool(file));
+            }
+            return references;
+        } catch (AppException e) {
+            references.forEach(this::delete);
+            throw e;
+        }
+    }
+
+    public File resolve(String reference) {
+        Path path = root.resolve(reference).normalize();
+        if (!path.getParent().equals(root) || !Files.isRegularFile(path)) {
+            throw new AppException(ErrorCode.FILE_NULL);
+        }
+        return path.toFile();
+    }
+
+    public boolean exists(String reference) {
+        Path path = root.resolve(reference).normalize();
+        return path.getParent().equals(root) && Files.isRegularFile(path);
+    }
+
+    public void delete(String reference) {
+        Path path = root.resolve(reference).normalize();
+        if (!path.getParent().equals(root)) return;
+
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.error("Error when delete spool file {}: {}", reference, e.getMessage());
+        }
+    }
+
+    // Files left behind by messages that were never consumed successfully, their messages have expired from the
+    // parking lot by now (see validateMaxAge)
+    @Scheduled(fixedDelayString = "${media-spool.cleanup-delay:3600000}")
+    public void deleteStaleFiles() {
+        Instant threshold = Instant.now().minus(maxAge);
+        int deleted = 0;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "*" + SPOOL_SUFFIX)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(threshold)) {
+                    Files.deleteIfExists(file);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error when clean media spool {}: {}", root, e.getMessage());
+        }
+
+        if (deleted > 0) log.warn("Deleted {} stale spool files from {}", deleted, root);
+    }
+}
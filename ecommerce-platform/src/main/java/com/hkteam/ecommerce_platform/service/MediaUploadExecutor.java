@@ -0,0 +1,144 @@
+package com.hkteam.ecommerce_platform.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.hkteam.ecommerce_platform.dto.response.MediaUploadStatisticsResponse;
+import com.hkteam.ecommerce_platform.exception.AppException;
+import com.hkteam.ecommerce_platform.exception.ErrorCode;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class MediaUploadExecutor {
+    @NonFinal
+    @Value("${media-upload.parallelism:4}")
+    int parallelism;
+
+    @NonFinal
+    @Value("${media-upload.queue-capacity:200}")
+    int queueCapacity;
+
+    @NonFinal
+    @Value("${media-upload.max-attempts:3}")
+    int maxAttempts;
+
+    @NonFinal
+    @Value("${media-upload.retry-backoff:500ms}")
+    Duration retryBackoff;
+
+    @NonFinal
+    ThreadPoolExecutor executor;
+
+    LongAdder completedUploads = new LongAdder();
+    LongAdder failedUploads = new LongAdder();
+    LongAdder retriedAttempts = new LongAdder();
+    LongAdder totalLatencyNanos = new LongAdder();
+    AtomicLong maxLatencyNanos = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // When the queue is full the submitting thread uploads itself, which slows producers down
+        executor = new ThreadPoolExecutor(
+                parallelism,
+                parallelism,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "media-upload-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    // Results keep the order of sources, an upload that still fails after all attempts gives null
+    public <T> List<Map<String, Object>> uploadAll(List<T> sources, Function<T, Map<String, Object>> upload) {
+        List<Future<Map<String, Object>>> futures = new ArrayList<>(sources.size());
+        for (T source : sources) {
+            futures.add(executor.submit(() -> uploadWithRetry(source, upload)));
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(sources.size());
+        try {
+            for (Future<Map<String, Object>> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    log.error("Error while uploading media: {}", e.getCause().getMessage());
+                    results.add(null);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new AppException(ErrorCode.UPLOAD_FILE_FAILED);
+        }
+
+        return results;
+    }
+
+    public MediaUploadStatisticsResponse getStatistics() {
+        long completed = completedUploads.sum();
+        return MediaUploadStatisticsResponse.builder()
+                .parallelism(parallelism)
+                .activeUploads(executor.getActiveCount())
+                .queueDepth(executor.getQueue().size())
+                .completedUploads(completed)
+                .failedUploads(failedUploads.sum())
+                .retriedAttempts(retriedAttempts.sum())
+                .averageLatencyMs(completed == 0 ? 0 : totalLatencyNanos.sum() / 1_000_000.0 / completed)
+                .maxLatencyMs(maxLatencyNanos.get() / 1_000_000.0)
+                .build();
+    }
+
+    private <T> Map<String, Object> uploadWithRetry(T source, Function<T, Map<String, Object>> upload)
+            throws InterruptedException {
+        long startedAt = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Map<String, Object> result = upload.apply(source);
+
+                long latency = System.nanoTime() - startedAt;
+                completedUploads.increment();
+                totalLatencyNanos.add(latency);
+                maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                return result;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    failedUploads.increment();
+                    throw e;
+                }
+
+                retriedAttempts.increment();
+                log.warn("Media upload attempt {} failed, retrying: {}", attempt, e.getMessage());
+                Thread.sleep(retryBackoff.toMillis() << (attempt - 1));
+            }
+        }
+    }
+}
@@ -1,18 +1,15 @@
 package com.hkteam.ecommerce_platform.service;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.*;
 
 import jakarta.servlet.http.HttpServletRequest;
 
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Recover;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -74,8 +71,9 @@ public class OrderService {
     CartItemRepository cartItemRepository;
     CartRepository cartRepository;
     RabbitTemplate rabbitTemplate;
-    ProductElasticsearchRepository productElasticsearchRepository;
-    VariantRepository variantRepository;
+    StatisticRollupService statisticRollupService;
+    StockReservationService stockReservationService;
+    EsOutboxService esOutboxService;
 
     private static final String ORDER_CODE = "id";
     private static final String CREATED_AT = "createdAt";
@@ -112,13 +110,8 @@ public class OrderService {
 
         List<OrderGetAllSellerResponse> listOrderGetAllSellerResponse = new ArrayList<>();
         pageData.getContent().forEach((order -> {
-            OrderStatusHistory lastStatusHistory = orderUtil.getLastOrderStatusHistory(order);
-
             OrderGetAllSellerResponse orderGetAllSellerResponse = orderMapper.toOrderGetAllSellerResponse(order);
 
-            orderGetAllSellerResponse.setCurrentStatus(
-                    lastStatusHistory.getOrderStatus().getName());
-
             listOrderGetAllSellerResponse.add(orderGetAllSellerResponse);
         }));
 
@@ -149,16 +142,12 @@ public class OrderService {
             throw new AppException(ErrorCode.ORDER_NOT_BELONG_TO_STORE);
         }
 
-        OrderStatusHistory lastStatusHistory = orderUtil.getLastOrderStatusHistory(order);
-
         List<OrderItemGetOneSellerResponse> listOrderItemGetOneSellerResponse = order.getOrderItems().stream()
                 .map(orderItemMapper::toOrderItemGetOneSellerResponse)
                 .toList();
 
         OrderDetailSellerResponse orderDetailSellerResponse = orderMapper.toOrderDetailSellerResponse(order);
 
-        orderDetailSellerResponse.setCurrentStatus(
-                lastStatusHistory.getOrderStatus().getName());
         orderDetailSellerResponse.setUserPhone(orderUtil.maskPhone(orderDetailSellerResponse.getUserPhone()));
         orderDetailSellerResponse.setUserEmail(orderUtil.maskEmail(orderDetailSellerResponse.getUserEmail()));
         orderDetailSellerResponse.setOrderItems(listOrderItemGetOneSellerResponse);
@@ -225,13 +214,7 @@ public class OrderService {
             throw new AppException(ErrorCode.ORDER_NOT_BELONG_TO_STORE);
         }
 
-        orderUtil.cancelOneOrder(
-                order,
-                orderStatusRepository,
-                productRepository,
-                productElasticsearchRepository,
-                variantRepository,
-                OrderStatusName.CANCELLED);
+        orderUtil.cancelOneOrder(order, orderStatusRepository, OrderStatusName.CANCELLED);
 
         try {
             orderRepository.save(order);
@@ -262,13 +245,8 @@ public class OrderService {
             throw new AppException(ErrorCode.LIST_ORDER_NOT_BELONG_TO_STORE);
         }
 
-        filteredListOrder.forEach(order -> orderUtil.cancelOneOrder(
-                order,
-                orderStatusRepository,
-                productRepository,
-                productElasticsearchRepository,
-                variantRepository,
-                OrderStatusName.CANCELLED));
+        filteredListOrder.forEach(
+                order -> orderUtil.cancelOneOrder(order, orderStatusRepository, OrderStatusName.CANCELLED));
 
         try {
             orderRepository.saveAll(filteredListOrder);
@@ -292,13 +270,10 @@ public class OrderService {
 
         List<OrderGetAllAdminResponse> listOrderGetAllAdminResponse = new ArrayList<>();
         pageData.getContent().forEach((order -> {
-            OrderStatusHistory lastStatusHistory = orderUtil.getLastOrderStatusHistory(order);
             TransactionStatusHistory lastTransactionStatusHistory = orderUtil.getLastTransactionStatusHistory(order);
 
             OrderGetAllAdminResponse orderGetAllAdminResponse = orderMapper.toOrderGetAllAdminResponse(order);
 
-            orderGetAllAdminResponse.setCurrentStatus(
-                    lastStatusHistory.getOrderStatus().getName());
             orderGetAllAdminResponse.setCurrentStatusTransaction(
                     lastTransactionStatusHistory.getTransactionStatus().getName());
 
@@ -323,7 +298,6 @@ public class OrderService {
         Order order =
                 orderRepository.findOrderById(orderId).orElseThrow(() -> new AppException(ErrorCode.ORDER_NOT_FOUND));
 
-        OrderStatusHistory lastStatusHistory = orderUtil.getLastOrderStatusHistory(order);
         TransactionStatusHistory lastTransactionStatusHistory = orderUtil.getLastTransactionStatusHistory(order);
 
         List<OrderItemGetOneAdminResponse> listOrderItemGetOneAdminResponse = order.getOrderItems().stream()
@@ -332,8 +306,6 @@ public class OrderService {
 
         OrderDetailAdminResponse orderDetailAdminResponse = orderMapper.toOrderDetailAdminResponse(order);
 
-        orderDetailAdminResponse.setCurrentStatus(
-                lastStatusHistory.getOrderStatus().getName());
         orderDetailAdminResponse.setCurrentStatusTransaction(
                 lastTransactionStatusHistory.getTransactionStatus().getName());
         orderDetailAdminResponse.setOrderItems(listOrderItemGetOneAdminResponse);
@@ -354,13 +326,7 @@ public class OrderService {
                 .findOneOrderUpdateOrCancel(orderId, listStatus)
                 .orElseThrow(() -> new AppException(ErrorCode.ONE_ORDER_UPDATE_STATUS_NOT_FOUND));
 
-        orderUtil.updateOneOrderStatusByAdmin(
-                order,
-                orderStatusRepository,
-                transactionStatusRepository,
-                productRepository,
-                productElasticsearchRepository,
-                variantRepository);
+        orderUtil.updateOneOrderStatusByAdmin(order, orderStatusRepository, transactionStatusRepository);
 
         try {
             orderRepository.save(order);
@@ -397,13 +363,8 @@ public class OrderService {
             throw new AppException(ErrorCode.LIST_ORDER_UPDATE_STATUS_NOT_FOUND);
         }
 
-        listOrder.forEach(order -> orderUtil.updateOneOrderStatusByAdmin(
-                order,
-                orderStatusRepository,
-                transactionStatusRepository,
-                productRepository,
-                productElasticsearchRepository,
-                variantRepository));
+        listOrder.forEach(order ->
+                orderUtil.updateOneOrderStatusByAdmin(order, orderStatusRepository, transactionStatusRepository));
 
         try {
             orderRepository.saveAll(listOrder);
@@ -434,13 +395,7 @@ public class OrderService {
                 .findOneOrderUpdateOrCancel(orderId, listStatus)
                 .orElseThrow(() -> new AppException(ErrorCode.ONE_ORDER_CANCEL_NOT_FOUND));
 
-        orderUtil.cancelOneOrder(
-                order,
-                orderStatusRepository,
-                productRepository,
-                productElasticsearchRepository,
-                variantRepository,
-                OrderStatusName.CANCELLED);
+        orderUtil.cancelOneOrder(order, orderStatusRepository, OrderStatusName.CANCELLED);
 
         try {
             orderRepository.save(order);
@@ -467,13 +422,7 @@ public class OrderService {
             throw new AppException(ErrorCode.LIST_ORDER_CANCEL_NOT_FOUND);
         }
 
-        listOrder.forEach(order -> orderUtil.cancelOneOrder(
-                order,
-                orderStatusRepository,
-                productRepository,
-                productElasticsearchRepository,
-                variantRepository,
-                OrderStatusName.CANCELLED));
+        listOrder.forEach(order -> orderUtil.cancelOneOrder(order, orderStatusRepository, OrderStatusName.CANCELLED));
 
         try {
             orderRepository.saveAll(listOrder);
@@ -500,7 +449,6 @@ public class OrderService {
 
         List<OrderGetAllUserResponse> listOrderGetAllUserResponse = new ArrayList<>();
         pageData.getContent().forEach((order -> {
-            OrderStatusHistory lastStatusHistory = orderUtil.getLastOrderStatusHistory(order);
             TransactionStatusHistory lastTransactionStatusHistory = orderUtil.getLastTransactionStatusHistory(order);
 
             List<OrderItemGetAllUserResponse> listOrderItemGetAllUserResponse = new ArrayList<>();
@@ -515,8 +463,6 @@ public class OrderService {
 
             OrderGetAllUserResponse orderGetAllUserResponse = orderMapper.toOrderGetAllUserResponse(order);
 
-            orderGetAllUserResponse.setCurrentStatus(
-                    lastStatusHistory.getOrderStatus().getName());
             orderGetAllUserResponse.setCurrentStatusTransaction(
                     lastTransactionStatusHistory.getTransactionStatus().getName());
             orderGetAllUserResponse.setOrderItems(listOrderItemGetAllUserResponse);
@@ -555,8 +501,6 @@ public class OrderService {
                 order.getSubDistrict(),
                 order.getProvince());
 
-        OrderStatusHistory lastStatusHistory = orderUtil.getLastOrderStatusHistory(order);
-
         List<OrderItemGetOneUserResponse> listOrderItemGetOneUserResponse = new ArrayList<>();
         order.getOrderItems().forEach(orderItem -> {
             OrderItemGetOneUserResponse orderItemGetOneUserResponse =
@@ -576,8 +520,6 @@ public class OrderService {
         OrderGetOneUserResponse orderGetOneUserResponse = orderMapper.toOrderGetOneUserResponse(order);
 
         orderGetOneUserResponse.setDefaultAddressStr(defaultAddressStr);
-        orderGetOneUserResponse.setCurrentStatus(
-                lastStatusHistory.getOrderStatus().getName());
         orderGetOneUserResponse.setOrderItems(listOrderItemGetOneUserResponse);
         orderGetOneUserResponse.setOrderStatusHistories(listOrderStatusHistoryGetOneUserResponse);
 
@@ -598,13 +540,7 @@ public class OrderService {
             throw new AppException(ErrorCode.ORDER_NOT_BELONG_TO_USER);
         }
 
-        orderUtil.cancelOneOrder(
-                order,
-                orderStatusRepository,
-                productRepository,
-                productElasticsearchRepository,
-                variantRepository,
-                OrderStatusName.CANCELLED);
+        orderUtil.cancelOneOrder(order, orderStatusRepository, OrderStatusName.CANCELLED);
 
         try {
             orderRepository.save(order);
@@ -615,7 +551,6 @@ public class OrderService {
     }
 
     @PreAuthorize("hasRole('USER')")
-    @Retryable(value = OptimisticLockingFailureException.class, maxAttempts = 10, backoff = @Backoff(delay = 100))
     @Transactional
     public OrderCreationResponse createOrder(ListOrder listOrder, HttpServletRequest request) {
         boolean isVnPay = listOrder.getPaymentMethod().equals(PaymentMethod.VN_PAY);
@@ -697,19 +632,8 @@ public class OrderService {
                             variant.getSalePrice().multiply(BigDecimal.valueOf(orderItemRequest.getQuantity())));
                 }
 
-                product.setQuantity(product.getQuantity() - orderItemRequest.getQuantity());
-                productElasticsearchRepository
-                        .findById(product.getId())
-                        .ifPresentOrElse(
-                                productElasticsearch -> {
-                                    productElasticsearch.setQuantity(product.getQuantity());
-                                    productElasticsearchRepository.save(productElasticsearch);
-                                },
-                                () -> log.error("Product not found in elasticsearch."));
-
-                if (Boolean.TRUE.equals(hasVariant)) {
-                    variant.setQuantity(variant.getQuantity() - orderItemRequest.getQuantity());
-                }
+                esOutboxService.enqueue(product.getId(), EsOutboxService.FIELD_QUANTITY);
+
                 OrderItem orderItem = OrderItem.builder()
                         .product(product)
                         .price(hasVariant ? variant.getOriginalPrice() : product.getOriginalPrice())
@@ -773,6 +697,8 @@ public class OrderService {
                     .orderItems(orderItems)
                     .shippingTotal(ShippingFeeUtil.calculateShippingFee())
                     .orderStatusHistories(new ArrayList<>(List.of(orderStatusHistory)))
+                    .currentStatus(orderStatus)
+                    .currentStatusAt(Instant.now())
                     .build();
 
             for (OrderItem item : orderItems) {
@@ -801,11 +727,16 @@ public class OrderService {
             transactions.add(transaction);
         }
 
+        stockReservationService.reserve(listOrder.getOrders().stream()
+                .flatMap(orderRequest -> orderRequest.getOrderItems().stream())
+                .toList());
+
         payment.setTransactions(transactions);
         payment.setAmount(amount);
         payment.setPaymentMethod(isVnPay ? PaymentMethod.VN_PAY : PaymentMethod.COD);
 
         paymentRepository.save(payment);
+        transactions.forEach(transaction -> statisticRollupService.recordOrderPlaced(transaction.getOrder()));
 
         listOrder.getOrders().forEach((order) -> {
             Cart cart = cartRepository
@@ -859,18 +790,4 @@ public class OrderService {
         }
         return fee;
     }
-
-    @Recover
-    public OrderCreationResponse recover(
-            OptimisticLockingFailureException e, ListOrder listOrder, HttpServletRequest request) {
-        log.error("Recovering after retries failed: {}", e.getMessage());
-        throw new AppException(ErrorCode.RETRY_FAILED);
-    }
-
-    @Recover
-    public OrderCreationResponse recover(Exception e, ListOrder listOrder, HttpServletRequest request)
-            throws Exception {
-        log.error("Unexpected error occurred: {}", e.getMessage());
-        throw e;
-    }
 }
@@ -6,7 +6,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import com.hkteam.ecommerce_platform.entity.order.OrderStatusHistory;
 import com.hkteam.ecommerce_platform.entity.payment.TransactionStatusHistory;
 import com.hkteam.ecommerce_platform.entity.status.TransactionStatus;
 import com.hkteam.ecommerce_platform.enums.OrderStatusName;
@@ -24,6 +23,7 @@ import com.hkteam.ecommerce_platform.entity.payment.Transaction;
 import com.hkteam.ecommerce_platform.exception.AppException;
 import com.hkteam.ecommerce_platform.exception.ErrorCode;
 import com.hkteam.ecommerce_platform.repository.PaymentRepository;
+import com.hkteam.ecommerce_platform.util.OrderUtil;
 import com.hkteam.ecommerce_platform.util.VNPayUtil;
 
 import lombok.AccessLevel;
@@ -41,6 +41,7 @@ public class PaymentService {
     PaymentRepository paymentRepository;
     TransactionStatusRepository transactionStatusRepository;
     OrderStatusRepository orderStatusRepository;
+    OrderUtil orderUtil;
 
     public String createVnPayPayment(BigDecimal totalPrice, HttpServletRequest request, String code) {
         BigDecimal amount = totalPrice.multiply(new BigDecimal("100")).setScale(0, RoundingMode.DOWN);
@@ -119,13 +120,7 @@ public class PaymentService {
                             .orElseThrow(() -> new AppException(ErrorCode.UNKNOWN_ERROR));
 
 
-                    OrderStatusHistory orderStatusHistory = OrderStatusHistory.builder()
-                            .orderStatus(orderStatus)
-                            .order(transaction.getOrder())
-                            .remarks("Update status from VNPay")
-                            .build();
-
-                    transaction.getOrder().getOrderStatusHistories().add(orderStatusHistory);
+                    orderUtil.addOrderStatusHistory(transaction.getOrder(), orderStatus, "Update status from VNPay");
                 }
         );
 
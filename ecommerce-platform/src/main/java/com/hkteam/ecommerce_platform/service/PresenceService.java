@@ -0,0 +1,154 @@
+package com.hkteam.ecommerce_platform.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+// Online status lives in redis: one sorted set per user whose members are the nodes holding a session of that user,
+// scored by the time the entry expires unless the node heartbeats again. Postgres only gets last seen timestamps.
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class PresenceService {
+    static final String PRESENCE_KEY_PREFIX = "presence:";
+    static final String UPDATE_LAST_SEEN = "UPDATE users SET last_seen_at = ? WHERE id = ?";
+
+    StringRedisTemplate redisTemplate;
+    JdbcTemplate jdbcTemplate;
+
+    String nodeId = UUID.randomUUID().toString();
+    // websocket session id -> user id, a session is only counted once even if its disconnect is published twice
+    Map<String, String> sessions = new ConcurrentHashMap<>();
+    Map<String, Integer> sessionCounts = new ConcurrentHashMap<>();
+    Map<String, Instant> pendingLastSeen = new ConcurrentHashMap<>();
+
+    @NonFinal
+    @Value("${presence.ttl:90s}")
+    Duration ttl;
+
+    public void connected(String sessionId, String userId) {
+        if (Objects.nonNull(sessions.putIfAbsent(sessionId, userId))) return;
+
+        if (sessionCounts.merge(userId, 1, Integer::sum) == 1) {
+            markOnline(userId);
+        }
+    }
+
+    public void disconnected(String sessionId) {
+        String userId = sessions.remove(sessionId);
+        if (Objects.isNull(userId)) return;
+
+        if (Objects.isNull(sessionCounts.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null))) {
+            markOffline(userId);
+        }
+    }
+
+    public boolean isOnline(String userId) {
+        if (sessionCounts.containsKey(userId)) return true;
+
+        try {
+            Long nodes = redisTemplate
+                    .opsForZSet()
+                    .count(PRESENCE_KEY_PREFIX + userId, System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+            return Objects.nonNull(nodes) && nodes > 0;
+        } catch (Exception e) {
+            log.error("Error when read presence of user {}: {}", userId, e.getMessage());
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${presence.heartbeat-delay:30000}")
+    public void heartbeat() {
+        List<String> userIds = new ArrayList<>(sessionCounts.keySet());
+        if (userIds.isEmpty()) return;
+
+        double expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) {
+                    userIds.forEach(userId -> {
+                        String key = PRESENCE_KEY_PREFIX + userId;
+                        operations.opsForZSet().add(key, nodeId, expiresAt);
+                        operations.expire(key, ttl.toMillis(), TimeUnit.MILLISECONDS);
+                    });
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.error("Error when send presence heartbeat for {} users: {}", userIds.size(), e.getMessage());
+        }
+    }
+
+    // Any number of disconnects of a user between two runs ends up as a single row update
+    @Scheduled(fixedDelayString = "${presence.last-seen-flush-delay:60000}")
+    public synchronized void flushLastSeen() {
+        if (pendingLastSeen.isEmpty()) return;
+
+        List<Object[]> args = new ArrayList<>();
+        new ArrayList<>(pendingLastSeen.keySet()).forEach(userId -> {
+            Instant lastSeen = pendingLastSeen.remove(userId);
+            if (Objects.nonNull(lastSeen)) args.add(new Object[] {Timestamp.from(lastSeen), userId});
+        });
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_SEEN, args);
+            log.info("Updated last seen of {} users", args.size());
+        } catch (DataAccessException e) {
+            log.error("Error when update last seen of {} users: {}", args.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        new ArrayList<>(sessionCounts.keySet()).forEach(this::markOffline);
+        sessionCounts.clear();
+        sessions.clear();
+        flushLastSeen();
+    }
+
+    private void markOnline(String userId) {
+        String key = PRESENCE_KEY_PREFIX + userId;
+        try {
+            redisTemplate.opsForZSet().add(key, nodeId, System.currentTimeMillis() + ttl.toMillis());
+            redisTemplate.expire(key, ttl);
+        } catch (Exception e) {
+            log.error("Error when mark user {} online: {}", userId, e.getMessage());
+        }
+    }
+
+    private void markOffline(String userId) {
+        pendingLastSeen.put(userId, Instant.now());
+        try {
+            redisTemplate.opsForZSet().remove(PRESENCE_KEY_PREFIX + userId, nodeId);
+        } catch (Exception e) {
+            log.error("Error when mark user {} offline: {}", userId, e.getMessage());
+        }
+    }
+}
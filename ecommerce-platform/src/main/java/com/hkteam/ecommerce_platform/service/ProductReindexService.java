@@ -0,0 +1,213 @@
+package com.hkteam.ecommerce_platform.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hkteam.ecommerce_platform.entity.elasticsearch.ProductElasticsearch;
+import com.hkteam.ecommerce_platform.entity.product.Product;
+import com.hkteam.ecommerce_platform.exception.AppException;
+import com.hkteam.ecommerce_platform.exception.ErrorCode;
+import com.hkteam.ecommerce_platform.mapper.ProductMapper;
+import com.hkteam.ecommerce_platform.repository.ProductRepository;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ProductReindexService {
+    static final String PRODUCT_ALIAS = "products";
+    static final Duration CLOCK_SKEW_MARGIN = Duration.ofMinutes(1);
+
+    ProductRepository productRepository;
+    ElasticsearchOperations elasticsearchOperations;
+    ElasticsearchClient elasticsearchClient;
+    ProductMapper productMapper;
+    TransactionTemplate transactionTemplate;
+
+    @NonFinal
+    @Value("${es-reindex.chunk-size:1000}")
+    int chunkSize;
+
+    // Every chunk is read in its own short transaction, so the run holds no connection or snapshot while it waits
+    // on es and each catch up query sees the rows committed up to that point
+    public void reindex() {
+        String indexName = PRODUCT_ALIAS + "_v" + System.currentTimeMillis();
+        IndexCoordinates target = IndexCoordinates.of(indexName);
+        IndexOperations indexOps = elasticsearchOperations.indexOps(target);
+        indexOps.create();
+        indexOps.putMapping(indexOps.createMapping(ProductElasticsearch.class));
+
+        Instant since = Instant.now();
+        long startedAt = System.nanoTime();
+        // product id -> version written to the new index, rows changed during the run no longer match it
+        Map<String, Integer> indexedVersions = new HashMap<>();
+        boolean swapped = false;
+
+        try {
+            long failed = 0;
+            String lastId = "";
+            while (true) {
+                List<String> ids = productRepository.findIdsAfter(lastId, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) break;
+                lastId = ids.getLast();
+
+                failed += indexChunk(ids, target, indexedVersions);
+
+                double seconds = Math.max((System.nanoTime() - startedAt) / 1_000_000_000.0, 0.001);
+                log.info(
+                        "Reindex {}: {} products indexed, {} failed, {} docs/s",
+                        indexName,
+                        indexedVersions.size(),
+                        failed,
+                        Math.round(indexedVersions.size() / seconds));
+            }
+
+            if (failed > 0) {
+                log.error("Reindex {} finished with {} failures, keeping current index.", indexName, failed);
+                throw new AppException(ErrorCode.PRODUCT_REINDEX_FAILED);
+            }
+
+            // Writes made during the run went to the old index; replay them here, then once more after the swap for
+            // the ones that landed between this pass and the alias update
+            since = catchUp(target, indexedVersions, since);
+            indexOps.refresh();
+            swapAlias(indexName);
+            swapped = true;
+            catchUp(target, indexedVersions, since);
+
+            log.info("Product sync completed successfully: {} products in {}.", indexedVersions.size(), indexName);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error when reindex products into {}: {}", indexName, e.getMessage());
+            if (!swapped) deleteQuietly(indexName);
+            if (e instanceof AppException appException) throw appException;
+            throw new AppException(ErrorCode.PRODUCT_REINDEX_FAILED);
+        }
+    }
+
+    private long indexChunk(List<String> ids, IndexCoordinates target, Map<String, Integer> indexedVersions) {
+        List<IndexQuery> queries = transactionTemplate.execute(status -> {
+            List<IndexQuery> chunk = new ArrayList<>(ids.size());
+            for (Product product : productRepository.findAllForIndexByIdIn(ids)) {
+                chunk.add(new IndexQueryBuilder()
+                        .withId(product.getId())
+                        .withObject(productMapper.toProductElasticsearch(product))
+                        .build());
+                indexedVersions.put(product.getId(), product.getVersion());
+            }
+            return chunk;
+        });
+
+        try {
+            elasticsearchOperations.bulkIndex(queries, target);
+            return 0;
+        } catch (BulkFailureException e) {
+            // Forgotten versions make the next catch up pass try these again
+            e.getFailedDocuments().keySet().forEach(indexedVersions::remove);
+            log.error(
+                    "Error indexing {} products into {}: {}",
+                    e.getFailedDocuments().size(),
+                    target.getIndexName(),
+                    e.getMessage());
+            return e.getFailedDocuments().size();
+        }
+    }
+
+    private Instant catchUp(IndexCoordinates target, Map<String, Integer> indexedVersions, Instant since) {
+        Instant passStartedAt = Instant.now();
+
+        // Category and brand renames only touch their own rows, timestamps come from the database clock
+        Set<String> changed = new LinkedHashSet<>(
+                productRepository.findIdsWithCategoryOrBrandUpdatedSince(since.minus(CLOCK_SKEW_MARGIN)));
+        Set<String> removed = new HashSet<>(indexedVersions.keySet());
+        String lastId = "";
+        while (true) {
+            List<Object[]> rows = productRepository.findIdVersionsAfter(lastId, PageRequest.of(0, chunkSize));
+            if (rows.isEmpty()) break;
+            lastId = (String) rows.getLast()[0];
+
+            for (Object[] row : rows) {
+                String id = (String) row[0];
+                removed.remove(id);
+                if (!Objects.equals(indexedVersions.get(id), row[1])) changed.add(id);
+            }
+        }
+
+        List<String> ids = new ArrayList<>(changed);
+        long failed = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            failed += indexChunk(ids.subList(from, Math.min(from + chunkSize, ids.size())), target, indexedVersions);
+        }
+        for (String id : removed) {
+            elasticsearchOperations.delete(id, target);
+            indexedVersions.remove(id);
+        }
+
+        log.info(
+                "Reindex {} caught up {} changed and {} removed products, {} failed",
+                target.getIndexName(),
+                ids.size(),
+                removed.size(),
+                failed);
+        if (failed > 0) throw new AppException(ErrorCode.PRODUCT_REINDEX_FAILED);
+        return passStartedAt;
+    }
+
+    private void swapAlias(String indexName) throws IOException {
+        ElasticsearchIndicesClient indices = elasticsearchClient.indices();
+        List<String> oldIndices = new ArrayList<>();
+        boolean concreteIndex = false;
+        if (indices.existsAlias(e -> e.name(PRODUCT_ALIAS)).value()) {
+            oldIndices.addAll(
+                    indices.getAlias(g -> g.name(PRODUCT_ALIAS)).result().keySet());
+        } else {
+            // First rebuild: a concrete index still holds the alias name
+            concreteIndex = indices.exists(e -> e.index(PRODUCT_ALIAS)).value();
+        }
+
+        // Single cluster state update, searches go to the old index until the new one takes over
+        boolean removeConcreteIndex = concreteIndex;
+        indices.updateAliases(u -> {
+            oldIndices.forEach(old -> u.actions(a -> a.remove(r -> r.index(old).alias(PRODUCT_ALIAS))));
+            if (removeConcreteIndex) u.actions(a -> a.removeIndex(r -> r.index(PRODUCT_ALIAS)));
+            return u.actions(a -> a.add(ad -> ad.index(indexName).alias(PRODUCT_ALIAS)));
+        });
+
+        oldIndices.forEach(this::deleteQuietly);
+    }
+
+    private void deleteQuietly(String indexName) {
+        try {
+            elasticsearchClient.indices().delete(d -> d.index(indexName));
+        } catch (IOException | RuntimeException e) {
+            log.error("Error when delete index {}: {}", indexName, e.getMessage());
+        }
+    }
+}
@@ -19,8 +19,6 @@ import com.hkteam.ecommerce_platform.dto.request.ProductUpdateRequest;
 import com.hkteam.ecommerce_platform.dto.response.*;
 import com.hkteam.ecommerce_platform.entity.category.Component;
 import com.hkteam.ecommerce_platform.entity.category.ProductComponentValue;
-import com.hkteam.ecommerce_platform.entity.elasticsearch.EsProComponentValue;
-import com.hkteam.ecommerce_platform.entity.elasticsearch.ProductElasticsearch;
 import com.hkteam.ecommerce_platform.entity.product.Attribute;
 import com.hkteam.ecommerce_platform.entity.product.Product;
 import com.hkteam.ecommerce_platform.entity.product.Value;
@@ -31,6 +29,7 @@ import com.hkteam.ecommerce_platform.exception.ErrorCode;
 import com.hkteam.ecommerce_platform.mapper.*;
 import com.hkteam.ecommerce_platform.repository.*;
 import com.hkteam.ecommerce_platform.util.AuthenticatedUserUtil;
+import com.hkteam.ecommerce_platform.util.ESUtils;
 import com.hkteam.ecommerce_platform.util.PageUtils;
 import com.hkteam.ecommerce_platform.util.SlugUtils;
 
@@ -62,6 +61,7 @@ public class ProductService {
     ImageMapper imageMapper;
     AttributeMapper attributeMapper;
     CacheManager cacheManager;
+    ProductReindexService productReindexService;
 
     static final String[] SORT_BY = {"name", "originalPrice", "salePrice", "rating", "createdAt"};
     static final String[] ORDER = {"asc", "desc"};
@@ -168,30 +168,7 @@ public class ProductService {
         try {
             attributeRepository.saveAll(attributes);
             productRepository.save(product);
-            var productElasticsearch = ProductElasticsearch.builder()
-                    .id(product.getId())
-                    .name(product.getName())
-                    .slug(product.getSlug())
-                    .description(product.getDescription())
-                    .details(product.getDetails())
-                    .originalPrice(product.getOriginalPrice())
-                    .salePrice(product.getSalePrice())
-                    .isAvailable(product.isAvailable())
-                    .quantity(product.getQuantity())
-                    .rating(product.getRating())
-                    .brandName(product.getBrand().getName())
-                    .brandId(product.getBrand().getId())
-                    .categoryName(product.getCategory().getName())
-                    .categoryId(product.getCategory().getId())
-                    .storeName(product.getStore().getName())
-                    .storeId(product.getStore().getId())
-                    .createdAt(product.getCreatedAt())
-                    .lastUpdatedAt(product.getLastUpdatedAt())
-                    .isBlocked(product.isBlocked())
-                    .productComponentValues(product.getProductComponentValues().stream()
-                            .map(pc -> new EsProComponentValue(pc.getId(), pc.getValue()))
-                            .toList())
-                    .build();
+            var productElasticsearch = productMapper.toProductElasticsearch(product);
             productElasticsearchRepository.save(productElasticsearch);
         } catch (Exception e) {
             log.error(e.getMessage());
@@ -276,6 +253,9 @@ public class ProductService {
             esPro.setOriginalPrice(product.getOriginalPrice());
         }
 
+        esPro.setSuggest(ESUtils.createProductSuggest(
+                product.getName(), product.getCategory().getId(), product.getStore().getId()));
+
         try {
 
             productRepository.save(product);
@@ -598,44 +578,8 @@ public class ProductService {
                 .build();
     }
 
-    @Transactional
     @Async
     public void SyncProduct() {
-         List<Product> products = productRepository.findAll();
-         for (Product product : products) {
-             try {
-                 var productElasticsearch = ProductElasticsearch.builder()
-                         .id(product.getId())
-                         .name(product.getName())
-                         .slug(product.getSlug())
-                         .description(product.getDescription())
-                         .details(product.getDetails())
-                         .originalPrice(product.getOriginalPrice())
-                         .salePrice(product.getSalePrice())
-                         .isAvailable(product.isAvailable())
-                         .quantity(product.getQuantity())
-                         .rating(product.getRating())
-                         .brandName(product.getBrand().getName())
-                         .brandId(product.getBrand().getId())
-                         .categoryName(product.getCategory().getName())
-                         .categoryId(product.getCategory().getId())
-                         .storeName(product.getStore().getName())
-                         .storeId(product.getStore().getId())
-                         .createdAt(product.getCreatedAt())
-                         .lastUpdatedAt(product.getLastUpdatedAt())
-                         .isBlocked(product.isBlocked())
-                         .sold(product.getSold())
-                         .mainImageUrl(product.getMainImageUrl())
-                         .videoUrl(product.getVideoUrl())
-                         .productComponentValues(product.getProductComponentValues().stream()
-                                 .map(pc -> new EsProComponentValue(pc.getId(), pc.getValue()))
-                                 .toList())
-                         .build();
-                 productElasticsearchRepository.save(productElasticsearch);
-             } catch (Exception e) {
-                 log.error("Error syncing product with id {}: {}", product.getId(), e.getMessage());
-             }
-         }
-            log.info("Product sync completed successfully.");
+        productReindexService.reindex();
     }
 }
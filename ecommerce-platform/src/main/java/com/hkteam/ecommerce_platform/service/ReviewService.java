@@ -423,15 +423,13 @@ public class ReviewService {
 
             );
 
-            List<Object[]> rs = orderRepository.getRevenueStatisticsNativeNoPage(
+            long count = orderRepository.countRevenueStatisticsGroups(
                     from,
                     to,
                     groupBy,
                     storeId
             );
 
-            Integer count = rs.size();
-
             BigDecimal sum = results.stream()
                     .map(row -> row[6] != null ? new BigDecimal(row[6].toString()) : BigDecimal.ZERO)
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -450,7 +448,7 @@ public class ReviewService {
             return StatisticResponse.builder()
                     .data(items)
                     .totalCount(0)
-                    .totalItems(count)
+                    .totalItems(Math.toIntExact(count))
                     .totalAmount(sum)
                     .build();
         }
@@ -467,7 +465,7 @@ public class ReviewService {
                     request.getLimit()
             );
 
-            List<Object[]> rs = orderRepository.getProductSoldStatisticsNativeNoPage(
+            long count = orderRepository.countProductSoldStatisticsGroups(
                     from,
                     to,
                     groupBy,
@@ -475,8 +473,6 @@ public class ReviewService {
                     productId
             );
 
-            Integer count = rs.size();
-
             List<StatisticItem> items = results.stream().map(row -> new StatisticItem(
                     row[0], // groupKey (String)
                     row[1] != null ? row[1].toString() : "", // entityId
@@ -491,7 +487,7 @@ public class ReviewService {
             return StatisticResponse.builder()
                     .data(items)
                     .totalCount(0)
-                    .totalItems(count)
+                    .totalItems(Math.toIntExact(count))
                     .totalAmount(BigDecimal.ZERO)
                     .build();
         }
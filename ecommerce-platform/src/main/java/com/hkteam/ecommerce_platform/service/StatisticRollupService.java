@@ -0,0 +1,155 @@
+package com.hkteam.ecommerce_platform.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hkteam.ecommerce_platform.entity.order.Order;
+import com.hkteam.ecommerce_platform.entity.order.OrderItem;
+import com.hkteam.ecommerce_platform.entity.statistic.DailyPlatformStats;
+import com.hkteam.ecommerce_platform.entity.statistic.DailyStoreStats;
+import com.hkteam.ecommerce_platform.entity.statistic.StatDelta;
+import com.hkteam.ecommerce_platform.entity.status.OrderStatus;
+import com.hkteam.ecommerce_platform.enums.OrderStatusName;
+import com.hkteam.ecommerce_platform.exception.AppException;
+import com.hkteam.ecommerce_platform.exception.ErrorCode;
+import com.hkteam.ecommerce_platform.repository.DailyPlatformStatsRepository;
+import com.hkteam.ecommerce_platform.repository.DailyStoreStatsRepository;
+import com.hkteam.ecommerce_platform.repository.StatDeltaRepository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+// Every event adds a stat_delta row in its own business transaction, so a rolled back transaction is never counted
+// and a crash loses nothing. Checkouts only insert, the shared row of the day is updated by the scheduled flush.
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class StatisticRollupService {
+    // Serializes flushes of all nodes with a rebuild, the rebuild deletes and inserts the rows the flush adds to
+    static final String LOCK_ROLLUPS = "SELECT pg_advisory_xact_lock(7305002)";
+
+    DailyPlatformStatsRepository dailyPlatformStatsRepository;
+    DailyStoreStatsRepository dailyStoreStatsRepository;
+    StatDeltaRepository statDeltaRepository;
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+
+    public void recordOrderPlaced(Order order) {
+        addOrderDelta(order, 1, 0, 0, BigDecimal.ZERO, 0);
+    }
+
+    public void recordOrderStatus(Order order, OrderStatus orderStatus) {
+        if (OrderStatusName.DELIVERED.name().equals(orderStatus.getName())) {
+            long itemsSold = order.getOrderItems().stream()
+                    .mapToLong(OrderItem::getQuantity)
+                    .sum();
+            addOrderDelta(
+                    order, 0, 1, 0, Objects.requireNonNullElse(order.getGrandTotal(), BigDecimal.ZERO), itemsSold);
+        } else if (OrderStatusName.CANCELLED.name().equals(orderStatus.getName())) {
+            addOrderDelta(order, 0, 0, 1, BigDecimal.ZERO, 0);
+        }
+    }
+
+    public void recordNewCustomer() {
+        statDeltaRepository.save(delta(null).newCustomers(1).build());
+    }
+
+    public void recordNewSeller() {
+        statDeltaRepository.save(delta(null).newSellers(1).build());
+    }
+
+    public List<DailyPlatformStats> getPlatformStats(LocalDate from, LocalDate to) {
+        return dailyPlatformStatsRepository.findByStatDateBetweenOrderByStatDate(from, to);
+    }
+
+    public List<DailyStoreStats> getStoreStats(String storeId, LocalDate from, LocalDate to) {
+        return dailyStoreStatsRepository.findByIdStoreIdAndIdStatDateBetweenOrderByIdStatDate(storeId, from, to);
+    }
+
+    @Scheduled(fixedDelayString = "${statistic.flush-delay:5000}")
+    public void flush() {
+        try {
+            Integer days = transactionTemplate.execute(status -> {
+                jdbcTemplate.queryForList(LOCK_ROLLUPS);
+                return statDeltaRepository.foldIntoRollups();
+            });
+            log.debug("Folded statistic deltas into {} platform days", days);
+        } catch (RuntimeException e) {
+            // The deltas stay in stat_delta for the next run
+            log.error("Error when flush statistic deltas: {}", e.getMessage());
+        }
+    }
+
+    @Transactional
+    public void rebuild(LocalDate from, LocalDate to) {
+        if (Objects.isNull(from) || Objects.isNull(to) || from.isAfter(to)) {
+            throw new AppException(ErrorCode.INVALID_DATE_RANGE);
+        }
+
+        Instant fromInstant = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant toInstant = to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+        // Flushes of every node wait for this transaction. Each rebuild statement deletes the deltas of its range in
+        // the snapshot it reads the source tables with, so a delta is either part of the rebuilt rows or left to the
+        // flush, never both.
+        jdbcTemplate.queryForList(LOCK_ROLLUPS);
+
+        dailyPlatformStatsRepository.deleteByStatDateRange(from, to);
+        dailyStoreStatsRepository.deleteByStatDateRange(from, to);
+
+        int platformDays = dailyPlatformStatsRepository.rebuild(fromInstant, toInstant);
+        int storeDays = dailyStoreStatsRepository.rebuild(fromInstant, toInstant);
+
+        log.info(
+                "Rebuilt statistic rollups from {} to {}: {} platform days, {} store days",
+                from,
+                to,
+                platformDays,
+                storeDays);
+    }
+
+    private void addOrderDelta(
+            Order order,
+            long ordersPlaced,
+            long ordersDelivered,
+            long ordersCancelled,
+            BigDecimal revenue,
+            long itemsSold) {
+        statDeltaRepository.saveAll(List.of(
+                delta(null)
+                        .ordersPlaced(ordersPlaced)
+                        .ordersDelivered(ordersDelivered)
+                        .ordersCancelled(ordersCancelled)
+                        .revenue(revenue)
+                        .itemsSold(itemsSold)
+                        .build(),
+                delta(order.getStore().getId())
+                        .ordersPlaced(ordersPlaced)
+                        .ordersDelivered(ordersDelivered)
+                        .ordersCancelled(ordersCancelled)
+                        .revenue(revenue)
+                        .itemsSold(itemsSold)
+                        .build()));
+    }
+
+    private StatDelta.StatDeltaBuilder delta(String storeId) {
+        return StatDelta.builder().storeId(storeId).statDate(today()).revenue(BigDecimal.ZERO);
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,97 @@
+package com.hkteam.ecommerce_platform.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hkteam.ecommerce_platform.dto.request.OrderItemRequest;
+import com.hkteam.ecommerce_platform.exception.AppException;
+import com.hkteam.ecommerce_platform.exception.ErrorCode;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class StockReservationService {
+    static final String RESERVE_PRODUCT =
+            "UPDATE product SET quantity = quantity - ?, version = version + 1 WHERE id = ? AND quantity >= ?";
+    static final String RESERVE_VARIANT =
+            "UPDATE variant SET quantity = quantity - ?, version = version + 1 WHERE id = ? AND quantity >= ?";
+    static final String RESTORE_PRODUCT =
+            "UPDATE product SET quantity = quantity + ?, version = version + 1 WHERE id = ?";
+    static final String RESTORE_VARIANT =
+            "UPDATE variant SET quantity = quantity + ?, version = version + 1 WHERE id = ?";
+    static final String RECORD_SOLD_PRODUCT = "UPDATE product SET sold = sold + ?, version = version + 1 WHERE id = ?";
+    static final String RECORD_SOLD_VARIANT = "UPDATE variant SET sold = sold + ?, version = version + 1 WHERE id = ?";
+
+    JdbcTemplate jdbcTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Collection<OrderItemRequest> orderItems) {
+        // Sorted keys keep the row lock order stable across concurrent checkouts.
+        Map<String, Integer> productQuantities = new TreeMap<>();
+        Map<String, Integer> variantQuantities = new TreeMap<>();
+
+        for (OrderItemRequest orderItem : orderItems) {
+            if (Objects.isNull(orderItem.getQuantity()) || orderItem.getQuantity() <= 0)
+                throw new AppException(ErrorCode.QUANTITY_NOT_ENOUGH);
+
+            productQuantities.merge(orderItem.getProductId(), orderItem.getQuantity(), Integer::sum);
+            if (Objects.nonNull(orderItem.getVariantId()))
+                variantQuantities.merge(orderItem.getVariantId(), orderItem.getQuantity(), Integer::sum);
+        }
+
+        decrement(RESERVE_VARIANT, variantQuantities);
+        decrement(RESERVE_PRODUCT, productQuantities);
+    }
+
+    // Relative increments, a cancel never overwrites stock reserved by a checkout that committed in between
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Map<String, Integer> productQuantities, Map<String, Integer> variantQuantities) {
+        increment(RESTORE_VARIANT, new TreeMap<>(variantQuantities));
+        increment(RESTORE_PRODUCT, new TreeMap<>(productQuantities));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSold(Map<String, Integer> productQuantities, Map<String, Integer> variantQuantities) {
+        increment(RECORD_SOLD_VARIANT, new TreeMap<>(variantQuantities));
+        increment(RECORD_SOLD_PRODUCT, new TreeMap<>(productQuantities));
+    }
+
+    private void increment(String sql, Map<String, Integer> quantities) {
+        if (quantities.isEmpty()) return;
+
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        quantities.forEach((id, quantity) -> args.add(new Object[] {quantity, id}));
+
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    private void decrement(String sql, Map<String, Integer> quantities) {
+        if (quantities.isEmpty()) return;
+
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        quantities.forEach((id, quantity) -> args.add(new Object[] {quantity, id, quantity}));
+
+        int[] updated = jdbcTemplate.batchUpdate(sql, args);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                log.info("Stock reservation rejected for {}", args.get(i)[1]);
+                throw new AppException(ErrorCode.QUANTITY_NOT_ENOUGH);
+            }
+        }
+    }
+}
@@ -19,8 +19,6 @@ import com.hkteam.ecommerce_platform.dto.request.StoreRegistrationRequest;
 import com.hkteam.ecommerce_platform.dto.request.StoreUpdateRequest;
 import com.hkteam.ecommerce_platform.dto.response.*;
 import com.hkteam.ecommerce_platform.entity.order.Order;
-import com.hkteam.ecommerce_platform.entity.order.OrderStatusHistory;
-import com.hkteam.ecommerce_platform.entity.product.Product;
 import com.hkteam.ecommerce_platform.entity.user.Address;
 import com.hkteam.ecommerce_platform.entity.user.Store;
 import com.hkteam.ecommerce_platform.entity.user.User;
@@ -52,6 +50,9 @@ public class StoreService {
     RoleRepository roleRepository;
     ProductElasticsearchRepository elasticsearchRepository;
     UserRepository userRepository;
+    StatisticRollupService statisticRollupService;
+    StoreStatisticsRepository storeStatisticsRepository;
+    PresenceService presenceService;
 
     @PreAuthorize("hasRole('ADMIN')")
     public PaginationResponse<StoreResponse> getAllStores(
@@ -187,6 +188,7 @@ public class StoreService {
             log.info("Error while register store: " + e.getMessage());
             throw new AppException(ErrorCode.UNKNOWN_ERROR);
         }
+        statisticRollupService.recordNewSeller();
 
         return storeMapper.toStoreRegistrationResponse(store);
     }
@@ -312,88 +314,42 @@ public class StoreService {
             throw new AppException(ErrorCode.STORE_NOT_FOUND);
         }
 
-        Map<String, Long> orderStatusCounts = store.getOrders().stream()
-                .filter(order -> Objects.nonNull(order.getOrderStatusHistories())
-                        && !order.getOrderStatusHistories().isEmpty())
-                .collect(Collectors.groupingBy(
-                        order -> {
-                            var latestStatusHistory = order.getOrderStatusHistories().stream()
-                                    .max(Comparator.comparing(OrderStatusHistory::getCreatedAt));
-                            return latestStatusHistory
-                                    .map(orderStatusHistory ->
-                                            orderStatusHistory.getOrderStatus().getName())
-                                    .orElseThrow(() -> new AppException(ErrorCode.STATUS_NOT_FOUND));
-                        },
-                        Collectors.counting()));
+        Map<String, Long> orderStatusCounts = new HashMap<>();
+        storeStatisticsRepository
+                .countOrdersByCurrentStatus(store.getId())
+                .forEach(count -> orderStatusCounts.put(count.getStatus(), count.getTotal()));
 
         long numberOfOrdersConfirmed = orderStatusCounts.getOrDefault("CONFIRMED", 0L);
         long numberOfOrdersPreparing = orderStatusCounts.getOrDefault("PREPARING", 0L);
         long numberOfOrdersWaitingForShipping = orderStatusCounts.getOrDefault("WAITING_FOR_SHIPPING", 0L);
         long numberOfOrdersCancelled = orderStatusCounts.getOrDefault("CANCELLED", 0L);
 
-        long numberOfProductsTemporarilyBlocked =
-                store.getProducts().stream().filter(Product::isBlocked).count();
-        long numberOfProductsOutOfStock = store.getProducts().stream()
-                .filter(product -> product.getQuantity() == 0 && !product.isBlocked())
-                .count();
+        var productStockCount = storeStatisticsRepository.countProductStock(store.getId());
+        long numberOfProductsTemporarilyBlocked = productStockCount.getBlocked();
+        long numberOfProductsOutOfStock = productStockCount.getOutOfStock();
+
+        ZoneId zoneId = ZoneId.systemDefault();
+        LocalDate today = LocalDate.now(zoneId);
+        Map<String, BigDecimal> salesByDate = new HashMap<>();
+        storeStatisticsRepository
+                .sumDeliveredSalesByDay(
+                        store.getId(),
+                        today.minusDays(6).atStartOfDay(zoneId).toInstant(),
+                        today.plusDays(1).atStartOfDay(zoneId).toInstant(),
+                        zoneId.getId())
+                .forEach(sales -> salesByDate.put(sales.getDate(), sales.getRevenue()));
 
         List<StoreSalesLastSevenDay> storeSalesLastSevenDays = IntStream.rangeClosed(0, 6)
                 .mapToObj(day -> {
-                    LocalDate targetDate = LocalDate.now().minusDays(day);
-                    BigDecimal dailySales = store.getOrders().stream()
-                            .filter(order -> {
-                                var latestStatusHistory = order.getOrderStatusHistories().stream()
-                                        .max(Comparator.comparing(OrderStatusHistory::getCreatedAt));
-
-                                return latestStatusHistory.isPresent()
-                                        && "DELIVERED"
-                                                .equals(latestStatusHistory
-                                                        .get()
-                                                        .getOrderStatus()
-                                                        .getName());
-                            })
-                            .filter(order -> {
-                                LocalDate latestStatusDate = order.getOrderStatusHistories().stream()
-                                        .max(Comparator.comparing(OrderStatusHistory::getCreatedAt))
-                                        .map(OrderStatusHistory::getCreatedAt)
-                                        .map(instant -> instant.atZone(ZoneId.systemDefault())
-                                                .toLocalDate())
-                                        .orElseThrow(() -> new AppException(ErrorCode.STATUS_NOT_FOUND));
-                                return latestStatusDate.equals(targetDate);
-                            })
-                            .map(order -> order.getTotal().subtract(order.getDiscount()))
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
+                    String targetDate = today.minusDays(day).toString();
                     return StoreSalesLastSevenDay.builder()
-                            .date(targetDate.toString())
-                            .revenue(dailySales)
+                            .date(targetDate)
+                            .revenue(salesByDate.getOrDefault(targetDate, BigDecimal.ZERO))
                             .build();
                 })
                 .toList();
 
-        BigDecimal dailyRevenue = store.getOrders().stream()
-                .filter(order -> {
-                    var latestStatusHistory = order.getOrderStatusHistories().stream()
-                            .max(Comparator.comparing(OrderStatusHistory::getCreatedAt));
-
-                    return latestStatusHistory.isPresent()
-                            && "DELIVERED"
-                                    .equals(latestStatusHistory
-                                            .get()
-                                            .getOrderStatus()
-                                            .getName());
-                })
-                .filter(order -> {
-                    LocalDate latestStatusDate = order.getOrderStatusHistories().stream()
-                            .max(Comparator.comparing(OrderStatusHistory::getCreatedAt))
-                            .map(OrderStatusHistory::getCreatedAt)
-                            .map(instant ->
-                                    instant.atZone(ZoneId.systemDefault()).toLocalDate())
-                            .orElseThrow(() -> new AppException(ErrorCode.STATUS_NOT_FOUND));
-                    return latestStatusDate.equals(LocalDate.now());
-                })
-                .map(order -> order.getTotal().subtract(order.getDiscount()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal dailyRevenue = salesByDate.getOrDefault(today.toString(), BigDecimal.ZERO);
 
         long numberOfOrdersDelivered = orderStatusCounts.getOrDefault("DELIVERED", 0L);
         long numberOfOrdersPending = orderStatusCounts.getOrDefault("PENDING", 0L);
@@ -424,7 +380,8 @@ public class StoreService {
 
         User user = store.getUser();
         StoreCheckOnlineStatus checkOnlineStatus = new StoreCheckOnlineStatus();
-        checkOnlineStatus.setOnline(user.isOnline());
+        checkOnlineStatus.setOnline(presenceService.isOnline(user.getId()));
+        checkOnlineStatus.setLastSeenAt(user.getLastSeenAt());
         return checkOnlineStatus;
     }
 }
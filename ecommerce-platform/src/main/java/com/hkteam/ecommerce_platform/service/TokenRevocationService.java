@@ -0,0 +1,117 @@
+package com.hkteam.ecommerce_platform.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.hkteam.ecommerce_platform.entity.authorization.InvalidatedToken;
+import com.hkteam.ecommerce_platform.repository.InvalidatedTokenRepository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class TokenRevocationService implements MessageListener {
+    public static final String REVOCATION_CHANNEL = "token:revocation";
+    static final String SEPARATOR = "\n";
+
+    InvalidatedTokenRepository invalidatedTokenRepository;
+    StringRedisTemplate redisTemplate;
+
+    // jti -> expiry time in epoch millis, only tokens that have not expired yet are kept
+    Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    @NonFinal
+    @Value("${jwt.purge-batch-size:1000}")
+    int purgeBatchSize;
+
+    @NonFinal
+    @Value("${jwt.refreshable-duration}")
+    long refreshableDuration;
+
+    @NonFinal
+    volatile boolean loaded = false;
+
+    // expiryTime is the end of the refresh window of the token, not its access expiry
+    public void revoke(String jti, Date expiryTime) {
+        invalidatedTokenRepository.save(
+                InvalidatedToken.builder().id(jti).expiryTime(expiryTime).build());
+        revokedTokens.put(jti, expiryTime.getTime());
+
+        try {
+            redisTemplate.convertAndSend(REVOCATION_CHANNEL, jti + SEPARATOR + expiryTime.getTime());
+        } catch (Exception e) {
+            log.error("Error when publish token revocation {}: {}", jti, e.getMessage());
+        }
+    }
+
+    public boolean isRevoked(String jti) {
+        if (Objects.isNull(jti)) return false;
+        if (revokedTokens.containsKey(jti)) return true;
+
+        // Until the first sync from the database completes the local set may be incomplete.
+        return !loaded && invalidatedTokenRepository.existsById(jti);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${jwt.revocation-resync-delay:300000}")
+    public void resync() {
+        long now = System.currentTimeMillis();
+        try {
+            invalidatedTokenRepository
+                    .findAllByExpiryTimeAfter(new Date(now))
+                    .forEach(token -> revokedTokens.put(
+                            token.getId(), token.getExpiryTime().getTime()));
+            loaded = true;
+        } catch (Exception e) {
+            log.error("Error when load revoked tokens: {}", e.getMessage());
+        }
+
+        revokedTokens.values().removeIf(expiryTime -> expiryTime < now);
+        log.info("Revoked token set holds {} tokens", revokedTokens.size());
+    }
+
+    // Each batch commits on its own so the purge never holds locks on a large part of the table.
+    @Scheduled(initialDelayString = "${jwt.purge-delay:3600000}", fixedDelayString = "${jwt.purge-delay:3600000}")
+    public void purgeExpired() {
+        // Rows written before revocations carried the refresh window only hold the access expiry, keeping every
+        // row for another refresh window covers those too
+        Date before = new Date(System.currentTimeMillis() - refreshableDuration * 1000);
+        long startedAt = System.nanoTime();
+        long purged = 0;
+        int deleted;
+
+        do {
+            deleted = invalidatedTokenRepository.deleteExpiredBatch(before, purgeBatchSize);
+            purged += deleted;
+        } while (deleted >= purgeBatchSize);
+
+        log.info("Purged {} expired invalidated tokens in {} ms", purged, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 2);
+        if (parts.length < 2) return;
+
+        try {
+            revokedTokens.put(parts[0], Long.parseLong(parts[1]));
+        } catch (NumberFormatException e) {
+            log.error("Invalid token revocation message: {}", parts[1]);
+        }
+    }
+}
@@ -45,6 +45,7 @@ public class UserService {
     RoleRepository roleRepository;
     AddressRepository addressRepository;
     AuthenticatedUserUtil authenticatedUserUtil;
+    StatisticRollupService statisticRollupService;
 
     public UserResponse createUsers(UserCreationRequest request) {
 
@@ -67,6 +68,7 @@ public class UserService {
         } catch (DataIntegrityViolationException e) {
             throw new AppException(ErrorCode.USER_EXISTED);
         }
+        statisticRollupService.recordNewCustomer();
 
         return userMapper.toUserResponse(user);
     }
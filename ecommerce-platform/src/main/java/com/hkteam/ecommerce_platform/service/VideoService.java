@@ -1,12 +1,7 @@
 package com.hkteam.ecommerce_platform.service;
 
-import java.io.IOException;
 import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -38,9 +33,10 @@ public class VideoService {
     CloudinaryService cloudinaryService;
     ProductRepository productRepository;
     AuthenticatedUserUtil authenticatedUserUtil;
-    ExecutorService executorService = Executors.newFixedThreadPool(5);
     ProductElasticsearchRepository productElasticsearchRepository;
     ReviewRepository reviewRepository;
+    MediaSpoolService mediaSpoolService;
+    VideoUploadService videoUploadService;
 
     @PreAuthorize("hasRole('SELLER')")
     public VideoResponse uploadVideoProduct(String productId, MultipartFile videoFile) {
@@ -62,7 +58,8 @@ public class VideoService {
         if (!store.getUser().getId().equals(user.getId())) {
             throw new AppException(ErrorCode.UNAUTHORIZED);
         }
-        asyncUploadVideo(product.getId(), videoFile);
+        videoUploadService.submitSpooledVideo(
+                product.getId(), user.getId(), mediaSpoolService.spool(videoFile), videoFile.getSize());
         videoResponse = VideoResponse.builder()
                 .productId(productId)
                 .videoUrl("update processing, please wait")
@@ -71,41 +68,6 @@ public class VideoService {
         return videoResponse;
     }
 
-    @Async
-    @Transactional
-    void asyncUploadVideo(String productId, MultipartFile videoFile) {
-        executorService.submit(() -> {
-            try {
-                var video = cloudinaryService.uploadVideo(
-                        videoFile.getBytes(),
-                        TypeImage.MAIN_VIDEO_OF_PRODUCT.toString().toLowerCase());
-
-                if (Objects.isNull(video.get("url"))) {
-                    log.error("Error while uploading video: {}", productId);
-                }
-                Product product = productRepository
-                        .findById(productId)
-                        .orElseThrow(() -> new AppException(ErrorCode.PRODUCT_NOT_FOUND));
-
-                if (product.getVideoUrl() != null) {
-                    cloudinaryService.deleteVideo(product.getVideoUrl());
-                }
-
-                productRepository.updateVideoUrlById(video.get("url").toString(), productId);
-                var esPro =
-                        productElasticsearchRepository.findById(product.getId()).orElse(null);
-                if (esPro != null) {
-                    esPro.setVideoUrl(video.get("url").toString());
-                }
-
-                productElasticsearchRepository.save(esPro);
-
-            } catch (IOException e) {
-                log.error("Error processing video: {}", e.getMessage());
-            }
-        });
-    }
-
     @PreAuthorize("hasRole('SELLER')")
     @Transactional
     public void deleteProductVideo(String productId) {
@@ -155,14 +117,15 @@ public class VideoService {
         var review =
                 reviewRepository.findById(longReviewId).orElseThrow(() -> new AppException(ErrorCode.REVIEW_NOT_FOUND));
 
+        String fileReference = mediaSpoolService.spool(request.getVideo());
         try {
             if (review.getVideoUrl() != null && !review.getVideoUrl().isEmpty()) {
                 cloudinaryService.deleteVideo(review.getVideoUrl());
             }
 
-            byte[] videoBytes = request.getVideo().getBytes();
-            Map<String, Object> uploadResult = cloudinaryService.uploadVideo(
-                    videoBytes, TypeImage.VIDEO_REVIEW.name().toLowerCase());
+            Map<String, Object> uploadResult = cloudinaryService.uploadLargeVideo(
+                    mediaSpoolService.resolve(fileReference),
+                    TypeImage.VIDEO_REVIEW.name().toLowerCase());
             if (uploadResult.get("url") == null) {
                 throw new AppException(ErrorCode.UPLOAD_FILE_FAILED);
             }
@@ -181,6 +144,8 @@ public class VideoService {
         } catch (Exception e) {
             log.error("Error while uploading review video: {}", e.getMessage());
             throw new AppException(ErrorCode.UPLOAD_FILE_FAILED);
+        } finally {
+            mediaSpoolService.delete(fileReference);
         }
     }
 }
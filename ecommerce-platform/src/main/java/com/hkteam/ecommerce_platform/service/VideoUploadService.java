@@ -0,0 +1,337 @@
+package com.hkteam.ecommerce_platform.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+
+import com.hkteam.ecommerce_platform.dto.request.VideoUploadInitRequest;
+import com.hkteam.ecommerce_platform.dto.response.VideoUploadResponse;
+import com.hkteam.ecommerce_platform.entity.product.Product;
+import com.hkteam.ecommerce_platform.enums.TypeImage;
+import com.hkteam.ecommerce_platform.enums.VideoUploadStatus;
+import com.hkteam.ecommerce_platform.exception.AppException;
+import com.hkteam.ecommerce_platform.exception.ErrorCode;
+import com.hkteam.ecommerce_platform.repository.ProductElasticsearchRepository;
+import com.hkteam.ecommerce_platform.repository.ProductRepository;
+import com.hkteam.ecommerce_platform.util.AuthenticatedUserUtil;
+import com.hkteam.ecommerce_platform.util.VideoUtils;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class VideoUploadService {
+    static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    CloudinaryService cloudinaryService;
+    MediaSpoolService mediaSpoolService;
+    ProductRepository productRepository;
+    ProductElasticsearchRepository productElasticsearchRepository;
+    AuthenticatedUserUtil authenticatedUserUtil;
+
+    // Sessions live on the node that created them, chunks of one upload must reach the same node
+    Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    @NonFinal
+    @Value("${video-upload.parallelism:2}")
+    int parallelism;
+
+    @NonFinal
+    @Value("${video-upload.queue-capacity:20}")
+    int queueCapacity;
+
+    @NonFinal
+    @Value("${video-upload.max-chunk-size:10485760}")
+    long maxChunkSize;
+
+    @NonFinal
+    @Value("${video-upload.session-ttl:6h}")
+    Duration sessionTtl;
+
+    @NonFinal
+    ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                parallelism,
+                parallelism,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "video-upload-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @PreAuthorize("hasRole('SELLER')")
+    public VideoUploadResponse initUpload(String productId, VideoUploadInitRequest request) {
+        VideoUtils.validateVideo(request.getFileName(), request.getTotalSize());
+        if (Objects.isNull(request.getChecksum()) || request.getChecksum().isBlank())
+            throw new AppException(ErrorCode.VIDEO_CHECKSUM_MISMATCH);
+
+        Product product =
+                productRepository.findById(productId).orElseThrow(() -> new AppException(ErrorCode.PRODUCT_NOT_FOUND));
+        if (Boolean.FALSE.equals(authenticatedUserUtil.isOwner(product))) {
+            throw new AppException(ErrorCode.UNAUTHORIZED);
+        }
+
+        UploadSession session = new UploadSession(
+                UUID.randomUUID().toString(),
+                productId,
+                authenticatedUserUtil.getAuthenticatedUserSummary().id(),
+                mediaSpoolService.create(),
+                request.getTotalSize(),
+                request.getChecksum().trim().toLowerCase(Locale.ROOT));
+        sessions.put(session.id, session);
+
+        return toResponse(session);
+    }
+
+    @PreAuthorize("hasRole('SELLER')")
+    public VideoUploadResponse appendChunk(String uploadId, long offset, InputStream chunk) {
+        UploadSession session = getOwnedSession(uploadId);
+
+        synchronized (session) {
+            if (session.status != VideoUploadStatus.UPLOADING) throw new AppException(ErrorCode.VIDEO_UPLOAD_CLOSED);
+            if (offset != session.receivedBytes) throw new AppException(ErrorCode.VIDEO_UPLOAD_OFFSET_MISMATCH);
+
+            Path path = mediaSpoolService.resolve(session.fileReference).toPath();
+            long limit = Math.min(maxChunkSize, session.totalSize - offset);
+            long written = 0;
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.position(offset);
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                int read;
+                while ((read = chunk.read(buffer)) != -1) {
+                    written += read;
+                    if (written > limit) {
+                        channel.truncate(offset);
+                        throw new AppException(ErrorCode.SIZE_TOO_LARGE);
+                    }
+                    channel.write(ByteBuffer.wrap(buffer, 0, read));
+                }
+            } catch (IOException e) {
+                // A broken chunk is dropped entirely so the client can resend it from the same offset
+                log.error("Error when append chunk to video upload {}: {}", uploadId, e.getMessage());
+                truncate(path, offset);
+                throw new AppException(ErrorCode.UPLOAD_FILE_FAILED);
+            }
+
+            session.receivedBytes = offset + written;
+            session.lastActivityAt = Instant.now();
+            return toResponse(session);
+        }
+    }
+
+    @PreAuthorize("hasRole('SELLER')")
+    public VideoUploadResponse completeUpload(String uploadId) {
+        UploadSession session = getOwnedSession(uploadId);
+
+        synchronized (session) {
+            if (session.status != VideoUploadStatus.UPLOADING) throw new AppException(ErrorCode.VIDEO_UPLOAD_CLOSED);
+            if (session.receivedBytes != session.totalSize) throw new AppException(ErrorCode.VIDEO_UPLOAD_INCOMPLETE);
+
+            if (!session.checksum.equals(sha256(session.fileReference))) {
+                discard(session);
+                throw new AppException(ErrorCode.VIDEO_CHECKSUM_MISMATCH);
+            }
+
+            session.status = VideoUploadStatus.PROCESSING;
+            session.lastActivityAt = Instant.now();
+            try {
+                executor.execute(() -> process(session));
+            } catch (RejectedExecutionException e) {
+                // Chunks stay on disk, the client can call complete again later
+                session.status = VideoUploadStatus.UPLOADING;
+                throw new AppException(ErrorCode.VIDEO_PROCESSING_BUSY);
+            }
+            return toResponse(session);
+        }
+    }
+
+    @PreAuthorize("hasRole('SELLER')")
+    public VideoUploadResponse getUpload(String uploadId) {
+        return toResponse(getOwnedSession(uploadId));
+    }
+
+    // Video already spooled by a single multipart request, goes straight to processing
+    public String submitSpooledVideo(String productId, String ownerId, String fileReference, long size) {
+        UploadSession session =
+                new UploadSession(UUID.randomUUID().toString(), productId, ownerId, fileReference, size, null);
+        session.receivedBytes = size;
+        session.status = VideoUploadStatus.PROCESSING;
+        sessions.put(session.id, session);
+
+        try {
+            executor.execute(() -> process(session));
+        } catch (RejectedExecutionException e) {
+            discard(session);
+            throw new AppException(ErrorCode.VIDEO_PROCESSING_BUSY);
+        }
+        return session.id;
+    }
+
+    @Scheduled(fixedDelayString = "${video-upload.cleanup-delay:600000}")
+    public void deleteExpiredSessions() {
+        Instant threshold = Instant.now().minus(sessionTtl);
+        sessions.values().stream()
+                .filter(session ->
+                        session.status != VideoUploadStatus.PROCESSING && session.lastActivityAt.isBefore(threshold))
+                .forEach(this::discard);
+    }
+
+    private void process(UploadSession session) {
+        try {
+            Map<String, Object> video = cloudinaryService.uploadLargeVideo(
+                    mediaSpoolService.resolve(session.fileReference),
+                    TypeImage.MAIN_VIDEO_OF_PRODUCT.toString().toLowerCase());
+            if (Objects.isNull(video.get("url"))) throw new AppException(ErrorCode.UPLOAD_FILE_FAILED);
+
+            String videoUrl = video.get("url").toString();
+            updateProductVideo(session.productId, videoUrl);
+
+            session.videoUrl = videoUrl;
+            session.status = VideoUploadStatus.COMPLETED;
+            log.info("Complete upload video for product: {}", session.productId);
+        } catch (Exception e) {
+            log.error("Error processing video for product {}: {}", session.productId, e.getMessage());
+            session.status = VideoUploadStatus.FAILED;
+        } finally {
+            mediaSpoolService.delete(session.fileReference);
+            session.lastActivityAt = Instant.now();
+        }
+    }
+
+    private void updateProductVideo(String productId, String videoUrl) {
+        Product product =
+                productRepository.findById(productId).orElseThrow(() -> new AppException(ErrorCode.PRODUCT_NOT_FOUND));
+
+        if (Objects.nonNull(product.getVideoUrl())) {
+            try {
+                cloudinaryService.deleteVideo(product.getVideoUrl());
+            } catch (IOException e) {
+                log.error("Error when delete old video of product {}: {}", productId, e.getMessage());
+            }
+        }
+
+        productRepository.updateVideoUrlById(videoUrl, productId);
+        productElasticsearchRepository.findById(productId).ifPresent(esProduct -> {
+            esProduct.setVideoUrl(videoUrl);
+            productElasticsearchRepository.save(esProduct);
+        });
+    }
+
+    private UploadSession getOwnedSession(String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (Objects.isNull(session)) throw new AppException(ErrorCode.VIDEO_UPLOAD_NOT_FOUND);
+
+        if (!session.ownerId.equals(
+                authenticatedUserUtil.getAuthenticatedUserSummary().id())) {
+            throw new AppException(ErrorCode.UNAUTHORIZED);
+        }
+        return session;
+    }
+
+    private void discard(UploadSession session) {
+        sessions.remove(session.id);
+        mediaSpoolService.delete(session.fileReference);
+    }
+
+    private void truncate(Path path, long size) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        } catch (IOException e) {
+            log.error("Error when truncate spool file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private String sha256(String fileReference) {
+        try (InputStream input =
+                Files.newInputStream(mediaSpoolService.resolve(fileReference).toPath())) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.error("Error when compute checksum of {}: {}", fileReference, e.getMessage());
+            throw new AppException(ErrorCode.UPLOAD_FILE_FAILED);
+        }
+    }
+
+    private VideoUploadResponse toResponse(UploadSession session) {
+        return VideoUploadResponse.builder()
+                .uploadId(session.id)
+                .productId(session.productId)
+                .status(session.status)
+                .receivedBytes(session.receivedBytes)
+                .totalSize(session.totalSize)
+                .videoUrl(session.videoUrl)
+                .build();
+    }
+
+    private static final class UploadSession {
+        final String id;
+        final String productId;
+        final String ownerId;
+        final String fileReference;
+        final long totalSize;
+        final String checksum;
+
+        volatile VideoUploadStatus status = VideoUploadStatus.UPLOADING;
+        volatile long receivedBytes;
+        volatile String videoUrl;
+        volatile Instant lastActivityAt = Instant.now();
+
+        UploadSession(
+                String id, String productId, String ownerId, String fileReference, long totalSize, String checksum) {
+            this.id = id;
+            this.productId = productId;
+            this.ownerId = ownerId;
+            this.fileReference = fileReference;
+            this.totalSize = totalSize;
+            this.checksum = checksum;
+        }
+    }
+}
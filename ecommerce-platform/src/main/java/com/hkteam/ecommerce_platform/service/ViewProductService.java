@@ -70,7 +70,7 @@ public class ViewProductService {
     @Transactional
     @PreAuthorize("hasRole('USER')")
     public void changeCountViewProduct(String productId) {
-        String userId = authenticatedUserUtil.getAuthenticatedUser().getId();
+        String userId = authenticatedUserUtil.getAuthenticatedUserSummary().id();
 
         ViewProductKey viewProductKey = new ViewProductKey(userId, productId);
 
@@ -1,15 +1,26 @@
 package com.hkteam.ecommerce_platform.util;
 
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import com.hkteam.ecommerce_platform.entity.authorization.Role;
 import com.hkteam.ecommerce_platform.entity.order.Order;
 import com.hkteam.ecommerce_platform.entity.product.Product;
 import com.hkteam.ecommerce_platform.entity.product.Value;
 import com.hkteam.ecommerce_platform.entity.product.Variant;
 import com.hkteam.ecommerce_platform.entity.user.Store;
 import com.hkteam.ecommerce_platform.entity.user.User;
+import com.hkteam.ecommerce_platform.enums.RoleName;
 import com.hkteam.ecommerce_platform.exception.AppException;
 import com.hkteam.ecommerce_platform.exception.ErrorCode;
 import com.hkteam.ecommerce_platform.repository.UserRepository;
@@ -19,13 +30,37 @@ import lombok.RequiredArgsConstructor;
 @Component
 @RequiredArgsConstructor
 public class AuthenticatedUserUtil {
+    private static final String USER_ATTRIBUTE = AuthenticatedUserUtil.class.getName() + ".user";
+    private static final String SUMMARY_ATTRIBUTE = AuthenticatedUserUtil.class.getName() + ".summary";
+    private static final String ROLE_PREFIX = "ROLE_";
+
     private final UserRepository userRepository;
 
+    public record AuthenticatedUser(String id, String username, Set<RoleName> roles) {}
+
     public User getAuthenticatedUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return userRepository
-                .findByUsername(authentication.getName())
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        String username = getAuthenticatedUsername();
+        return memoize(USER_ATTRIBUTE, username, User::getUsername, () -> userRepository
+                .findByUsername(username)
+                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED)));
+    }
+
+    public AuthenticatedUser getAuthenticatedUserSummary() {
+        String username = getAuthenticatedUsername();
+        return memoize(SUMMARY_ATTRIBUTE, username, AuthenticatedUser::username, () -> {
+            User user = getMemoized(USER_ATTRIBUTE, username, User::getUsername);
+            if (Objects.nonNull(user)) {
+                Set<RoleName> roles = EnumSet.noneOf(RoleName.class);
+                if (Objects.nonNull(user.getRoles()))
+                    user.getRoles().stream().map(Role::getName).forEach(roles::add);
+                return new AuthenticatedUser(user.getId(), username, roles);
+            }
+
+            String id = userRepository
+                    .findIdByUsername(username)
+                    .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+            return new AuthenticatedUser(id, username, getAuthenticatedRoles());
+        });
     }
 
     public Boolean isOwner(Value value) {
@@ -42,10 +77,50 @@ public class AuthenticatedUserUtil {
     }
 
     public Boolean isOwner(Store store) {
-        return getAuthenticatedUser().getId().equals(store.getUser().getId());
+        return getAuthenticatedUserSummary().id().equals(store.getUser().getId());
     }
 
     public Boolean isOwner(Order order) {
         return isOwner(order.getStore());
     }
+
+    private String getAuthenticatedUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication.getName();
+    }
+
+    private Set<RoleName> getAuthenticatedRoles() {
+        Set<RoleName> roles = EnumSet.noneOf(RoleName.class);
+        for (GrantedAuthority authority :
+                SecurityContextHolder.getContext().getAuthentication().getAuthorities()) {
+            String name = authority.getAuthority();
+            if (Objects.isNull(name) || !name.startsWith(ROLE_PREFIX)) continue;
+            try {
+                roles.add(RoleName.valueOf(name.substring(ROLE_PREFIX.length())));
+            } catch (IllegalArgumentException e) {
+                // Authorities that are not roles of this application are ignored.
+            }
+        }
+        return roles;
+    }
+
+    // Outside a web request (listeners, scheduled jobs) there is nowhere to keep the value, so it is loaded every time.
+    private <T> T memoize(String attribute, String username, Function<T, String> owner, Supplier<T> loader) {
+        T value = getMemoized(attribute, username, owner);
+        if (Objects.nonNull(value)) return value;
+
+        value = loader.get();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (Objects.nonNull(attributes)) attributes.setAttribute(attribute, value, RequestAttributes.SCOPE_REQUEST);
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getMemoized(String attribute, String username, Function<T, String> owner) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (Objects.isNull(attributes)) return null;
+
+        T value = (T) attributes.getAttribute(attribute, RequestAttributes.SCOPE_REQUEST);
+        return Objects.nonNull(value) && username.equals(owner.apply(value)) ? value : null;
+    }
 }
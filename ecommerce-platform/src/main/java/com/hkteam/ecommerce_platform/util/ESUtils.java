@@ -1,15 +1,30 @@
 package com.hkteam.ecommerce_platform.util;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hkteam.ecommerce_platform.exception.AppException;
+import com.hkteam.ecommerce_platform.exception.ErrorCode;
 
 import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.AggregationRange;
 import co.elastic.clients.elasticsearch._types.query_dsl.*;
 import co.elastic.clients.json.JsonData;
 import lombok.experimental.UtilityClass;
@@ -17,21 +32,22 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 public class ESUtils {
     private static final Logger log = LoggerFactory.getLogger(ESUtils.class);
+    private static final ObjectMapper CURSOR_MAPPER = new ObjectMapper();
 
-    public MultiMatchQuery createAutoSuggestMatchQuery(String partialProductName) {
-        return new MultiMatchQuery.Builder()
-                .fields(List.of("name", "description"))
-                .query(partialProductName)
-                .fuzziness("AUTO")
-                .operator(Operator.Or)
-                .analyzer("standard")
-                .build();
-    }
+    public static final String SUGGEST_FIELD = "suggest";
+    public static final String SUGGEST_CONTEXT = "scope";
+    private static final String SUGGEST_SCOPE_ALL = "all";
+    private static final String SUGGEST_SCOPE_CATEGORY = "category:";
+    private static final String SUGGEST_SCOPE_STORE = "store:";
 
-    public Supplier<Query> createSupplierAutoSuggest(String partialProductName) {
-        Supplier<Query> supplier = () -> Query.of(q -> q.multiMatch(createAutoSuggestMatchQuery(partialProductName)));
-        return supplier;
-    }
+    public static final String FACET_CATEGORY = "category";
+    public static final String FACET_BRAND = "brand";
+    public static final String FACET_PRICE = "price";
+    public static final String FACET_RATING = "rating";
+    public static final String FACET_BUCKETS = "buckets";
+    private static final List<String> FACETS = List.of(FACET_CATEGORY, FACET_BRAND, FACET_PRICE, FACET_RATING);
+    private static final int FACET_TERMS_SIZE = 50;
+    private static final String[] PRICE_BREAKS = {"100000", "500000", "1000000", "5000000"};
 
     public BoolQuery createSearchProducts(
             List<Long> categoryIds,
@@ -41,37 +57,111 @@ public class ESUtils {
             BigDecimal minPrice,
             BigDecimal maxPrice,
             int minRate) {
-        List<Query> queries = new ArrayList<>();
+        List<Query> queries = new ArrayList<>(createFacetFilters(categoryIds, brandIds, minPrice, maxPrice, minRate)
+                .values());
+        queries.addAll(createBaseFilters(storeId));
+
+        return createSearchQuery(search, queries);
+    }
+
+    public BoolQuery createBaseSearchProducts(String storeId, String search) {
+        return createSearchQuery(search, createBaseFilters(storeId));
+    }
+
+    public Map<String, Query> createFacetFilters(
+            List<Long> categoryIds, List<Long> brandIds, BigDecimal minPrice, BigDecimal maxPrice, int minRate) {
+        Map<String, Query> filters = new LinkedHashMap<>();
 
         if (categoryIds != null && !categoryIds.isEmpty()) {
             List<FieldValue> categoryFieldValues =
                     categoryIds.stream().map(FieldValue::of).collect(Collectors.toList());
-            queries.add(Query.of(
-                    q -> q.terms(t -> t.field("categoryId").terms(terms -> terms.value(categoryFieldValues)))));
+            filters.put(
+                    FACET_CATEGORY,
+                    Query.of(
+                            q -> q.terms(t -> t.field("categoryId").terms(terms -> terms.value(categoryFieldValues)))));
         }
         if (brandIds != null && !brandIds.isEmpty()) {
             List<FieldValue> brandFieldValues =
                     brandIds.stream().map(FieldValue::of).collect(Collectors.toList());
-            queries.add(Query.of(q -> q.terms(t -> t.field("brandId").terms(terms -> terms.value(brandFieldValues)))));
+            filters.put(
+                    FACET_BRAND,
+                    Query.of(q -> q.terms(t -> t.field("brandId").terms(terms -> terms.value(brandFieldValues)))));
         }
-
-        if (storeId != null) {
-            queries.add(Query.of(q -> q.term(t -> t.field("storeId.keyword").value(storeId))));
+        if (minPrice != null || maxPrice != null) {
+            filters.put(
+                    FACET_PRICE,
+                    Query.of(q -> q.range(r -> {
+                        r.field("salePrice");
+                        if (minPrice != null) r.gte(JsonData.of(minPrice));
+                        if (maxPrice != null) r.lte(JsonData.of(maxPrice));
+                        return r;
+                    })));
         }
-        if (minPrice != null) {
-            queries.add(Query.of(q -> q.range(r -> r.field("salePrice").gte(JsonData.of(minPrice)))));
+        if (minRate > 0) {
+            filters.put(
+                    FACET_RATING, Query.of(q -> q.range(r -> r.field("rating").gte(JsonData.of(minRate)))));
         }
-        if (maxPrice != null) {
-            queries.add(Query.of(q -> q.range(r -> r.field("salePrice").lte(JsonData.of(maxPrice)))));
+
+        return filters;
+    }
+
+    // Each facet is counted under every selected filter except its own, so picking one brand keeps the others.
+    public Map<String, Aggregation> createFacetAggregations(Map<String, Query> facetFilters) {
+        Map<String, Aggregation> aggregations = new LinkedHashMap<>();
+
+        for (String facet : FACETS) {
+            List<Query> otherFilters = facetFilters.entrySet().stream()
+                    .filter(entry -> !entry.getKey().equals(facet))
+                    .map(Map.Entry::getValue)
+                    .toList();
+            Query filter = otherFilters.isEmpty()
+                    ? Query.of(q -> q.matchAll(m -> m))
+                    : Query.of(q -> q.bool(b -> b.filter(otherFilters)));
+
+            aggregations.put(facet, Aggregation.of(a -> a.filter(filter)
+                    .aggregations(FACET_BUCKETS, createFacetBuckets(facet))));
         }
-        if (minRate > 0) {
-            queries.add(Query.of(q -> q.range(r -> r.field("rating").gte(JsonData.of(minRate)))));
+
+        return aggregations;
+    }
+
+    private Aggregation createFacetBuckets(String facet) {
+        return switch (facet) {
+            case FACET_CATEGORY -> Aggregation.of(
+                    a -> a.terms(t -> t.field("categoryId").size(FACET_TERMS_SIZE)));
+            case FACET_BRAND -> Aggregation.of(
+                    a -> a.terms(t -> t.field("brandId").size(FACET_TERMS_SIZE)));
+            case FACET_PRICE -> {
+                List<AggregationRange> ranges = new ArrayList<>();
+                ranges.add(AggregationRange.of(r -> r.to(PRICE_BREAKS[0])));
+                for (int i = 1; i < PRICE_BREAKS.length; i++) {
+                    String from = PRICE_BREAKS[i - 1];
+                    String to = PRICE_BREAKS[i];
+                    ranges.add(AggregationRange.of(r -> r.from(from).to(to)));
+                }
+                ranges.add(AggregationRange.of(r -> r.from(PRICE_BREAKS[PRICE_BREAKS.length - 1])));
+                yield Aggregation.of(a -> a.range(r -> r.field("salePrice").ranges(ranges)));
+            }
+            default -> Aggregation.of(
+                    a -> a.histogram(h -> h.field("rating").interval(1.0).minDocCount(0)));
+        };
+    }
+
+    private List<Query> createBaseFilters(String storeId) {
+        List<Query> queries = new ArrayList<>();
+
+        if (storeId != null) {
+            queries.add(Query.of(q -> q.term(t -> t.field("storeId.keyword").value(storeId))));
         }
 
         queries.add(Query.of(q -> q.term(t -> t.field("isAvailable").value(true))));
         queries.add(Query.of(q -> q.term(t -> t.field("isBlocked").value(false))));
 
-        BoolQuery boolQuery = new BoolQuery.Builder()
+        return queries;
+    }
+
+    private BoolQuery createSearchQuery(String search, List<Query> filters) {
+        return new BoolQuery.Builder()
                 .should(Query.of(q -> q.multiMatch(m -> m.fields(List.of(
                                 "name",
                                 "description",
@@ -84,10 +174,8 @@ public class ESUtils {
                         .fuzziness("AUTO")
                         .operator(Operator.Or)
                         .analyzer("standard"))))
-                .filter(queries)
+                .filter(filters)
                 .build();
-
-        return boolQuery;
     }
 
     public Supplier<Query> createSupplierSearchProducts(
@@ -101,4 +189,63 @@ public class ESUtils {
         return () -> Query.of(
                 q -> q.bool(createSearchProducts(categoryId, brandIds, storeId, search, minPrice, maxPrice, minRate)));
     }
+
+    // A cursor only continues the search it came from, the hash of the query with its filters is checked on decode
+    public String createCursorScope(Query query) {
+        return DigestUtils.md5DigestAsHex(query.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String encodeCursor(String sortKey, String scope, List<FieldValue> sortValues) {
+        try {
+            Map<String, Object> cursor = new LinkedHashMap<>();
+            cursor.put("sort", sortKey);
+            cursor.put("scope", scope);
+            cursor.put("after", sortValues.stream().map(FieldValue::_get).toList());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(CURSOR_MAPPER.writeValueAsBytes(cursor));
+        } catch (JsonProcessingException e) {
+            log.error("Error when encode search cursor: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public List<FieldValue> decodeCursor(String cursor, String sortKey, String scope) {
+        try {
+            JsonNode node = CURSOR_MAPPER.readTree(Base64.getUrlDecoder().decode(cursor));
+            if (!sortKey.equals(node.path("sort").asText())
+                    || !scope.equals(node.path("scope").asText())
+                    || !node.path("after").isArray()) {
+                throw new AppException(ErrorCode.INVALID_SEARCH_CURSOR);
+            }
+
+            List<FieldValue> sortValues = new ArrayList<>();
+            for (JsonNode value : node.get("after")) {
+                if (value.isIntegralNumber()) sortValues.add(FieldValue.of(value.asLong()));
+                else if (value.isNumber()) sortValues.add(FieldValue.of(value.asDouble()));
+                else if (value.isBoolean()) sortValues.add(FieldValue.of(value.asBoolean()));
+                else if (value.isNull()) sortValues.add(FieldValue.NULL);
+                else sortValues.add(FieldValue.of(value.asText()));
+            }
+            return sortValues;
+        } catch (IllegalArgumentException | IOException e) {
+            throw new AppException(ErrorCode.INVALID_SEARCH_CURSOR);
+        }
+    }
+
+    public Completion createProductSuggest(String name, Long categoryId, String storeId) {
+        List<String> scopes = new ArrayList<>();
+        scopes.add(SUGGEST_SCOPE_ALL);
+        if (categoryId != null) scopes.add(SUGGEST_SCOPE_CATEGORY + categoryId);
+        if (storeId != null) scopes.add(SUGGEST_SCOPE_STORE + storeId);
+
+        Completion completion = new Completion(new String[] {name});
+        completion.setContexts(Map.of(SUGGEST_CONTEXT, scopes));
+        return completion;
+    }
+
+    // Every suggestion carries the "all" scope, so a query always names a context.
+    public String createSuggestScope(Long categoryId, String storeId) {
+        if (storeId != null) return SUGGEST_SCOPE_STORE + storeId;
+        if (categoryId != null) return SUGGEST_SCOPE_CATEGORY + categoryId;
+        return SUGGEST_SCOPE_ALL;
+    }
 }
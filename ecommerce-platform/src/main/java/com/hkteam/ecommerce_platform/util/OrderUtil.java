@@ -1,8 +1,11 @@
 package com.hkteam.ecommerce_platform.util;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.springframework.dao.DataIntegrityViolationException;
@@ -25,12 +28,24 @@ import com.hkteam.ecommerce_platform.enums.TransactionStatusName;
 import com.hkteam.ecommerce_platform.exception.AppException;
 import com.hkteam.ecommerce_platform.exception.ErrorCode;
 import com.hkteam.ecommerce_platform.repository.*;
+import com.hkteam.ecommerce_platform.service.EsOutboxService;
+import com.hkteam.ecommerce_platform.service.StatisticRollupService;
+import com.hkteam.ecommerce_platform.service.StockReservationService;
 
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 
 @Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @Slf4j
 public class OrderUtil {
+    StatisticRollupService statisticRollupService;
+    EsOutboxService esOutboxService;
+    StockReservationService stockReservationService;
+
     public String validateSortOrOrder(String value, String[] validValues) {
         return Arrays.asList(validValues).contains(value) ? value : null;
     }
@@ -99,6 +114,18 @@ public class OrderUtil {
                 .orElseThrow(() -> new AppException(ErrorCode.STATUS_HISTORY_NOT_FOUND));
     }
 
+    public void addOrderStatusHistory(Order order, OrderStatus orderStatus, String remarks) {
+        order.getOrderStatusHistories()
+                .add(OrderStatusHistory.builder()
+                        .order(order)
+                        .orderStatus(orderStatus)
+                        .remarks(remarks)
+                        .build());
+        order.setCurrentStatus(orderStatus);
+        order.setCurrentStatusAt(Instant.now());
+        statisticRollupService.recordOrderStatus(order, orderStatus);
+    }
+
     public TransactionStatusHistory getLastTransactionStatusHistory(Order order) {
         return order.getTransaction().getTransactionStatusHistories().stream()
                 .max(Comparator.comparing(TransactionStatusHistory::getCreatedAt))
@@ -113,16 +140,19 @@ public class OrderUtil {
         }
     }
 
-    public void restoreProductQuantity(
-            Order order,
-            ProductRepository productRepository,
-            ProductElasticsearchRepository productElasticsearchRepository,
-            VariantRepository variantRepository) {
+    public void restoreProductQuantity(Order order) {
+        Map<String, Integer> productQuantities = new HashMap<>();
+        Map<String, Integer> variantQuantities = new HashMap<>();
+        collectQuantities(order, productQuantities, variantQuantities);
+
+        stockReservationService.release(productQuantities, variantQuantities);
+        productQuantities.keySet().forEach(id -> esOutboxService.enqueue(id, EsOutboxService.FIELD_QUANTITY));
+    }
+
+    private void collectQuantities(
+            Order order, Map<String, Integer> productQuantities, Map<String, Integer> variantQuantities) {
         for (OrderItem orderItem : order.getOrderItems()) {
             Product product = orderItem.getProduct();
-            var esPro = productElasticsearchRepository
-                    .findById(orderItem.getProduct().getId())
-                    .orElseThrow(() -> new AppException(ErrorCode.PRODUCT_NOT_FOUND));
             if (Objects.nonNull(product.getVariants()) && !product.getVariants().isEmpty()) {
                 Variant variant = product.getVariants().stream()
                         .filter(v -> v.getValues().stream()
@@ -132,22 +162,14 @@ public class OrderUtil {
                         .findFirst()
                         .orElseThrow(() -> new AppException(ErrorCode.VARIANT_NOT_FOUND));
 
-                variantRepository.updateQuantityById(variant.getQuantity() + orderItem.getQuantity(), variant.getId());
+                variantQuantities.merge(variant.getId(), orderItem.getQuantity(), Integer::sum);
             }
-            product.setQuantity(product.getQuantity() + orderItem.getQuantity());
-            productRepository.save(product);
-            esPro.setQuantity(esPro.getQuantity() + orderItem.getQuantity());
-            productElasticsearchRepository.save(esPro);
+            productQuantities.merge(product.getId(), orderItem.getQuantity(), Integer::sum);
         }
     }
 
     public void cancelOneOrder(
-            Order order,
-            OrderStatusRepository orderStatusRepository,
-            ProductRepository productRepository,
-            ProductElasticsearchRepository productElasticsearchRepository,
-            VariantRepository variantRepository,
-            OrderStatusName cancellationStatus) {
+            Order order, OrderStatusRepository orderStatusRepository, OrderStatusName cancellationStatus) {
         try {
             OrderStatusHistory lastStatusHistory = getLastOrderStatusHistory(order);
 
@@ -157,14 +179,9 @@ public class OrderUtil {
                     .findByName(cancellationStatus.name())
                     .orElseThrow(() -> new AppException(ErrorCode.STATUS_NOT_FOUND));
 
-            order.getOrderStatusHistories()
-                    .add(OrderStatusHistory.builder()
-                            .order(order)
-                            .orderStatus(cancelledStatus)
-                            .remarks(lastStatusHistory.getRemarks())
-                            .build());
+            addOrderStatusHistory(order, cancelledStatus, lastStatusHistory.getRemarks());
 
-            restoreProductQuantity(order, productRepository, productElasticsearchRepository, variantRepository);
+            restoreProductQuantity(order);
         } catch (DataIntegrityViolationException e) {
             log.error("Error in function cancelOneOrder at OrderUtil: {}", e.getMessage());
             throw new AppException(ErrorCode.UNKNOWN_ERROR);
@@ -174,10 +191,7 @@ public class OrderUtil {
     public void updateOneOrderStatusByAdmin(
             Order order,
             OrderStatusRepository orderStatusRepository,
-            TransactionStatusRepository transactionStatusRepository,
-            ProductRepository productRepository,
-            ProductElasticsearchRepository productElasticsearchRepository,
-            VariantRepository variantRepository) {
+            TransactionStatusRepository transactionStatusRepository) {
         OrderStatusHistory lastStatusHistory = getLastOrderStatusHistory(order);
 
         OrderStatusName currentStatus =
@@ -187,12 +201,7 @@ public class OrderUtil {
                 .findByName(nextStatusName.name())
                 .orElseThrow(() -> new AppException(ErrorCode.STATUS_NOT_FOUND));
 
-        order.getOrderStatusHistories()
-                .add(OrderStatusHistory.builder()
-                        .order(order)
-                        .orderStatus(nextStatus)
-                        .remarks(lastStatusHistory.getRemarks())
-                        .build());
+        addOrderStatusHistory(order, nextStatus, lastStatusHistory.getRemarks());
 
         try {
             if (order.getTransaction().getPayment().getPaymentMethod().name().equals(PaymentMethod.COD.name())
@@ -210,29 +219,12 @@ public class OrderUtil {
                                 .transaction(order.getTransaction())
                                 .build());
 
-                for (OrderItem orderItem : order.getOrderItems()) {
-                    Product product = orderItem.getProduct();
-                    var esPro = productElasticsearchRepository
-                            .findById(orderItem.getProduct().getId())
-                            .orElseThrow(() -> new AppException(ErrorCode.PRODUCT_NOT_FOUND));
-
-                    if (Objects.nonNull(product.getVariants())
-                            && !product.getVariants().isEmpty()) {
-                        Variant variant = product.getVariants().stream()
-                                .filter(v -> v.getValues().stream()
-                                        .map(Value::getValue)
-                                        .toList()
-                                        .equals(orderItem.getValues()))
-                                .findFirst()
-                                .orElseThrow(() -> new AppException(ErrorCode.VARIANT_NOT_FOUND));
-
-                        variantRepository.updateSoldById(variant.getSold() + orderItem.getQuantity(), variant.getId());
-                    }
-                    product.setSold(product.getSold() + orderItem.getQuantity());
-                    productRepository.save(product);
-                    esPro.setSold(esPro.getSold() + orderItem.getQuantity());
-                    productElasticsearchRepository.save(esPro);
-                }
+                Map<String, Integer> productQuantities = new HashMap<>();
+                Map<String, Integer> variantQuantities = new HashMap<>();
+                collectQuantities(order, productQuantities, variantQuantities);
+
+                stockReservationService.recordSold(productQuantities, variantQuantities);
+                productQuantities.keySet().forEach(id -> esOutboxService.enqueue(id, EsOutboxService.FIELD_SOLD));
             }
         } catch (DataIntegrityViolationException e) {
             log.error("Error in function updateOneOrderStatusByAdmin at OrderUtil: {}", e.getMessage());
@@ -255,12 +247,7 @@ public class OrderUtil {
                 .findByName(nextStatusName.name())
                 .orElseThrow(() -> new AppException(ErrorCode.STATUS_NOT_FOUND));
 
-        order.getOrderStatusHistories()
-                .add(OrderStatusHistory.builder()
-                        .order(order)
-                        .orderStatus(nextStatus)
-                        .remarks(lastStatusHistory.getRemarks())
-                        .build());
+        addOrderStatusHistory(order, nextStatus, lastStatusHistory.getRemarks());
     }
 
     public void setMappingVariantId(OrderItem orderItem, Object orderItemResponse) {
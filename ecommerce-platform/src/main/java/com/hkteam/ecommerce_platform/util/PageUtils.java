@@ -1,5 +1,10 @@
 package com.hkteam.ecommerce_platform.util;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -12,6 +17,11 @@ import lombok.experimental.UtilityClass;
 
 @UtilityClass
 public class PageUtils {
+    static final String CURSOR_SEPARATOR = "|";
+
+    // Position of the last row of a keyset page, sent to clients as an opaque token
+    public record KeysetCursor(Instant at, String id) {}
+
     public int[] validateAndConvertPageAndSize(String pageStr, String sizeStr) {
         int page;
         int size;
@@ -47,4 +57,22 @@ public class PageUtils {
             throw new AppException(ErrorCode.PAGE_NOT_FOUND);
         }
     }
+
+    public String encodeCursor(Instant at, String id) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((at + CURSOR_SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public KeysetCursor decodeCursor(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(CURSOR_SEPARATOR);
+            if (separator < 0) throw new AppException(ErrorCode.INVALID_PAGE_CURSOR);
+
+            return new KeysetCursor(Instant.parse(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new AppException(ErrorCode.INVALID_PAGE_CURSOR);
+        }
+    }
 }
@@ -19,16 +19,20 @@ public class VideoUtils {
     List<String> ACCEPTED_VIDEO_TYPES = Arrays.asList("mp4", "avi", "mov", "mkv");
 
     public void validateVideo(MultipartFile video) {
-        if (video.getSize() > MAX_VIDEO_SIZE) {
+        validateVideo(video.getOriginalFilename(), video.getSize());
+    }
+
+    public void validateVideo(String fileName, long size) {
+        if (size > MAX_VIDEO_SIZE) {
             throw new AppException(ErrorCode.FILE_LIMIT_OF_50MB);
         }
 
-        String extension = getFileExtension(video.getOriginalFilename());
+        String extension = getFileExtension(fileName);
         if (!ACCEPTED_VIDEO_TYPES.contains(extension)) {
             throw new AppException(ErrorCode.ACCEPTED_VIDEO_TYPES);
         }
 
-        if (video.isEmpty()) {
+        if (size <= 0) {
             throw new AppException(ErrorCode.UPLOAD_FILE_FAILED);
         }
     }
@@ -0,0 +1,78 @@
+package com.hkteam.ecommerce_platform.configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.hkteam.ecommerce_platform.dto.response.FacetBucketResponse;
+import com.hkteam.ecommerce_platform.dto.response.PaginationResponse;
+
+class CompactRedisSerializerTest {
+    static final ObjectMapper SMILE = new ObjectMapper(new SmileFactory());
+    static final JavaType TYPE =
+            SMILE.getTypeFactory().constructParametricType(PaginationResponse.class, FacetBucketResponse.class);
+
+    @Test
+    void smallValueIsStoredRaw() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer(SMILE, TYPE, 1024);
+        PaginationResponse<FacetBucketResponse> value = page(2);
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertEquals(0, bytes[0]);
+        assertEquals(value, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void largeValueIsCompressedWithLz4() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer(SMILE, TYPE, 1024);
+        PaginationResponse<FacetBucketResponse> value = page(500);
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertEquals(1, bytes[0]);
+        assertTrue(bytes.length < new CompactRedisSerializer(SMILE, TYPE, 0).serialize(value).length);
+        assertEquals(value, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void compressionCanBeTurnedOff() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer(SMILE, TYPE, 0);
+        PaginationResponse<FacetBucketResponse> value = page(500);
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertEquals(0, bytes[0]);
+        assertEquals(value, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void nullAndUnreadableValuesAreMisses() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer(SMILE, TYPE, 1024);
+
+        assertEquals(0, serializer.serialize(null).length);
+        assertNull(serializer.deserialize(new byte[0]));
+        assertNull(serializer.deserialize(new byte[] {1, 0, 0, 0, 9, 42}));
+    }
+
+    private PaginationResponse<FacetBucketResponse> page(int size) {
+        List<FacetBucketResponse> data = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            data.add(FacetBucketResponse.builder().key("brand-" + i).count(i).build());
+        }
+        return PaginationResponse.<FacetBucketResponse>builder()
+                .data(data)
+                .currentPage(1)
+                .pageSize(size)
+                .totalPages(1)
+                .totalElements(size)
+                .hasPrevious(false)
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.hkteam.ecommerce_platform.configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+class RedisConfigTest {
+    @Test
+    void listenerMessagesAreDispatchedInPublishOrderOnOneThread() throws InterruptedException {
+        ThreadPoolTaskExecutor executor = RedisConfig.createListenerExecutor();
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(500);
+
+        IntStream.range(0, 500)
+                .forEach(i -> executor.execute(() -> {
+                    threads.add(Thread.currentThread().getName());
+                    delivered.add(i);
+                    done.countDown();
+                }));
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(IntStream.range(0, 500).boxed().toList(), delivered);
+        assertEquals(1, threads.size());
+    }
+}
@@ -0,0 +1,139 @@
+package com.hkteam.ecommerce_platform.configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+class TwoTierCacheTest {
+    static final String CACHE = "productCache";
+
+    // Stands in for redis: one remote cache shared by both nodes, published evictions delivered to the other node
+    ConcurrentMapCache remote;
+    List<String> published;
+    TwoTierCacheManager nodeA;
+    TwoTierCacheManager nodeB;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache(CACHE);
+        published = new ArrayList<>();
+        nodeA = node();
+        nodeB = node();
+    }
+
+    @Test
+    void fillAfterRedisDroppedTheKeyEvictsOtherNodes() {
+        Cache cacheA = nodeA.getCache(CACHE);
+        Cache cacheB = nodeB.getCache(CACHE);
+        cacheA.put("slug", new ArrayList<>(List.of("v1")));
+        cacheB.get("slug");
+        published.clear();
+        remote.evict("slug");
+
+        cacheA.put("slug", new ArrayList<>(List.of("v2")));
+        deliver(nodeB);
+
+        assertEquals(List.of("v2"), cacheB.get("slug").get());
+    }
+
+    @Test
+    void nodeIgnoresItsOwnEviction() {
+        Cache cacheA = nodeA.getCache(CACHE);
+        cacheA.put("slug", new ArrayList<>(List.of("v1")));
+
+        deliver(nodeA);
+
+        assertEquals(1, ((TwoTierCache) cacheA).getLocal().estimatedSize());
+    }
+
+    @Test
+    void replacingAValueEvictsItFromOtherNodes() {
+        Cache cacheA = nodeA.getCache(CACHE);
+        Cache cacheB = nodeB.getCache(CACHE);
+        cacheA.put("slug", new ArrayList<>(List.of("v1")));
+        assertEquals(List.of("v1"), cacheB.get("slug").get());
+
+        cacheA.put("slug", new ArrayList<>(List.of("v2")));
+        deliver(nodeB);
+
+        assertEquals(List.of("v2"), cacheB.get("slug").get());
+    }
+
+    @Test
+    void evictAndClearReachOtherNodes() {
+        Cache cacheA = nodeA.getCache(CACHE);
+        Cache cacheB = nodeB.getCache(CACHE);
+        cacheA.put("a", new ArrayList<>(List.of("1")));
+        cacheA.put("b", new ArrayList<>(List.of("2")));
+        cacheB.get("a");
+        cacheB.get("b");
+        published.clear();
+
+        cacheA.evict("a");
+        deliver(nodeB);
+        assertNull(cacheB.get("a"));
+        assertEquals(1, ((TwoTierCache) cacheB).getLocal().estimatedSize());
+
+        cacheA.clear();
+        deliver(nodeB);
+        assertNull(cacheB.get("b"));
+    }
+
+    @Test
+    void localEntriesAreKeyedOnTheKeyObject() {
+        Cache cache = nodeA.getCache(CACHE);
+        cache.put("null", new ArrayList<>(List.of("string key")));
+
+        assertNull(((TwoTierCache) cache).getLocal().getIfPresent(new StringBuilder("null")));
+        assertNotNull(((TwoTierCache) cache).getLocal().getIfPresent("null"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void everyReadGetsItsOwnCopy() {
+        Cache cache = nodeA.getCache(CACHE);
+        cache.put("slug", new ArrayList<>(List.of("v1")));
+
+        ((List<String>) cache.get("slug").get()).add("changed by a caller");
+
+        assertEquals(List.of("v1"), cache.get("slug").get());
+    }
+
+    private TwoTierCacheManager node() {
+        RedisCacheManager remoteCacheManager = mock(RedisCacheManager.class);
+        when(remoteCacheManager.getCache(CACHE)).thenReturn(remote);
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.convertAndSend(eq(TwoTierCacheManager.INVALIDATION_CHANNEL), anyString()))
+                .thenAnswer(invocation -> {
+                    published.add(invocation.getArgument(1));
+                    return 1L;
+                });
+
+        TwoTierCacheManager.LocalCacheSpec spec = new TwoTierCacheManager.LocalCacheSpec(100, Duration.ofMinutes(1));
+        return new TwoTierCacheManager(remoteCacheManager, redisTemplate, Map.of(), spec);
+    }
+
+    private void deliver(TwoTierCacheManager node) {
+        published.forEach(body -> node.onMessage(
+                new DefaultMessage(
+                        TwoTierCacheManager.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                        body.getBytes(StandardCharsets.UTF_8)),
+                null));
+        published.clear();
+    }
+}
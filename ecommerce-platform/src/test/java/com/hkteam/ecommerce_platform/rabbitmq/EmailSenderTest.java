@@ -0,0 +1,133 @@
+package com.hkteam.ecommerce_platform.rabbitmq;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.thymeleaf.TemplateEngine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hkteam.ecommerce_platform.dto.request.SendMailAfterOrderRequest;
+import com.hkteam.ecommerce_platform.entity.order.Order;
+import com.hkteam.ecommerce_platform.entity.payment.Payment;
+import com.hkteam.ecommerce_platform.entity.payment.Transaction;
+import com.hkteam.ecommerce_platform.entity.user.Store;
+import com.hkteam.ecommerce_platform.enums.PaymentMethod;
+import com.hkteam.ecommerce_platform.repository.TransactionRepository;
+
+class EmailSenderTest {
+    JavaMailSender mailSender;
+    TransactionRepository transactionRepository;
+    CustomMessageConverter messageConverter;
+    EmailSender emailSender;
+
+    @BeforeEach
+    void setUp() {
+        mailSender = mock(JavaMailSender.class);
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        when(templateEngine.process(any(String.class), any())).thenReturn("<p></p>");
+        transactionRepository = mock(TransactionRepository.class);
+        messageConverter = new CustomMessageConverter(new ObjectMapper());
+        emailSender = new EmailSender(mailSender, templateEngine, transactionRepository, messageConverter);
+    }
+
+    @Test
+    void onlyTheMessageOwningAFailedEmailIsFailedAndSentTransactionsAreMarked() {
+        Payment first = payment("p1");
+        Payment second = payment("p2");
+        Transaction sent = transaction("t1", first);
+        Transaction failed = transaction("t2", first);
+        when(transactionRepository.findAllForOrderEmailByPaymentIdIn(anyCollection()))
+                .thenReturn(List.of(sent, failed, transaction("t3", second)));
+        doAnswer(invocation -> {
+                    MimeMessage rejected = invocation.getArgument(1);
+                    throw new MailSendException(Map.of(rejected, new IllegalStateException("rejected")));
+                })
+                .when(mailSender)
+                .send(any(MimeMessage[].class));
+
+        PartialBatchFailureException exception = assertThrows(
+                PartialBatchFailureException.class,
+                () -> emailSender.sendMailAfterOrder(List.of(message("p1"), message("p2"))));
+
+        assertEquals(Set.of(0), exception.getFailures().keySet());
+        ArgumentCaptor<List<String>> marked = ArgumentCaptor.captor();
+        verify(transactionRepository).markOrderEmailSent(marked.capture(), any(Instant.class));
+        assertEquals(List.of("t1", "t3"), marked.getValue());
+    }
+
+    @Test
+    void unreadableMessageFailsAloneAsAConversionFailure() {
+        when(transactionRepository.findAllForOrderEmailByPaymentIdIn(anyCollection()))
+                .thenReturn(List.of(transaction("t1", payment("p1"))));
+        Message unreadable = new Message("{".getBytes(), properties());
+
+        PartialBatchFailureException exception = assertThrows(
+                PartialBatchFailureException.class,
+                () -> emailSender.sendMailAfterOrder(List.of(unreadable, message("p1"))));
+
+        assertEquals(Set.of(0), exception.getFailures().keySet());
+        assertInstanceOf(
+                MessageConversionException.class, exception.getFailures().get(0));
+        verify(mailSender).send(any(MimeMessage[].class));
+        verify(transactionRepository).markOrderEmailSent(eq(List.of("t1")), any(Instant.class));
+    }
+
+    @Test
+    void paymentWithAllEmailsSentIsSkipped() {
+        when(transactionRepository.findAllForOrderEmailByPaymentIdIn(anyCollection()))
+                .thenReturn(List.of());
+
+        emailSender.sendMailAfterOrder(List.of(message("p1")));
+
+        verify(mailSender, never()).send(any(MimeMessage[].class));
+    }
+
+    private Message message(String paymentId) {
+        return messageConverter.toMessage(new SendMailAfterOrderRequest("a@b.c", "A", paymentId), properties());
+    }
+
+    private MessageProperties properties() {
+        MessageProperties properties = new MessageProperties();
+        properties.setHeader("messageType", "sendMailAfterOrder");
+        return properties;
+    }
+
+    private Payment payment(String id) {
+        return Payment.builder().id(id).paymentMethod(PaymentMethod.COD).build();
+    }
+
+    private Transaction transaction(String id, Payment payment) {
+        Order order = Order.builder()
+                .id("o" + id)
+                .store(Store.builder().name("store").build())
+                .orderItems(List.of())
+                .total(BigDecimal.TEN)
+                .discount(BigDecimal.ZERO)
+                .shippingFee(BigDecimal.ONE)
+                .grandTotal(BigDecimal.TEN)
+                .createdAt(Instant.now())
+                .build();
+        return Transaction.builder().id(id).payment(payment).order(order).build();
+    }
+}
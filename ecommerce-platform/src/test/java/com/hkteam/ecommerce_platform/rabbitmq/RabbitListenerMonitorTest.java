@@ -0,0 +1,126 @@
+package com.hkteam.ecommerce_platform.rabbitmq;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.hkteam.ecommerce_platform.dto.response.QueueStatisticsResponse;
+
+class RabbitListenerMonitorTest {
+    static final String QUEUE = RabbitMQConfig.EMAIL_QUEUE;
+
+    RabbitTemplate rabbitTemplate;
+    RabbitListenerMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        MockEnvironment environment = new MockEnvironment().withProperty("rabbitmq.listeners.default.max-retries", "2");
+        monitor = new RabbitListenerMonitor(rabbitTemplate, mock(AmqpAdmin.class), environment);
+    }
+
+    @Test
+    void failedMessageGoesToTheRetryQueueWithItsCount() throws Throwable {
+        Message message = message(null);
+
+        monitor.invoke(failing(message, new IllegalStateException("smtp down")));
+
+        verify(rabbitTemplate).send("", QUEUE + RabbitMQConfig.RETRY_SUFFIX, message);
+        MessageProperties properties = message.getMessageProperties();
+        assertEquals(1, (int) properties.getHeader(RabbitListenerMonitor.RETRY_COUNT_HEADER));
+        assertEquals("IllegalStateException: smtp down", properties.getHeader(RabbitListenerMonitor.EXCEPTION_HEADER));
+    }
+
+    @Test
+    void messageOutOfRetriesIsParked() throws Throwable {
+        Message message = message(2);
+
+        monitor.invoke(failing(message, new IllegalStateException("smtp down")));
+
+        verify(rabbitTemplate).send("", QUEUE + RabbitMQConfig.PARKING_LOT_SUFFIX, message);
+        verify(rabbitTemplate, never()).send(eq(""), eq(QUEUE + RabbitMQConfig.RETRY_SUFFIX), any(Message.class));
+    }
+
+    @Test
+    void unreadableMessageIsParkedWithoutRetry() throws Throwable {
+        Message message = message(null);
+
+        monitor.invoke(failing(message, new RuntimeException(new MessageConversionException("bad payload"))));
+
+        verify(rabbitTemplate).send("", QUEUE + RabbitMQConfig.PARKING_LOT_SUFFIX, message);
+    }
+
+    @Test
+    void eachFailedMessageOfABatchIsRecoveredWithItsOwnCause() throws Throwable {
+        List<Message> batch = List.of(message(null), message(null));
+
+        monitor.invoke(failing(
+                batch,
+                new PartialBatchFailureException(Map.of(
+                        0, new MessageConversionException("bad payload"), 1, new IllegalStateException("smtp down")))));
+
+        verify(rabbitTemplate).send("", QUEUE + RabbitMQConfig.PARKING_LOT_SUFFIX, batch.get(0));
+        verify(rabbitTemplate).send("", QUEUE + RabbitMQConfig.RETRY_SUFFIX, batch.get(1));
+    }
+
+    @Test
+    void onlyTheFailedMessagesOfABatchAreRecovered() throws Throwable {
+        List<Message> batch = List.of(message(null), message(null), message(null));
+
+        monitor.invoke(failing(batch, new PartialBatchFailureException(Map.of(1, new IllegalStateException()))));
+
+        verify(rabbitTemplate).send("", QUEUE + RabbitMQConfig.RETRY_SUFFIX, batch.get(1));
+        verify(rabbitTemplate, times(1)).send(any(String.class), any(String.class), any(Message.class));
+        QueueStatisticsResponse statistics = statistics();
+        assertEquals(2, statistics.getProcessed());
+        assertEquals(1, statistics.getFailed());
+        assertEquals(1, statistics.getRetried());
+    }
+
+    @Test
+    void successfulDeliveriesAreCounted() throws Throwable {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.getArguments()).thenReturn(new Object[] {null, message(null)});
+
+        monitor.invoke(invocation);
+
+        verify(invocation).proceed();
+        assertEquals(1, statistics().getProcessed());
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    private QueueStatisticsResponse statistics() {
+        return monitor.getStatistics().stream()
+                .filter(statistics -> statistics.getQueue().equals(QUEUE))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private MethodInvocation failing(Object data, Throwable cause) throws Throwable {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.getArguments()).thenReturn(new Object[] {null, data});
+        when(invocation.proceed()).thenThrow(cause);
+        return invocation;
+    }
+
+    private Message message(Integer retries) {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue(QUEUE);
+        if (retries != null) properties.setHeader(RabbitListenerMonitor.RETRY_COUNT_HEADER, retries);
+        return new Message(new byte[0], properties);
+    }
+}
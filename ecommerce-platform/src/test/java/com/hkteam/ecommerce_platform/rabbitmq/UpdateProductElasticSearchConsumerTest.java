@@ -0,0 +1,96 @@
+package com.hkteam.ecommerce_platform.rabbitmq;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.hkteam.ecommerce_platform.dto.request.UpdateBrandEsProductRequest;
+import com.hkteam.ecommerce_platform.entity.product.Brand;
+import com.hkteam.ecommerce_platform.repository.BrandRepository;
+import com.hkteam.ecommerce_platform.repository.CategoryRepository;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.UpdateByQueryRequest;
+import co.elastic.clients.elasticsearch.core.UpdateByQueryResponse;
+import co.elastic.clients.elasticsearch.tasks.ElasticsearchTasksClient;
+import co.elastic.clients.elasticsearch.tasks.GetTasksRequest;
+import co.elastic.clients.elasticsearch.tasks.GetTasksResponse;
+import co.elastic.clients.json.JsonData;
+
+class UpdateProductElasticSearchConsumerTest {
+    ElasticsearchClient elasticsearchClient;
+    BrandRepository brandRepository;
+    UpdateByQueryResponse result;
+    UpdateProductElasticSearchConsumer consumer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        elasticsearchClient = mock(ElasticsearchClient.class);
+        brandRepository = mock(BrandRepository.class);
+
+        UpdateByQueryResponse started = mock(UpdateByQueryResponse.class);
+        when(started.task()).thenReturn("node:1");
+        when(elasticsearchClient.updateByQuery(any(UpdateByQueryRequest.class))).thenReturn(started);
+
+        result = mock(UpdateByQueryResponse.class);
+        when(result.failures()).thenReturn(List.of());
+        JsonData taskResponse = mock(JsonData.class);
+        when(taskResponse.to(eq(UpdateByQueryResponse.class), any())).thenReturn(result);
+        GetTasksResponse task = mock(GetTasksResponse.class);
+        when(task.completed()).thenReturn(true);
+        when(task.response()).thenReturn(taskResponse);
+        ElasticsearchTasksClient tasks = mock(ElasticsearchTasksClient.class);
+        when(tasks.get(any(GetTasksRequest.class))).thenReturn(task);
+        when(elasticsearchClient.tasks()).thenReturn(tasks);
+
+        consumer = new UpdateProductElasticSearchConsumer(
+                elasticsearchClient, mock(CategoryRepository.class), brandRepository);
+    }
+
+    @Test
+    void writesTheNameCurrentlyInPostgresNotTheOneInTheMessage() throws Exception {
+        when(brandRepository.findById(7L))
+                .thenReturn(Optional.of(Brand.builder().id(7L).name("C").build()));
+
+        consumer.receiveBrandUpdateRequest(
+                UpdateBrandEsProductRequest.builder().id(7L).name("B").build());
+
+        assertEquals("C", scriptParams().get("name").to(String.class));
+    }
+
+    @Test
+    void deletedBrandClearsTheFields() throws Exception {
+        when(brandRepository.findById(7L)).thenReturn(Optional.empty());
+
+        consumer.receiveBrandUpdateRequest(
+                UpdateBrandEsProductRequest.builder().id(7L).name("B").build());
+
+        assertTrue(scriptParams().isEmpty());
+    }
+
+    @Test
+    void incompleteRunFailsTheDeliverySoItIsRedelivered() {
+        when(brandRepository.findById(7L))
+                .thenReturn(Optional.of(Brand.builder().id(7L).name("C").build()));
+        when(result.versionConflicts()).thenReturn(3L);
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> consumer.receiveBrandUpdateRequest(
+                        UpdateBrandEsProductRequest.builder().id(7L).build()));
+    }
+
+    private Map<String, JsonData> scriptParams() throws Exception {
+        ArgumentCaptor<UpdateByQueryRequest> request = ArgumentCaptor.forClass(UpdateByQueryRequest.class);
+        verify(elasticsearchClient).updateByQuery(request.capture());
+        return request.getValue().script().inline().params();
+    }
+}
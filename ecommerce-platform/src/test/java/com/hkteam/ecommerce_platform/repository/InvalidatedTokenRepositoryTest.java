@@ -0,0 +1,75 @@
+package com.hkteam.ecommerce_platform.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.hkteam.ecommerce_platform.entity.authorization.InvalidatedToken;
+
+@DataJpaTest(
+        properties = {
+            "spring.datasource.url=jdbc:h2:mem:invalidated-tokens;DATABASE_TO_LOWER=TRUE",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+        })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class InvalidatedTokenRepositoryTest {
+    static final long HOUR = 3_600_000;
+
+    @Configuration
+    @EntityScan(basePackageClasses = InvalidatedToken.class)
+    @EnableJpaRepositories(
+            basePackageClasses = InvalidatedTokenRepository.class,
+            includeFilters =
+                    @ComponentScan.Filter(
+                            type = FilterType.ASSIGNABLE_TYPE,
+                            classes = InvalidatedTokenRepository.class))
+    static class Config {}
+
+    @Autowired
+    InvalidatedTokenRepository invalidatedTokenRepository;
+
+    Date now = new Date();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 5; i++) {
+            invalidatedTokenRepository.save(token("expired" + i, now.getTime() - i * HOUR));
+        }
+        invalidatedTokenRepository.save(token("live", now.getTime() + HOUR));
+        invalidatedTokenRepository.flush();
+    }
+
+    @Test
+    void eachBatchDeletesAtMostTheLimitOfExpiredRows() {
+        assertEquals(2, invalidatedTokenRepository.deleteExpiredBatch(now, 2));
+        assertEquals(2, invalidatedTokenRepository.deleteExpiredBatch(now, 2));
+        assertEquals(1, invalidatedTokenRepository.deleteExpiredBatch(now, 2));
+        assertEquals(0, invalidatedTokenRepository.deleteExpiredBatch(now, 2));
+
+        assertEquals(
+                List.of("live"),
+                invalidatedTokenRepository.findAll().stream()
+                        .map(InvalidatedToken::getId)
+                        .toList());
+    }
+
+    private InvalidatedToken token(String id, long expiryTime) {
+        return InvalidatedToken.builder()
+                .id(id)
+                .expiryTime(new Date(expiryTime))
+                .build();
+    }
+}
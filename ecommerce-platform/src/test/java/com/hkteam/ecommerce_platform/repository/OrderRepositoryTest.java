@@ -0,0 +1,347 @@
+package com.hkteam.ecommerce_platform.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.hkteam.ecommerce_platform.entity.order.Order;
+import com.hkteam.ecommerce_platform.entity.order.OrderItem;
+import com.hkteam.ecommerce_platform.entity.order.OrderStatusHistory;
+import com.hkteam.ecommerce_platform.entity.product.Product;
+import com.hkteam.ecommerce_platform.entity.status.OrderStatus;
+import com.hkteam.ecommerce_platform.entity.user.Store;
+import com.hkteam.ecommerce_platform.entity.user.User;
+import com.hkteam.ecommerce_platform.enums.OrderStatusName;
+import com.hkteam.ecommerce_platform.service.EsOutboxService;
+import com.hkteam.ecommerce_platform.service.StatisticRollupService;
+import com.hkteam.ecommerce_platform.service.StockReservationService;
+import com.hkteam.ecommerce_platform.util.OrderUtil;
+
+// The listings filter on orders.current_status_name, the queries they replaced looked up the latest history row.
+// Both are run on the same seeded orders and must return the same ones.
+@DataJpaTest(
+        properties = {
+            "spring.datasource.url=jdbc:h2:mem:orders;DATABASE_TO_LOWER=TRUE",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+        })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrderRepositoryTest {
+    static final String LATEST_HISTORY =
+            """
+			and osh = (
+				select osh1 from OrderStatusHistory osh1
+				where osh1.order = o
+				and osh1.createdAt = (
+					select max(osh2.createdAt) from OrderStatusHistory osh2 where osh2.order = osh1.order
+				)
+			)
+			""";
+    static final String SELLER_BEFORE = "select o from Order o join o.orderStatusHistories osh"
+            + " where o.store.id = :storeId and (:statusName = '' or osh.orderStatus.name = :statusName)"
+            + LATEST_HISTORY;
+    static final String ADMIN_BEFORE = "select o from Order o join o.orderStatusHistories osh"
+            + " where (:statusName = '' or osh.orderStatus.name = :statusName)"
+            + LATEST_HISTORY;
+    static final String USER_BEFORE = "select distinct o from Order o join o.orderStatusHistories osh"
+            + " where o.user.id = :userId and ((:statusName = '' or osh.orderStatus.name = :statusName)"
+            + " or (:statusName = 'WAITING_DELIVERY' and osh.orderStatus.name in ('PICKED_UP', 'OUT_FOR_DELIVERY'))"
+            + " or (:statusName = 'IN_TRANSIT' and osh.orderStatus.name in"
+            + " ('PENDING', 'CONFIRMED', 'PREPARING', 'WAITING_FOR_SHIPPING')))"
+            + LATEST_HISTORY;
+
+    @Configuration
+    @EntityScan(basePackages = "com.hkteam.ecommerce_platform.entity")
+    @EnableJpaRepositories(
+            basePackageClasses = OrderRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = OrderRepository.class))
+    static class Config {}
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    OrderUtil orderUtil;
+    Map<OrderStatusName, OrderStatus> statuses;
+    List<String> statusFilters;
+    Store firstStore;
+    Store secondStore;
+    User firstUser;
+    User secondUser;
+    List<Order> orders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        orderUtil = new OrderUtil(
+                mock(StatisticRollupService.class), mock(EsOutboxService.class), mock(StockReservationService.class));
+
+        statuses = new EnumMap<>(OrderStatusName.class);
+        for (OrderStatusName name : OrderStatusName.values()) {
+            OrderStatus status = OrderStatus.builder().name(name.name()).build();
+            entityManager.persist(status);
+            statuses.put(name, status);
+        }
+        statusFilters = new ArrayList<>(List.of("", "WAITING_DELIVERY", "IN_TRANSIT"));
+        statuses.keySet().forEach(name -> statusFilters.add(name.name()));
+
+        firstStore = store("s1");
+        secondStore = store("s2");
+        firstUser = user("u1");
+        secondUser = user("u2");
+        Product product =
+                Product.builder().slug("p1").name("p1").description("p1").build();
+        entityManager.persist(product);
+
+        seed(firstStore, firstUser, product, OrderStatusName.PENDING);
+        seed(firstStore, firstUser, product, OrderStatusName.PENDING, OrderStatusName.CONFIRMED);
+        seed(firstStore, secondUser, product, OrderStatusName.PENDING, OrderStatusName.CANCELLED);
+        seed(
+                firstStore,
+                firstUser,
+                product,
+                OrderStatusName.PENDING,
+                OrderStatusName.CONFIRMED,
+                OrderStatusName.PREPARING,
+                OrderStatusName.WAITING_FOR_SHIPPING,
+                OrderStatusName.PICKED_UP);
+        seed(
+                secondStore,
+                secondUser,
+                product,
+                OrderStatusName.PENDING,
+                OrderStatusName.CONFIRMED,
+                OrderStatusName.PREPARING,
+                OrderStatusName.WAITING_FOR_SHIPPING,
+                OrderStatusName.PICKED_UP,
+                OrderStatusName.OUT_FOR_DELIVERY,
+                OrderStatusName.DELIVERED);
+        seed(secondStore, firstUser, product, OrderStatusName.PENDING, OrderStatusName.CONFIRMED);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void sellerListingMatchesTheLatestHistoryLookup() {
+        assertEquals(
+                4,
+                orderRepository
+                        .findAllOrderBySeller(firstStore.getId(), "", "", Pageable.unpaged())
+                        .getTotalElements());
+
+        for (Store store : List.of(firstStore, secondStore)) {
+            for (String status : statusFilters) {
+                List<Order> before = entityManager
+                        .createQuery(SELLER_BEFORE, Order.class)
+                        .setParameter("storeId", store.getId())
+                        .setParameter("statusName", status)
+                        .getResultList();
+
+                List<Order> after = orderRepository
+                        .findAllOrderBySeller(store.getId(), "", status, Pageable.unpaged())
+                        .getContent();
+
+                assertEquals(ids(before), ids(after), store.getSlug() + " " + status);
+            }
+        }
+    }
+
+    @Test
+    void adminListingMatchesTheLatestHistoryLookup() {
+        for (String status : statusFilters) {
+            List<Order> before = entityManager
+                    .createQuery(ADMIN_BEFORE, Order.class)
+                    .setParameter("statusName", status)
+                    .getResultList();
+
+            List<Order> after = orderRepository
+                    .findAllOrderByAdmin("", "", "", "", status, Pageable.unpaged())
+                    .getContent();
+
+            assertEquals(ids(before), ids(after), status);
+        }
+    }
+
+    @Test
+    void userListingMatchesTheLatestHistoryLookup() {
+        for (User user : List.of(firstUser, secondUser)) {
+            for (String status : statusFilters) {
+                List<Order> before = entityManager
+                        .createQuery(USER_BEFORE, Order.class)
+                        .setParameter("userId", user.getId())
+                        .setParameter("statusName", status)
+                        .getResultList();
+
+                List<Order> after = orderRepository
+                        .findAllOrderByUser(user.getId(), "", "", "", status, Pageable.unpaged())
+                        .getContent();
+
+                assertEquals(ids(before), ids(after), user.getUsername() + " " + status);
+            }
+        }
+    }
+
+    @Test
+    void updateLookupOnlyMatchesTheCurrentStatus() {
+        List<String> cancellable = List.of(OrderStatusName.PENDING.name(), OrderStatusName.CONFIRMED.name());
+
+        List<Order> found = orderRepository.findListOrderUpdateOrCancel(
+                orders.stream().map(Order::getId).toList(), cancellable);
+
+        assertEquals(ids(List.of(orders.get(0), orders.get(1), orders.get(5))), ids(found));
+        assertTrue(orderRepository
+                .findOneOrderUpdateOrCancel(orders.get(2).getId(), cancellable)
+                .isEmpty());
+    }
+
+    // The totals used to be the size of the unpaged group list, the count queries must match it. The grouped
+    // queries are run without their OFFSET/LIMIT, H2 does not parse OFFSET before LIMIT.
+    @Test
+    void groupCountsMatchTheGroupedRows() {
+        Product first = product("p2");
+        Product second = product("p3");
+        seed(firstStore, firstUser, first, OrderStatusName.PENDING, OrderStatusName.DELIVERED);
+        seed(
+                firstStore,
+                secondUser,
+                second,
+                OrderStatusName.PENDING,
+                OrderStatusName.CONFIRMED,
+                OrderStatusName.DELIVERED);
+        seed(secondStore, firstUser, second, OrderStatusName.PENDING, OrderStatusName.DELIVERED);
+        seed(firstStore, firstUser, first, OrderStatusName.PENDING, OrderStatusName.CANCELLED);
+        entityManager.flush();
+        entityManager.clear();
+
+        Instant from = Instant.parse("2000-01-01T00:00:00Z");
+        Instant to = Instant.parse("2100-01-01T00:00:00Z");
+        for (String format : List.of("YYYY-MM-DD", "YYYY-MM", "YYYY-MM-DD HH24:MI:SS")) {
+            for (String storeId : List.of(firstStore.getId(), secondStore.getId())) {
+                int revenueGroups = unpaged("getRevenueStatisticsNative", from, to, format, storeId)
+                        .getResultList()
+                        .size();
+                assertEquals(
+                        revenueGroups,
+                        orderRepository.countRevenueStatisticsGroups(from, to, format, storeId),
+                        format + " " + storeId);
+
+                for (String productId : List.of(first.getId(), second.getId())) {
+                    int productSoldGroups = unpaged("getProductSoldStatisticsNative", from, to, format, storeId)
+                            .setParameter("productId", productId)
+                            .getResultList()
+                            .size();
+                    assertEquals(
+                            productSoldGroups,
+                            orderRepository.countProductSoldStatisticsGroups(from, to, format, storeId, productId),
+                            format + " " + storeId + " " + productId);
+                }
+            }
+        }
+        assertEquals(
+                2, orderRepository.countRevenueStatisticsGroups(from, to, "YYYY-MM-DD HH24:MI:SS", firstStore.getId()));
+        assertEquals(
+                1,
+                orderRepository.countProductSoldStatisticsGroups(
+                        from, to, "YYYY-MM-DD", firstStore.getId(), first.getId()));
+    }
+
+    // Histories go through OrderUtil like in the services, each one a second after the previous
+    private void seed(Store store, User user, Product product, OrderStatusName... history) {
+        Order order = Order.builder()
+                .store(store)
+                .user(user)
+                .orderStatusHistories(new ArrayList<>())
+                .orderItems(new ArrayList<>())
+                .build();
+        for (OrderStatusName name : history) {
+            orderUtil.addOrderStatusHistory(order, statuses.get(name), null);
+        }
+        order.getOrderItems()
+                .add(OrderItem.builder()
+                        .order(order)
+                        .product(product)
+                        .quantity(1)
+                        .price(BigDecimal.ONE)
+                        .discount(BigDecimal.ZERO)
+                        .build());
+        entityManager.persist(order);
+        entityManager.flush();
+
+        Instant createdAt = Instant.parse("2024-01-01T00:00:00Z");
+        for (OrderStatusHistory statusHistory : order.getOrderStatusHistories()) {
+            createdAt = createdAt.plusSeconds(1);
+            entityManager
+                    .createQuery("update OrderStatusHistory osh set osh.createdAt = :createdAt where osh.id = :id")
+                    .setParameter("createdAt", createdAt)
+                    .setParameter("id", statusHistory.getId())
+                    .executeUpdate();
+        }
+        orders.add(order);
+    }
+
+    private Store store(String slug) {
+        Store store = Store.builder()
+                .slug(slug)
+                .name(slug)
+                .currentBalance(BigDecimal.ZERO)
+                .build();
+        entityManager.persist(store);
+        return store;
+    }
+
+    private jakarta.persistence.Query unpaged(String method, Instant from, Instant to, String format, String storeId) {
+        String sql = Arrays.stream(OrderRepository.class.getMethods())
+                .filter(candidate -> candidate.getName().equals(method))
+                .findFirst()
+                .orElseThrow()
+                .getAnnotation(Query.class)
+                .value();
+        return entityManager
+                .createNativeQuery(sql.substring(0, sql.indexOf("OFFSET :offset")))
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setParameter("groupFormat", format)
+                .setParameter("storeId", storeId);
+    }
+
+    private Product product(String slug) {
+        Product product =
+                Product.builder().slug(slug).name(slug).description(slug).build();
+        entityManager.persist(product);
+        return product;
+    }
+
+    private User user(String username) {
+        User user = User.builder().username(username).build();
+        entityManager.persist(user);
+        return user;
+    }
+
+    private List<String> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).sorted().toList();
+    }
+}
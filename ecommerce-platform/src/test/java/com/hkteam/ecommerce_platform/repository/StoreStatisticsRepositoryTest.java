@@ -0,0 +1,152 @@
+package com.hkteam.ecommerce_platform.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.hkteam.ecommerce_platform.entity.order.Order;
+import com.hkteam.ecommerce_platform.entity.product.Product;
+import com.hkteam.ecommerce_platform.entity.status.OrderStatus;
+import com.hkteam.ecommerce_platform.entity.user.Store;
+
+// Each count the dashboard used to take from store.getOrders() and store.getProducts() in memory, run against
+// seeded rows of two stores
+@DataJpaTest(
+        properties = {
+            "spring.datasource.url=jdbc:h2:mem:store-statistics;DATABASE_TO_LOWER=TRUE",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+        })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class StoreStatisticsRepositoryTest {
+    static final Instant DAY = Instant.parse("2024-03-10T00:00:00Z");
+
+    @Configuration
+    @EntityScan(basePackages = "com.hkteam.ecommerce_platform.entity")
+    @EnableJpaRepositories(
+            basePackageClasses = StoreStatisticsRepository.class,
+            includeFilters =
+                    @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = StoreStatisticsRepository.class))
+    static class Config {}
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    StoreStatisticsRepository storeStatisticsRepository;
+
+    Store store;
+    Store otherStore;
+
+    @BeforeEach
+    void setUp() {
+        store = store("s1");
+        otherStore = store("s2");
+        OrderStatus pending = status("PENDING");
+        OrderStatus delivered = status("DELIVERED");
+
+        order(store, pending, DAY, "10");
+        order(store, pending, DAY, "10");
+        order(store, delivered, DAY.plusSeconds(3600), "100");
+        order(store, delivered, DAY.plusSeconds(7200), "50");
+        order(store, delivered, DAY.minusSeconds(3600), "20");
+        order(store, delivered, DAY.minusSeconds(30 * 86400), "1000");
+        order(otherStore, delivered, DAY, "7");
+        Order deleted = order(store, delivered, DAY, "5");
+        deleted.setDeleted(true);
+        entityManager.persist(Order.builder().store(store).build());
+
+        product(store, "p1", 0, false);
+        product(store, "p2", 0, true);
+        product(store, "p3", 5, true);
+        product(store, "p4", 5, false);
+        product(otherStore, "p5", 0, false);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void ordersAreCountedByTheirCurrentStatus() {
+        Map<String, Long> counts = storeStatisticsRepository.countOrdersByCurrentStatus(store.getId()).stream()
+                .collect(Collectors.toMap(
+                        StoreStatisticsRepository.OrderStatusCount::getStatus,
+                        StoreStatisticsRepository.OrderStatusCount::getTotal));
+
+        assertEquals(Map.of("PENDING", 2L, "DELIVERED", 4L), counts);
+    }
+
+    @Test
+    void blockedProductsAreNotCountedOutOfStock() {
+        StoreStatisticsRepository.ProductStockCount count = storeStatisticsRepository.countProductStock(store.getId());
+
+        assertEquals(2, count.getBlocked());
+        assertEquals(1, count.getOutOfStock());
+    }
+
+    @Test
+    void deliveredSalesAreSummedPerDayOfTheZone() {
+        Map<String, BigDecimal> sales = storeStatisticsRepository
+                .sumDeliveredSalesByDay(store.getId(), DAY.minusSeconds(6 * 86400), DAY.plusSeconds(86400), "UTC")
+                .stream()
+                .collect(Collectors.toMap(StoreStatisticsRepository.DailySales::getDate, sale -> sale.getRevenue()
+                        .stripTrailingZeros()));
+
+        assertEquals(Map.of("2024-03-10", new BigDecimal("148"), "2024-03-09", new BigDecimal("19")), sales);
+    }
+
+    private Order order(Store store, OrderStatus status, Instant statusAt, String total) {
+        Order order = Order.builder()
+                .store(store)
+                .currentStatus(status)
+                .currentStatusAt(statusAt)
+                .total(new BigDecimal(total))
+                .discount(BigDecimal.ONE)
+                .build();
+        entityManager.persist(order);
+        return order;
+    }
+
+    private void product(Store store, String slug, int quantity, boolean blocked) {
+        entityManager.persist(Product.builder()
+                .slug(slug)
+                .name(slug)
+                .description(slug)
+                .store(store)
+                .quantity(quantity)
+                .isBlocked(blocked)
+                .build());
+    }
+
+    private OrderStatus status(String name) {
+        OrderStatus status = OrderStatus.builder().name(name).build();
+        entityManager.persist(status);
+        return status;
+    }
+
+    private Store store(String slug) {
+        Store store = Store.builder()
+                .slug(slug)
+                .name(slug)
+                .currentBalance(BigDecimal.ZERO)
+                .build();
+        entityManager.persist(store);
+        return store;
+    }
+}
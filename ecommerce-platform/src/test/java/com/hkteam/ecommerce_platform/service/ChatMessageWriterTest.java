@@ -0,0 +1,113 @@
+package com.hkteam.ecommerce_platform.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.hkteam.ecommerce_platform.repository.MessageRepository;
+import com.hkteam.ecommerce_platform.repository.OrderRepository;
+import com.hkteam.ecommerce_platform.repository.ProductRepository;
+import com.hkteam.ecommerce_platform.repository.RoomRepository;
+
+class ChatMessageWriterTest {
+    JdbcTemplate jdbcTemplate;
+    ValueOperations<String, String> roomStates;
+    ChatMessageWriter chatMessageWriter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        roomStates = mock(ValueOperations.class);
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(roomStates);
+        when(roomStates.get(any())).thenReturn("\n");
+
+        chatMessageWriter = new ChatMessageWriter(
+                jdbcTemplate,
+                redisTemplate,
+                mock(RoomRepository.class),
+                mock(MessageRepository.class),
+                mock(OrderRepository.class),
+                mock(ProductRepository.class),
+                100,
+                50,
+                Duration.ofMillis(10),
+                Duration.ofMinutes(30));
+    }
+
+    @Test
+    void rowsTheDatabaseRefusesAreDeadLettered() {
+        when(jdbcTemplate.batchUpdate(eq(ChatMessageWriter.INSERT_MESSAGE), anyList()))
+                .thenThrow(new DataIntegrityViolationException("batch"));
+        String good = chatMessageWriter.enqueue("r1", "hi", null, null, "u1").getId();
+        String bad = chatMessageWriter.enqueue("r1", "bad", null, null, "u1").getId();
+        when(jdbcTemplate.update(eq(ChatMessageWriter.INSERT_MESSAGE), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    if (bad.equals(invocation.getArgument(1))) {
+                        throw new DataIntegrityViolationException("row");
+                    }
+                    return 1;
+                });
+
+        chatMessageWriter.flush();
+
+        verify(jdbcTemplate)
+                .update(
+                        eq(ChatMessageWriter.INSERT_DEAD_LETTER),
+                        eq(bad),
+                        any(),
+                        any(),
+                        any(),
+                        any(),
+                        any(),
+                        any(),
+                        any());
+        verify(jdbcTemplate, never())
+                .update(
+                        eq(ChatMessageWriter.INSERT_DEAD_LETTER),
+                        eq(good),
+                        any(),
+                        any(),
+                        any(),
+                        any(),
+                        any(),
+                        any(),
+                        any());
+    }
+
+    @Test
+    void rowsAreKeptWhileTheDatabaseIsUnavailable() {
+        when(jdbcTemplate.batchUpdate(eq(ChatMessageWriter.INSERT_MESSAGE), anyList()))
+                .thenThrow(new QueryTimeoutException("down"))
+                .thenReturn(new int[] {1});
+        chatMessageWriter.enqueue("r1", "hi", null, null, "u1");
+
+        chatMessageWriter.flush();
+        verify(jdbcTemplate, never()).update(eq(ChatMessageWriter.INSERT_MESSAGE), any(Object[].class));
+
+        chatMessageWriter.flush();
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(ChatMessageWriter.INSERT_MESSAGE), anyList());
+        verify(jdbcTemplate).batchUpdate(eq(ChatMessageWriter.UPDATE_ROOM), anyList());
+    }
+
+    @Test
+    void attachedCardIsSharedThroughRedis() {
+        when(roomStates.get(ChatMessageWriter.ROOM_STATE_KEY_PREFIX + "r1")).thenReturn("o1\n");
+
+        assertNull(chatMessageWriter.enqueue("r1", "again", null, null, "u1").getOrderId());
+        verify(roomStates, never()).set(any(), any(), any(Duration.class));
+    }
+}
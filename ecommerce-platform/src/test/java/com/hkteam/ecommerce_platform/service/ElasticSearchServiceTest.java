@@ -0,0 +1,168 @@
+package com.hkteam.ecommerce_platform.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.hkteam.ecommerce_platform.dto.response.FacetBucketResponse;
+import com.hkteam.ecommerce_platform.dto.response.PaginationResponse;
+import com.hkteam.ecommerce_platform.dto.response.ProductResponse;
+import com.hkteam.ecommerce_platform.entity.elasticsearch.ProductElasticsearch;
+import com.hkteam.ecommerce_platform.mapper.ProductMapper;
+import com.hkteam.ecommerce_platform.util.ESUtils;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.LongTermsBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.RangeBucket;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.CompletionSuggestOption;
+import co.elastic.clients.elasticsearch.core.search.CompletionSuggester;
+import co.elastic.clients.elasticsearch.core.search.HitsMetadata;
+import co.elastic.clients.elasticsearch.core.search.Suggestion;
+import co.elastic.clients.elasticsearch.core.search.TotalHitsRelation;
+
+class ElasticSearchServiceTest {
+    ElasticsearchClient elasticsearchClient;
+    SearchResponse<ProductElasticsearch> response;
+    ElasticSearchService elasticSearchService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        elasticsearchClient = mock(ElasticsearchClient.class);
+        response = mock(SearchResponse.class);
+        doCallRealMethod().when(elasticsearchClient).search(any(Function.class), eq(ProductElasticsearch.class));
+        when(elasticsearchClient.search(any(SearchRequest.class), eq(ProductElasticsearch.class)))
+                .thenReturn(response);
+
+        elasticSearchService = new ElasticSearchService(mock(ProductMapper.class), elasticsearchClient);
+    }
+
+    @Test
+    void facetSelectionsMoveToThePostFilterAndBucketsAreReturned() {
+        when(response.hits()).thenReturn(noHits());
+        when(response.aggregations())
+                .thenReturn(Map.of(
+                        ESUtils.FACET_CATEGORY,
+                        facet(Aggregate.of(a -> a.lterms(t -> t.sumOtherDocCount(0L)
+                                .buckets(b -> b.array(List.of(
+                                        LongTermsBucket.of(k -> k.key(4L).docCount(3)),
+                                        LongTermsBucket.of(k -> k.key(9L).docCount(1)))))))),
+                        ESUtils.FACET_PRICE,
+                        facet(Aggregate.of(a -> a.range(r -> r.buckets(b -> b.array(List.of(RangeBucket.of(
+                                k -> k.key("0-100").from(0.0).to(100.0).docCount(2))))))))));
+
+        PaginationResponse<ProductResponse> page = search(List.of(4L), true);
+
+        assertEquals(
+                List.of(
+                        FacetBucketResponse.builder().key("4").count(3).build(),
+                        FacetBucketResponse.builder().key("9").count(1).build()),
+                page.getFacets().get(ESUtils.FACET_CATEGORY));
+        assertEquals(
+                List.of(FacetBucketResponse.builder()
+                        .key("0-100")
+                        .from(0.0)
+                        .to(100.0)
+                        .count(2)
+                        .build()),
+                page.getFacets().get(ESUtils.FACET_PRICE));
+
+        SearchRequest request = searchRequest();
+        assertEquals(4, request.aggregations().size());
+        assertEquals(1, request.postFilter().bool().filter().size());
+        assertFalse(request.query().toString().contains("categoryId"));
+    }
+
+    @Test
+    void withoutFacetsTheSelectionsStayInTheQuery() {
+        when(response.hits()).thenReturn(noHits());
+
+        PaginationResponse<ProductResponse> page = search(List.of(4L), false);
+
+        assertNull(page.getFacets());
+        SearchRequest request = searchRequest();
+        assertTrue(request.aggregations().isEmpty());
+        assertNull(request.postFilter());
+        assertTrue(request.query().toString().contains("categoryId"));
+    }
+
+    @Test
+    void suggestionsComeFromTheCompletionSuggesterOfTheScope() throws Exception {
+        when(response.suggest())
+                .thenReturn(Map.of(
+                        ElasticSearchService.PRODUCT_SUGGESTER,
+                        List.of(Suggestion.of(s -> s.completion(c -> c.text("iph")
+                                .offset(0)
+                                .length(3)
+                                .options(option("iPhone 15"), option("iPhone 15 Pro")))))));
+
+        List<String> suggestions = elasticSearchService.autoSuggestionProduct("iph", 4L, null);
+
+        assertEquals(List.of("iPhone 15", "iPhone 15 Pro"), suggestions);
+        SearchRequest request = searchRequest();
+        assertFalse(request.source().fetch());
+        assertNull(request.query());
+        CompletionSuggester completion = request.suggest()
+                .suggesters()
+                .get(ElasticSearchService.PRODUCT_SUGGESTER)
+                .completion();
+        assertEquals(ESUtils.SUGGEST_FIELD, completion.field());
+        assertTrue(completion.skipDuplicates());
+        assertEquals(
+                "category:4",
+                completion
+                        .contexts()
+                        .get(ESUtils.SUGGEST_CONTEXT)
+                        .get(0)
+                        .context()
+                        .category());
+    }
+
+    @Test
+    void blankKeywordDoesNotQuery() throws Exception {
+        assertTrue(elasticSearchService.autoSuggestionProduct("  ", null, null).isEmpty());
+
+        verifyNoInteractions(elasticsearchClient);
+    }
+
+    private PaginationResponse<ProductResponse> search(List<Long> categoryIds, boolean facets) {
+        return elasticSearchService.getAllProducts(
+                categoryIds, null, null, null, null, "1", "10", "phone", null, null, 0, facets, null);
+    }
+
+    private HitsMetadata<ProductElasticsearch> noHits() {
+        return HitsMetadata.of(
+                h -> h.total(t -> t.value(0).relation(TotalHitsRelation.Eq)).hits(List.of()));
+    }
+
+    private Aggregate facet(Aggregate buckets) {
+        return Aggregate.of(a -> a.filter(f -> f.docCount(0).aggregations(Map.of(ESUtils.FACET_BUCKETS, buckets))));
+    }
+
+    private CompletionSuggestOption<ProductElasticsearch> option(String text) {
+        return CompletionSuggestOption.of(o -> o.text(text));
+    }
+
+    private SearchRequest searchRequest() {
+        ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+        try {
+            verify(elasticsearchClient).search(request.capture(), eq(ProductElasticsearch.class));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return request.getValue();
+    }
+}
@@ -0,0 +1,83 @@
+package com.hkteam.ecommerce_platform.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hkteam.ecommerce_platform.dto.response.EsOutboxStatisticsResponse;
+import com.hkteam.ecommerce_platform.entity.outbox.EsOutbox;
+import com.hkteam.ecommerce_platform.entity.product.Product;
+import com.hkteam.ecommerce_platform.repository.EsOutboxRepository;
+import com.hkteam.ecommerce_platform.repository.ProductRepository;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+
+class EsOutboxServiceTest {
+    EsOutboxRepository esOutboxRepository;
+    ElasticsearchClient elasticsearchClient;
+    EsOutboxService esOutboxService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        esOutboxRepository = mock(EsOutboxRepository.class);
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllById(any()))
+                .thenReturn(List.of(Product.builder().id("p1").quantity(3).build()));
+        elasticsearchClient = mock(ElasticsearchClient.class);
+        when(elasticsearchClient.bulk(any(BulkRequest.class))).thenThrow(new IOException("es down"));
+
+        esOutboxService = new EsOutboxService(esOutboxRepository, productRepository, elasticsearchClient);
+        ReflectionTestUtils.setField(esOutboxService, "batchSize", 10);
+        ReflectionTestUtils.setField(esOutboxService, "lease", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(esOutboxService, "lagWarningSeconds", 60L);
+    }
+
+    @Test
+    void entryOutOfAttemptsIsParkedNotDeleted() {
+        EsOutbox exhausted = entry(EsOutboxService.MAX_ATTEMPTS - 1);
+        EsOutbox retried = entry(1);
+        when(esOutboxRepository.claimNextBatch(any(), any(), anyInt())).thenReturn(List.of(exhausted, retried));
+
+        esOutboxService.relay();
+
+        verify(esOutboxRepository).deleteAllInBatch(List.of());
+        verify(esOutboxRepository).saveAll(List.of(exhausted, retried));
+        assertNotNull(exhausted.getParkedAt());
+        assertNull(retried.getParkedAt());
+        assertEquals(2, retried.getAttempts());
+        assertTrue(retried.getNextAttemptAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void statisticsCountParkedEntriesAndTheirLag() {
+        when(esOutboxRepository.countByParkedAtIsNull()).thenReturn(2L);
+        when(esOutboxRepository.countByParkedAtIsNotNull()).thenReturn(1L);
+        when(esOutboxRepository.findOldestCreatedAt()).thenReturn(Instant.now().minusSeconds(600));
+
+        EsOutboxStatisticsResponse statistics = esOutboxService.getStatistics();
+
+        assertEquals(2, statistics.getPendingEntries());
+        assertEquals(1, statistics.getParkedEntries());
+        assertTrue(statistics.getLagSeconds() >= 600);
+    }
+
+    private EsOutbox entry(int attempts) {
+        return EsOutbox.builder()
+                .productId("p1")
+                .changedFields(EsOutboxService.FIELD_QUANTITY)
+                .attempts(attempts)
+                .nextAttemptAt(Instant.now())
+                .build();
+    }
+}
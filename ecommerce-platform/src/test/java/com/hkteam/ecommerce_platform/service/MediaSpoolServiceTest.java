@@ -0,0 +1,74 @@
+package com.hkteam.ecommerce_platform.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class MediaSpoolServiceTest {
+    static final String IMAGE_LISTENER = "rabbitmq.listeners.imageQueue.";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void nodeLocalDefaultIsRefusedUnlessSingleNode() throws Exception {
+        MediaSpoolService shared = service(environment("3d"), "", false, Duration.ofDays(4));
+        assertThrows(IllegalStateException.class, shared::init);
+
+        MediaSpoolService singleNode = service(environment("3d"), "", true, Duration.ofDays(4));
+        singleNode.init();
+    }
+
+    @Test
+    void maxAgeMustOutliveTheParkingLot() {
+        MediaSpoolService withoutTtl = service(environment(null), directory.toString(), false, Duration.ofDays(4));
+        assertThrows(IllegalStateException.class, withoutTtl::init);
+
+        // 3 retries of 60s come on top of the 3 days in the parking lot
+        MediaSpoolService tooShort = service(environment("3d"), directory.toString(), false, Duration.ofDays(3));
+        assertThrows(IllegalStateException.class, tooShort::init);
+    }
+
+    @Test
+    void onlyFilesOlderThanMaxAgeAreDeleted() throws Exception {
+        MediaSpoolService spool = service(environment("3d"), directory.toString(), false, Duration.ofDays(4));
+        spool.init();
+        String fresh = spool.create();
+        String stale = spool.create();
+        Files.setLastModifiedTime(
+                directory.resolve(stale), FileTime.from(Instant.now().minus(Duration.ofDays(5))));
+
+        spool.deleteStaleFiles();
+
+        assertTrue(spool.exists(fresh));
+        assertFalse(spool.exists(stale));
+    }
+
+    private MockEnvironment environment(String parkingLotTtl) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty(IMAGE_LISTENER + "max-retries", "3")
+                .withProperty(IMAGE_LISTENER + "retry-delay", "60s");
+        if (parkingLotTtl != null) environment.setProperty(IMAGE_LISTENER + "parking-lot-ttl", parkingLotTtl);
+        // Converts "3d" like the application environment does
+        environment.setConversionService(new ApplicationConversionService());
+        return environment;
+    }
+
+    private MediaSpoolService service(MockEnvironment environment, String root, boolean singleNode, Duration maxAge) {
+        MediaSpoolService spool = new MediaSpoolService(environment);
+        ReflectionTestUtils.setField(spool, "directory", root);
+        ReflectionTestUtils.setField(spool, "singleNode", singleNode);
+        ReflectionTestUtils.setField(spool, "maxAge", maxAge);
+        return spool;
+    }
+}
@@ -0,0 +1,98 @@
+package com.hkteam.ecommerce_platform.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hkteam.ecommerce_platform.dto.response.MediaUploadStatisticsResponse;
+
+class MediaUploadExecutorTest {
+    MediaUploadExecutor mediaUploadExecutor;
+
+    @AfterEach
+    void tearDown() {
+        mediaUploadExecutor.shutdown();
+    }
+
+    @Test
+    void uploadsRunInParallelAndKeepTheirOrder() {
+        executor(4, 10, 1);
+        // Every upload waits for all four to have started, so they only finish when they run at the same time
+        CountDownLatch started = new CountDownLatch(4);
+
+        List<Map<String, Object>> results = mediaUploadExecutor.uploadAll(List.of(1, 2, 3, 4), source -> {
+            started.countDown();
+            await(started);
+            return Map.of("url", "image-" + source);
+        });
+
+        assertEquals(
+                List.of("image-1", "image-2", "image-3", "image-4"),
+                results.stream().map(result -> result.get("url")).toList());
+    }
+
+    @Test
+    void failedAttemptsAreRetriedAndAnUploadThatNeverSucceedsGivesNull() {
+        executor(2, 10, 3);
+        AtomicInteger flakyAttempts = new AtomicInteger();
+
+        List<Map<String, Object>> results = mediaUploadExecutor.uploadAll(List.of("flaky", "broken"), source -> {
+            if (source.equals("flaky") && flakyAttempts.incrementAndGet() == 3) return Map.of("url", source);
+            throw new IllegalStateException("cloudinary unavailable");
+        });
+
+        assertEquals(Map.of("url", "flaky"), results.get(0));
+        assertNull(results.get(1));
+        MediaUploadStatisticsResponse statistics = mediaUploadExecutor.getStatistics();
+        assertEquals(1, statistics.getCompletedUploads());
+        assertEquals(1, statistics.getFailedUploads());
+        assertEquals(4, statistics.getRetriedAttempts());
+    }
+
+    @Test
+    void callerUploadsItselfWhenTheQueueIsFull() {
+        executor(1, 1, 1);
+        Thread caller = Thread.currentThread();
+        Map<Integer, Thread> threads = new ConcurrentHashMap<>();
+        // The first upload holds the only worker until the caller has run the upload that did not fit
+        CountDownLatch rejectedRan = new CountDownLatch(1);
+
+        mediaUploadExecutor.uploadAll(List.of(1, 2, 3), source -> {
+            threads.put(source, Thread.currentThread());
+            if (source == 1) await(rejectedRan);
+            if (Thread.currentThread() == caller) rejectedRan.countDown();
+            return Map.of();
+        });
+
+        assertNotSame(caller, threads.get(1));
+        assertNotSame(caller, threads.get(2));
+        assertSame(caller, threads.get(3));
+    }
+
+    private void executor(int parallelism, int queueCapacity, int maxAttempts) {
+        mediaUploadExecutor = new MediaUploadExecutor();
+        ReflectionTestUtils.setField(mediaUploadExecutor, "parallelism", parallelism);
+        ReflectionTestUtils.setField(mediaUploadExecutor, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(mediaUploadExecutor, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(mediaUploadExecutor, "retryBackoff", Duration.ofMillis(1));
+        mediaUploadExecutor.init();
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
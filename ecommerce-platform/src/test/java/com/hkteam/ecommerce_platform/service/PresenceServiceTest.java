@@ -0,0 +1,96 @@
+package com.hkteam.ecommerce_platform.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class PresenceServiceTest {
+    static final String KEY = PresenceService.PRESENCE_KEY_PREFIX + "u1";
+
+    ZSetOperations<String, String> presence;
+    JdbcTemplate jdbcTemplate;
+    PresenceService presenceService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        presence = mock(ZSetOperations.class);
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForZSet()).thenReturn(presence);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        presenceService = new PresenceService(redisTemplate, jdbcTemplate);
+        ReflectionTestUtils.setField(presenceService, "ttl", Duration.ofSeconds(90));
+    }
+
+    @Test
+    void userGoesOfflineWithTheLastSession() {
+        presenceService.connected("s1", "u1");
+        presenceService.connected("s2", "u1");
+        verify(presence, times(1)).add(eq(KEY), anyString(), anyDouble());
+
+        presenceService.disconnected("s1");
+        assertTrue(presenceService.isOnline("u1"));
+        verify(presence, never()).remove(any(), any());
+
+        presenceService.disconnected("s2");
+        verify(presence).remove(eq(KEY), any());
+    }
+
+    @Test
+    void repeatedEventsOfASessionAreCountedOnce() {
+        presenceService.connected("s1", "u1");
+        presenceService.connected("s1", "u1");
+        presenceService.connected("s2", "u1");
+
+        presenceService.disconnected("s1");
+        presenceService.disconnected("s1");
+        verify(presence, never()).remove(any(), any());
+
+        presenceService.disconnected("s2");
+        verify(presence, times(1)).remove(eq(KEY), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void lastSeenIsWrittenOncePerUserInABatch() {
+        presenceService.connected("s1", "u1");
+        presenceService.disconnected("s1");
+        presenceService.connected("s2", "u1");
+        presenceService.disconnected("s2");
+
+        presenceService.flushLastSeen();
+        presenceService.flushLastSeen();
+
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(PresenceService.UPDATE_LAST_SEEN), args.capture());
+        assertEquals(1, args.getValue().size());
+        assertEquals("u1", args.getValue().get(0)[1]);
+    }
+
+    @Test
+    void otherNodesAreAskedOnlyWhenNoLocalSession() {
+        when(presence.count(eq(KEY), anyDouble(), anyDouble())).thenReturn(1L);
+
+        assertTrue(presenceService.isOnline("u1"));
+        assertFalse(presenceService.isOnline("u2"));
+
+        presenceService.connected("s1", "u2");
+        assertTrue(presenceService.isOnline("u2"));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+}
@@ -0,0 +1,115 @@
+package com.hkteam.ecommerce_platform.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hkteam.ecommerce_platform.entity.category.Category;
+import com.hkteam.ecommerce_platform.entity.elasticsearch.ProductElasticsearch;
+import com.hkteam.ecommerce_platform.entity.product.Product;
+import com.hkteam.ecommerce_platform.entity.user.Store;
+import com.hkteam.ecommerce_platform.exception.AppException;
+import com.hkteam.ecommerce_platform.exception.ErrorCode;
+import com.hkteam.ecommerce_platform.mapper.ProductMapper;
+import com.hkteam.ecommerce_platform.mapper.ProductMapperImpl;
+import com.hkteam.ecommerce_platform.repository.ProductRepository;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+
+class ProductReindexServiceTest {
+    ProductRepository productRepository;
+    ElasticsearchOperations elasticsearchOperations;
+    TransactionTemplate transactionTemplate;
+    ProductMapper productMapper = new ProductMapperImpl();
+    ProductReindexService productReindexService;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        elasticsearchOperations = mock(ElasticsearchOperations.class);
+        when(elasticsearchOperations.indexOps(any(IndexCoordinates.class))).thenReturn(mock(IndexOperations.class));
+        transactionTemplate = mock(TransactionTemplate.class);
+
+        productReindexService = new ProductReindexService(
+                productRepository,
+                elasticsearchOperations,
+                mock(ElasticsearchClient.class),
+                productMapper,
+                transactionTemplate);
+        ReflectionTestUtils.setField(productReindexService, "chunkSize", 2);
+    }
+
+    @Test
+    void eachChunkIsReadInItsOwnTransactionAndIndexedOutsideIt() {
+        when(productRepository.findIdsAfter(any(), any()))
+                .thenReturn(List.of("p1", "p2"))
+                .thenReturn(List.of("p3"))
+                .thenReturn(List.of());
+        when(productRepository.findAllForIndexByIdIn(anyList()))
+                .thenAnswer(invocation -> invocation.<List<String>>getArgument(0).stream()
+                        .map(this::product)
+                        .toList());
+        AtomicBoolean inTransaction = new AtomicBoolean();
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            inTransaction.set(true);
+            try {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                inTransaction.set(false);
+            }
+        });
+        doAnswer(invocation -> {
+                    assertFalse(inTransaction.get());
+                    throw new BulkFailureException(
+                            "p1", Map.of("p1", new BulkFailureException.FailureDetails(500, "shard down")));
+                })
+                .when(elasticsearchOperations)
+                .bulkIndex(anyList(), any(IndexCoordinates.class));
+
+        AppException exception = assertThrows(AppException.class, productReindexService::reindex);
+
+        assertEquals(ErrorCode.PRODUCT_REINDEX_FAILED, exception.getErrorCode());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(elasticsearchOperations, times(2)).bulkIndex(anyList(), any(IndexCoordinates.class));
+    }
+
+    @Test
+    void documentCarriesTheNamesOfItsRelations() {
+        Product product = product("p1");
+        product.setCategory(Category.builder().id(3L).name("phone").build());
+
+        ProductElasticsearch document = productMapper.toProductElasticsearch(product);
+
+        assertEquals("p1", document.getId());
+        assertEquals("store", document.getStoreName());
+        assertEquals("phone", document.getCategoryName());
+        assertEquals(3L, document.getCategoryId());
+        assertNull(document.getBrandId());
+        assertTrue(document.isAvailable());
+        assertNotNull(document.getSuggest());
+    }
+
+    private Product product(String id) {
+        return Product.builder()
+                .id(id)
+                .name(id)
+                .isAvailable(true)
+                .store(Store.builder().id("s1").name("store").build())
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.hkteam.ecommerce_platform.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hkteam.ecommerce_platform.entity.order.Order;
+import com.hkteam.ecommerce_platform.entity.statistic.StatDelta;
+import com.hkteam.ecommerce_platform.entity.user.Store;
+import com.hkteam.ecommerce_platform.repository.DailyPlatformStatsRepository;
+import com.hkteam.ecommerce_platform.repository.DailyStoreStatsRepository;
+import com.hkteam.ecommerce_platform.repository.StatDeltaRepository;
+
+class StatisticRollupServiceTest {
+    DailyPlatformStatsRepository dailyPlatformStatsRepository;
+    DailyStoreStatsRepository dailyStoreStatsRepository;
+    StatDeltaRepository statDeltaRepository;
+    JdbcTemplate jdbcTemplate;
+    StatisticRollupService statisticRollupService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        dailyPlatformStatsRepository = mock(DailyPlatformStatsRepository.class);
+        dailyStoreStatsRepository = mock(DailyStoreStatsRepository.class);
+        statDeltaRepository = mock(StatDeltaRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation ->
+                        invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+        statisticRollupService = new StatisticRollupService(
+                dailyPlatformStatsRepository,
+                dailyStoreStatsRepository,
+                statDeltaRepository,
+                jdbcTemplate,
+                transactionTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void orderEventsAreWrittenAsPlatformAndStoreDeltaRows() {
+        statisticRollupService.recordOrderPlaced(
+                Order.builder().store(Store.builder().id("s1").build()).build());
+
+        ArgumentCaptor<List<StatDelta>> rows = ArgumentCaptor.forClass(List.class);
+        verify(statDeltaRepository).saveAll(rows.capture());
+        assertEquals(2, rows.getValue().size());
+        assertNull(rows.getValue().get(0).getStoreId());
+        assertEquals("s1", rows.getValue().get(1).getStoreId());
+        rows.getValue().forEach(row -> {
+            assertEquals(1, row.getOrdersPlaced());
+            assertEquals(BigDecimal.ZERO, row.getRevenue());
+        });
+        verifyNoInteractions(dailyPlatformStatsRepository, dailyStoreStatsRepository);
+    }
+
+    @Test
+    void signupsOnlyCountOnThePlatformRow() {
+        statisticRollupService.recordNewCustomer();
+
+        ArgumentCaptor<StatDelta> row = ArgumentCaptor.forClass(StatDelta.class);
+        verify(statDeltaRepository).save(row.capture());
+        assertNull(row.getValue().getStoreId());
+        assertEquals(1, row.getValue().getNewCustomers());
+    }
+
+    @Test
+    void flushFoldsDeltasUnderTheRollupLock() {
+        statisticRollupService.flush();
+
+        InOrder inOrder = inOrder(jdbcTemplate, statDeltaRepository);
+        inOrder.verify(jdbcTemplate).queryForList(StatisticRollupService.LOCK_ROLLUPS);
+        inOrder.verify(statDeltaRepository).foldIntoRollups();
+    }
+
+    @Test
+    void failedFlushLeavesTheDeltasInPlace() {
+        when(statDeltaRepository.foldIntoRollups())
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(1);
+
+        assertDoesNotThrow(statisticRollupService::flush);
+        statisticRollupService.flush();
+
+        verify(statDeltaRepository, times(2)).foldIntoRollups();
+        verify(statDeltaRepository, never()).deleteAllInBatch();
+    }
+
+    @Test
+    void rebuildTakesTheLockBeforeReplacingRows() {
+        LocalDate day = LocalDate.of(2024, 7, 1);
+
+        statisticRollupService.rebuild(day, day);
+
+        InOrder inOrder = inOrder(jdbcTemplate, dailyPlatformStatsRepository, dailyStoreStatsRepository);
+        inOrder.verify(jdbcTemplate).queryForList(StatisticRollupService.LOCK_ROLLUPS);
+        inOrder.verify(dailyPlatformStatsRepository).deleteByStatDateRange(day, day);
+        inOrder.verify(dailyPlatformStatsRepository).rebuild(any(), any());
+        inOrder.verify(dailyStoreStatsRepository).rebuild(any(), any());
+    }
+}
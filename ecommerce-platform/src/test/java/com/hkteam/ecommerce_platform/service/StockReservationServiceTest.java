@@ -0,0 +1,79 @@
+package com.hkteam.ecommerce_platform.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.hkteam.ecommerce_platform.dto.request.OrderItemRequest;
+import com.hkteam.ecommerce_platform.exception.AppException;
+import com.hkteam.ecommerce_platform.exception.ErrorCode;
+
+class StockReservationServiceTest {
+    JdbcTemplate jdbcTemplate;
+    StockReservationService stockReservationService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        stockReservationService = new StockReservationService(jdbcTemplate);
+    }
+
+    @Test
+    void rejectsWhenAConditionalUpdateMatchesNoRow() {
+        when(jdbcTemplate.batchUpdate(eq(StockReservationService.RESERVE_PRODUCT), anyList()))
+                .thenReturn(new int[] {1, 0});
+
+        AppException exception = assertThrows(
+                AppException.class, () -> stockReservationService.reserve(List.of(item("p2", 1), item("p1", 2))));
+
+        assertEquals(ErrorCode.QUANTITY_NOT_ENOUGH, exception.getErrorCode());
+    }
+
+    @Test
+    void rejectsNonPositiveQuantitiesBeforeTouchingStock() {
+        assertThrows(AppException.class, () -> stockReservationService.reserve(List.of(item("p1", 0))));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reservesMergedQuantitiesInIdOrder() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] {1, 1});
+
+        stockReservationService.reserve(List.of(item("p2", 1), item("p1", 2), item("p2", 3)));
+
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(StockReservationService.RESERVE_PRODUCT), args.capture());
+        assertArrayEquals(new Object[] {2, "p1", 2}, args.getValue().get(0));
+        assertArrayEquals(new Object[] {4, "p2", 4}, args.getValue().get(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void releaseAddsQuantitiesBackRelatively() {
+        stockReservationService.release(Map.of("p1", 2), Map.of("v1", 2));
+
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(StockReservationService.RESTORE_PRODUCT), args.capture());
+        assertArrayEquals(new Object[] {2, "p1"}, args.getValue().get(0));
+        verify(jdbcTemplate).batchUpdate(eq(StockReservationService.RESTORE_VARIANT), anyList());
+    }
+
+    private OrderItemRequest item(String productId, int quantity) {
+        return OrderItemRequest.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .build();
+    }
+}
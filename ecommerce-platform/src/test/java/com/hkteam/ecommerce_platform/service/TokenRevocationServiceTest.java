@@ -0,0 +1,93 @@
+package com.hkteam.ecommerce_platform.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hkteam.ecommerce_platform.entity.authorization.InvalidatedToken;
+import com.hkteam.ecommerce_platform.repository.InvalidatedTokenRepository;
+
+class TokenRevocationServiceTest {
+    static final long HOUR = 3_600_000;
+
+    InvalidatedTokenRepository invalidatedTokenRepository;
+    TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        invalidatedTokenRepository = mock(InvalidatedTokenRepository.class);
+        tokenRevocationService =
+                new TokenRevocationService(invalidatedTokenRepository, mock(StringRedisTemplate.class));
+    }
+
+    @Test
+    void revokedTokenStaysRevokedUntilItsRefreshWindowEnds() {
+        Date refreshableUntil = new Date(System.currentTimeMillis() + 98 * HOUR);
+        when(invalidatedTokenRepository.findAllByExpiryTimeAfter(any()))
+                .thenReturn(List.of(InvalidatedToken.builder()
+                        .id("jti")
+                        .expiryTime(refreshableUntil)
+                        .build()));
+
+        tokenRevocationService.revoke("jti", refreshableUntil);
+        tokenRevocationService.resync();
+
+        assertTrue(tokenRevocationService.isRevoked("jti"));
+    }
+
+    @Test
+    void resyncDropsTokensPastTheirExpiry() {
+        when(invalidatedTokenRepository.findAllByExpiryTimeAfter(any())).thenReturn(List.of());
+
+        tokenRevocationService.revoke("expired", new Date(System.currentTimeMillis() - HOUR));
+        tokenRevocationService.revoke("live", new Date(System.currentTimeMillis() + HOUR));
+        tokenRevocationService.resync();
+
+        assertFalse(tokenRevocationService.isRevoked("expired"));
+        assertTrue(tokenRevocationService.isRevoked("live"));
+        verify(invalidatedTokenRepository, never()).existsById("expired");
+    }
+
+    @Test
+    void purgeKeepsRowsForAFullRefreshWindow() {
+        ReflectionTestUtils.setField(tokenRevocationService, "refreshableDuration", 360_000L);
+        ReflectionTestUtils.setField(tokenRevocationService, "purgeBatchSize", 1000);
+        when(invalidatedTokenRepository.deleteExpiredBatch(any(), anyInt())).thenReturn(0);
+
+        long startedAt = System.currentTimeMillis();
+        tokenRevocationService.purgeExpired();
+
+        ArgumentCaptor<Date> before = ArgumentCaptor.forClass(Date.class);
+        verify(invalidatedTokenRepository).deleteExpiredBatch(before.capture(), eq(1000));
+        assertEquals(startedAt - 100 * HOUR, before.getValue().getTime(), 1000);
+    }
+
+    @Test
+    void purgeStopsAfterAShortBatch() {
+        ReflectionTestUtils.setField(tokenRevocationService, "purgeBatchSize", 2);
+        when(invalidatedTokenRepository.deleteExpiredBatch(any(), anyInt())).thenReturn(2, 2, 1, 2);
+
+        tokenRevocationService.purgeExpired();
+
+        verify(invalidatedTokenRepository, times(3)).deleteExpiredBatch(any(), eq(2));
+    }
+
+    @Test
+    void fallsBackToDatabaseBeforeFirstResync() {
+        when(invalidatedTokenRepository.existsById("jti")).thenReturn(true);
+
+        assertTrue(tokenRevocationService.isRevoked("jti"));
+        assertFalse(tokenRevocationService.isRevoked(null));
+    }
+}
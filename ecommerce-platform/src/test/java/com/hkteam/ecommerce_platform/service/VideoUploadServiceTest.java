@@ -0,0 +1,191 @@
+package com.hkteam.ecommerce_platform.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hkteam.ecommerce_platform.dto.request.VideoUploadInitRequest;
+import com.hkteam.ecommerce_platform.dto.response.VideoUploadResponse;
+import com.hkteam.ecommerce_platform.entity.product.Product;
+import com.hkteam.ecommerce_platform.enums.RoleName;
+import com.hkteam.ecommerce_platform.enums.VideoUploadStatus;
+import com.hkteam.ecommerce_platform.exception.AppException;
+import com.hkteam.ecommerce_platform.exception.ErrorCode;
+import com.hkteam.ecommerce_platform.repository.ProductElasticsearchRepository;
+import com.hkteam.ecommerce_platform.repository.ProductRepository;
+import com.hkteam.ecommerce_platform.util.AuthenticatedUserUtil;
+
+class VideoUploadServiceTest {
+    static final byte[] VIDEO = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path spoolDirectory;
+
+    Path spoolFile;
+    CloudinaryService cloudinaryService;
+    MediaSpoolService mediaSpoolService;
+    ProductRepository productRepository;
+    AuthenticatedUserUtil authenticatedUserUtil;
+    VideoUploadService videoUploadService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        spoolFile = spoolDirectory.resolve("video");
+        cloudinaryService = mock(CloudinaryService.class);
+        mediaSpoolService = mock(MediaSpoolService.class);
+        when(mediaSpoolService.create()).thenAnswer(invocation -> {
+            Files.createFile(spoolFile);
+            return "video";
+        });
+        when(mediaSpoolService.resolve("video")).thenReturn(spoolFile.toFile());
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findById("p1"))
+                .thenReturn(Optional.of(Product.builder().id("p1").build()));
+        authenticatedUserUtil = mock(AuthenticatedUserUtil.class);
+        when(authenticatedUserUtil.isOwner(any(Product.class))).thenReturn(true);
+        authenticateAs("u1");
+
+        videoUploadService = new VideoUploadService(
+                cloudinaryService,
+                mediaSpoolService,
+                productRepository,
+                mock(ProductElasticsearchRepository.class),
+                authenticatedUserUtil);
+        ReflectionTestUtils.setField(videoUploadService, "parallelism", 1);
+        ReflectionTestUtils.setField(videoUploadService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(videoUploadService, "maxChunkSize", 8L);
+        ReflectionTestUtils.setField(videoUploadService, "sessionTtl", Duration.ofHours(6));
+        videoUploadService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        videoUploadService.shutdown();
+    }
+
+    @Test
+    void brokenChunkIsDroppedAndResentFromTheSameOffset() throws Exception {
+        when(cloudinaryService.uploadLargeVideo(any(), anyString())).thenReturn(Map.of("url", "https://video"));
+        String uploadId = initUpload(sha256(VIDEO));
+
+        assertEquals(8, appendChunk(uploadId, 0, 0, 8).getReceivedBytes());
+        assertError(ErrorCode.VIDEO_UPLOAD_OFFSET_MISMATCH, () -> appendChunk(uploadId, 0, 8, 16));
+
+        InputStream broken = new InputStream() {
+            int remaining = 5;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining-- <= 0) throw new IOException("connection reset");
+                return 'x';
+            }
+        };
+        assertError(ErrorCode.UPLOAD_FILE_FAILED, () -> videoUploadService.appendChunk(uploadId, 8, broken));
+        assertEquals(8, Files.size(spoolFile));
+        assertEquals(8, videoUploadService.getUpload(uploadId).getReceivedBytes());
+
+        appendChunk(uploadId, 8, 8, 16);
+        assertError(ErrorCode.VIDEO_UPLOAD_INCOMPLETE, () -> videoUploadService.completeUpload(uploadId));
+        appendChunk(uploadId, 16, 16, 20);
+
+        videoUploadService.completeUpload(uploadId);
+
+        assertEquals("https://video", awaitCompleted(uploadId).getVideoUrl());
+        verify(productRepository).updateVideoUrlById("https://video", "p1");
+        verify(mediaSpoolService).delete("video");
+    }
+
+    @Test
+    void chunkOverTheSizeLimitIsDropped() throws Exception {
+        String uploadId = initUpload(sha256(VIDEO));
+
+        assertError(ErrorCode.SIZE_TOO_LARGE, () -> appendChunk(uploadId, 0, 0, 9));
+
+        assertEquals(0, Files.size(spoolFile));
+        assertEquals(0, videoUploadService.getUpload(uploadId).getReceivedBytes());
+    }
+
+    @Test
+    void checksumMismatchDiscardsTheUpload() throws Exception {
+        String uploadId = initUpload(sha256("something else".getBytes(StandardCharsets.UTF_8)));
+        appendChunk(uploadId, 0, 0, 8);
+        appendChunk(uploadId, 8, 8, 16);
+        appendChunk(uploadId, 16, 16, 20);
+
+        assertError(ErrorCode.VIDEO_CHECKSUM_MISMATCH, () -> videoUploadService.completeUpload(uploadId));
+
+        verify(mediaSpoolService).delete("video");
+        assertError(ErrorCode.VIDEO_UPLOAD_NOT_FOUND, () -> videoUploadService.getUpload(uploadId));
+        verifyNoInteractions(cloudinaryService);
+    }
+
+    @Test
+    void onlyTheSellerWhoStartedTheUploadCanSendChunks() throws Exception {
+        String uploadId = initUpload(sha256(VIDEO));
+        authenticateAs("u2");
+
+        assertError(ErrorCode.UNAUTHORIZED, () -> appendChunk(uploadId, 0, 0, 8));
+        assertEquals(0, Files.size(spoolFile));
+    }
+
+    private String initUpload(String checksum) {
+        return videoUploadService
+                .initUpload(
+                        "p1",
+                        VideoUploadInitRequest.builder()
+                                .fileName("clip.mp4")
+                                .totalSize(VIDEO.length)
+                                .checksum(checksum)
+                                .build())
+                .getUploadId();
+    }
+
+    private VideoUploadResponse appendChunk(String uploadId, long offset, int from, int to) {
+        return videoUploadService.appendChunk(uploadId, offset, new ByteArrayInputStream(VIDEO, from, to - from));
+    }
+
+    private VideoUploadResponse awaitCompleted(String uploadId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            VideoUploadResponse upload = videoUploadService.getUpload(uploadId);
+            if (upload.getStatus() != VideoUploadStatus.PROCESSING) {
+                assertEquals(VideoUploadStatus.COMPLETED, upload.getStatus());
+                return upload;
+            }
+            Thread.sleep(50);
+        }
+        return fail("Video upload " + uploadId + " is still processing");
+    }
+
+    private void authenticateAs(String userId) {
+        when(authenticatedUserUtil.getAuthenticatedUserSummary())
+                .thenReturn(new AuthenticatedUserUtil.AuthenticatedUser(userId, userId, Set.of(RoleName.SELLER)));
+    }
+
+    private String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    private void assertError(ErrorCode errorCode, Runnable call) {
+        assertEquals(errorCode, assertThrows(AppException.class, call::run).getErrorCode());
+    }
+}
@@ -0,0 +1,96 @@
+package com.hkteam.ecommerce_platform.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.hkteam.ecommerce_platform.entity.authorization.Role;
+import com.hkteam.ecommerce_platform.entity.user.Store;
+import com.hkteam.ecommerce_platform.entity.user.User;
+import com.hkteam.ecommerce_platform.enums.RoleName;
+import com.hkteam.ecommerce_platform.repository.UserRepository;
+
+class AuthenticatedUserUtilTest {
+    UserRepository userRepository;
+    AuthenticatedUserUtil authenticatedUserUtil;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername("u1"))
+                .thenReturn(Optional.of(User.builder()
+                        .id("id1")
+                        .username("u1")
+                        .roles(Set.of(Role.builder().name(RoleName.USER).build()))
+                        .build()));
+        when(userRepository.findIdByUsername("u1")).thenReturn(Optional.of("id1"));
+        when(userRepository.findByUsername("u2"))
+                .thenReturn(Optional.of(User.builder().id("id2").username("u2").build()));
+        authenticatedUserUtil = new AuthenticatedUserUtil(userRepository);
+
+        authenticate("u1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void userIsLoadedOncePerRequest() {
+        User user = authenticatedUserUtil.getAuthenticatedUser();
+
+        assertSame(user, authenticatedUserUtil.getAuthenticatedUser());
+        assertEquals("id1", authenticatedUserUtil.getAuthenticatedUserSummary().id());
+        verify(userRepository).findByUsername("u1");
+        verify(userRepository, never()).findIdByUsername(any());
+    }
+
+    @Test
+    void summaryOnlyLoadsTheIdAndTakesRolesFromTheToken() {
+        AuthenticatedUserUtil.AuthenticatedUser summary = authenticatedUserUtil.getAuthenticatedUserSummary();
+
+        assertEquals(new AuthenticatedUserUtil.AuthenticatedUser("id1", "u1", Set.of(RoleName.SELLER)), summary);
+        assertTrue(authenticatedUserUtil.isOwner(
+                Store.builder().user(User.builder().id("id1").build()).build()));
+        verify(userRepository).findIdByUsername("u1");
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void anotherUserInTheSameRequestIsLoadedAgain() {
+        authenticatedUserUtil.getAuthenticatedUser();
+        authenticate("u2");
+
+        assertEquals("id2", authenticatedUserUtil.getAuthenticatedUser().getId());
+    }
+
+    @Test
+    void userIsLoadedEveryTimeOutsideARequest() {
+        RequestContextHolder.resetRequestAttributes();
+
+        authenticatedUserUtil.getAuthenticatedUser();
+        authenticatedUserUtil.getAuthenticatedUser();
+
+        verify(userRepository, times(2)).findByUsername("u1");
+    }
+
+    private void authenticate(String username) {
+        SecurityContextHolder.getContext()
+                .setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_SELLER", "SCOPE_read"));
+    }
+}
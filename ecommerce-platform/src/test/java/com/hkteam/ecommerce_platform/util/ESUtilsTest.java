@@ -0,0 +1,123 @@
+package com.hkteam.ecommerce_platform.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
+
+import com.hkteam.ecommerce_platform.exception.AppException;
+import com.hkteam.ecommerce_platform.exception.ErrorCode;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+
+class ESUtilsTest {
+    static final String SORT = "salePrice:asc";
+
+    @Test
+    void cursorRoundTripsItsSortValues() {
+        String scope = ESUtils.createCursorScope(query("phone", List.of(1L)));
+        List<FieldValue> after = List.of(FieldValue.of(1500.5), FieldValue.of(42L), FieldValue.of("p1"));
+
+        List<FieldValue> decoded = ESUtils.decodeCursor(ESUtils.encodeCursor(SORT, scope, after), SORT, scope);
+
+        assertEquals(
+                after.stream().map(FieldValue::_get).toList(),
+                decoded.stream().map(FieldValue::_get).toList());
+    }
+
+    @Test
+    void cursorIsRejectedForAnotherQueryOrSort() {
+        String scope = ESUtils.createCursorScope(query("phone", List.of(1L)));
+        String cursor = ESUtils.encodeCursor(SORT, scope, List.of(FieldValue.of("p1")));
+
+        String otherFilters = ESUtils.createCursorScope(query("phone", List.of(2L)));
+        String otherSearch = ESUtils.createCursorScope(query("laptop", List.of(1L)));
+        assertNotEquals(scope, otherFilters);
+        assertEquals(scope, ESUtils.createCursorScope(query("phone", List.of(1L))));
+
+        assertInvalid(() -> ESUtils.decodeCursor(cursor, SORT, otherFilters));
+        assertInvalid(() -> ESUtils.decodeCursor(cursor, SORT, otherSearch));
+        assertInvalid(() -> ESUtils.decodeCursor(cursor, "salePrice:desc", scope));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertInvalid(() -> ESUtils.decodeCursor("not base64 !", SORT, "scope"));
+        assertInvalid(() -> ESUtils.decodeCursor("bm90IGpzb24", SORT, "scope"));
+    }
+
+    @Test
+    void facetFiltersOnlyContainSelectedFacets() {
+        Map<String, Query> filters = ESUtils.createFacetFilters(List.of(1L), null, null, BigDecimal.TEN, 0);
+
+        assertEquals(List.of(ESUtils.FACET_CATEGORY, ESUtils.FACET_PRICE), List.copyOf(filters.keySet()));
+    }
+
+    @Test
+    void eachFacetIsCountedWithoutItsOwnFilter() {
+        Map<String, Query> filters = ESUtils.createFacetFilters(List.of(1L), List.of(7L), null, null, 4);
+
+        Map<String, Aggregation> aggregations = ESUtils.createFacetAggregations(filters);
+
+        assertEquals(4, aggregations.size());
+        List<Query> brandFilters =
+                aggregations.get(ESUtils.FACET_BRAND).filter().bool().filter();
+        assertEquals(2, brandFilters.size());
+        assertFalse(brandFilters.contains(filters.get(ESUtils.FACET_BRAND)));
+        assertTrue(brandFilters.contains(filters.get(ESUtils.FACET_CATEGORY)));
+        assertEquals(
+                3,
+                aggregations.get(ESUtils.FACET_PRICE).filter().bool().filter().size());
+    }
+
+    @Test
+    void facetWithNoOtherSelectionCountsEverything() {
+        Map<String, Query> filters = ESUtils.createFacetFilters(List.of(1L), null, null, null, 0);
+
+        Map<String, Aggregation> aggregations = ESUtils.createFacetAggregations(filters);
+
+        assertTrue(aggregations.get(ESUtils.FACET_CATEGORY).filter().isMatchAll());
+        assertTrue(aggregations
+                .get(ESUtils.FACET_CATEGORY)
+                .aggregations()
+                .get(ESUtils.FACET_BUCKETS)
+                .isTerms());
+        assertTrue(aggregations
+                .get(ESUtils.FACET_PRICE)
+                .aggregations()
+                .get(ESUtils.FACET_BUCKETS)
+                .isRange());
+    }
+
+    @Test
+    void everySuggestionCarriesTheAllScope() {
+        Completion suggest = ESUtils.createProductSuggest("iPhone 15", 4L, "s1");
+
+        assertArrayEquals(new String[] {"iPhone 15"}, suggest.getInput());
+        assertEquals(
+                List.of("all", "category:4", "store:s1"), suggest.getContexts().get(ESUtils.SUGGEST_CONTEXT));
+    }
+
+    @Test
+    void suggestScopeNarrowsToTheStoreBeforeTheCategory() {
+        assertEquals("store:s1", ESUtils.createSuggestScope(4L, "s1"));
+        assertEquals("category:4", ESUtils.createSuggestScope(4L, null));
+        assertEquals("all", ESUtils.createSuggestScope(null, null));
+    }
+
+    private Query query(String search, List<Long> categoryIds) {
+        return ESUtils.createSupplierSearchProducts(categoryIds, null, "s1", search, null, null, 0)
+                .get();
+    }
+
+    private void assertInvalid(Runnable decode) {
+        AppException exception = assertThrows(AppException.class, decode::run);
+        assertEquals(ErrorCode.INVALID_SEARCH_CURSOR, exception.getErrorCode());
+    }
+}
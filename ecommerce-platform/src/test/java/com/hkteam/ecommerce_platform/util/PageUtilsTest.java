@@ -0,0 +1,40 @@
+package com.hkteam.ecommerce_platform.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import com.hkteam.ecommerce_platform.exception.AppException;
+import com.hkteam.ecommerce_platform.exception.ErrorCode;
+
+class PageUtilsTest {
+    @Test
+    void cursorRoundTripsPositionOfTheLastRow() {
+        Instant at = Instant.parse("2024-07-01T10:15:30.123456Z");
+
+        PageUtils.KeysetCursor cursor = PageUtils.decodeCursor(PageUtils.encodeCursor(at, "room|1"));
+
+        assertEquals(at, cursor.at());
+        assertEquals("room|1", cursor.id());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertInvalid("not base64 !");
+        assertInvalid(encode("2024-07-01T10:15:30Z"));
+        assertInvalid(encode("yesterday|room-1"));
+    }
+
+    private String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void assertInvalid(String cursor) {
+        AppException exception = assertThrows(AppException.class, () -> PageUtils.decodeCursor(cursor));
+        assertEquals(ErrorCode.INVALID_PAGE_CURSOR, exception.getErrorCode());
+    }
+}